@@ -0,0 +1,139 @@
+package com.lfy.benchmark;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.stream.Stream;
+
+/**
+ * 基准测试用的数据生成：合成的.class目录/Jar包，以及按宽度和深度生成并编译的Bean依赖图。
+ */
+public class BenchmarkSupport {
+
+    // 每个子包中的类数量:
+    static final int CLASSES_PER_PACKAGE = 100;
+
+    /**
+     * 在root下生成count个.class文件，按每100个分到一个子包；jar为true时打包为root/classes.jar。返回加入classpath的URL。
+     */
+    public static URL writeSyntheticClasses(Path root, String basePackage, int count, boolean jar) throws IOException {
+        String basePath = basePackage.replace('.', '/');
+        byte[] content = new byte[]{(byte) 0xCA, (byte) 0xFE, (byte) 0xBA, (byte) 0xBE};
+        if (jar) {
+            Path jarFile = root.resolve("classes.jar");
+            try (JarOutputStream out = new JarOutputStream(Files.newOutputStream(jarFile))) {
+                //与构建工具生成的Jar一样写入目录条目，否则ClassLoader.getResources(包路径)找不到该Jar:
+                StringBuilder dir = new StringBuilder();
+                for (String part : basePath.split("/")) {
+                    dir.append(part).append('/');
+                    out.putNextEntry(new JarEntry(dir.toString()));
+                    out.closeEntry();
+                }
+                for (int i = 0; i < count; i++) {
+                    if (i % CLASSES_PER_PACKAGE == 0) {
+                        out.putNextEntry(new JarEntry(basePath + "/p" + (i / CLASSES_PER_PACKAGE) + "/"));
+                        out.closeEntry();
+                    }
+                    out.putNextEntry(new JarEntry(basePath + "/p" + (i / CLASSES_PER_PACKAGE) + "/C" + i + ".class"));
+                    out.write(content);
+                    out.closeEntry();
+                }
+            }
+            return jarFile.toUri().toURL();
+        }
+        for (int i = 0; i < count; i++) {
+            Path file = root.resolve(basePath + "/p" + (i / CLASSES_PER_PACKAGE) + "/C" + i + ".class");
+            Files.createDirectories(file.getParent());
+            try (OutputStream out = Files.newOutputStream(file)) {
+                out.write(content);
+            }
+        }
+        return root.toUri().toURL();
+    }
+
+    /**
+     * 生成width * depth个@Component：第d层的第i个Bean通过构造方法依赖第d-1层的第i和第i+1个Bean。
+     */
+    public static BeanGraph generateBeanGraph(Path root, String basePackage, int width, int depth) throws IOException {
+        Path srcDir = root.resolve("src");
+        Path classesDir = root.resolve("classes");
+        Path pkgDir = srcDir.resolve(basePackage.replace('.', '/'));
+        Files.createDirectories(pkgDir);
+        Files.createDirectories(classesDir);
+        List<String> sources = new ArrayList<>();
+        List<String> beanNames = new ArrayList<>();
+
+        Path config = pkgDir.resolve("BenchConfig.java");
+        Files.writeString(config, "package " + basePackage + ";\n"
+                + "@com.lfy.annotation.ComponentScan\n@com.lfy.annotation.Configuration\npublic class BenchConfig {\n}\n");
+        sources.add(config.toString());
+
+        for (int d = 0; d < depth; d++) {
+            for (int i = 0; i < width; i++) {
+                String name = beanClassName(d, i);
+                StringBuilder sb = new StringBuilder();
+                sb.append("package ").append(basePackage).append(";\n");
+                sb.append("@com.lfy.annotation.Component\npublic class ").append(name).append(" {\n");
+                if (d == 0) {
+                    sb.append("    public ").append(name).append("() {\n    }\n");
+                } else {
+                    sb.append("    public ").append(name).append("(@com.lfy.annotation.Autowired ").append(beanClassName(d - 1, i)).append(" a, ")
+                            .append("@com.lfy.annotation.Autowired ").append(beanClassName(d - 1, (i + 1) % width)).append(" b) {\n    }\n");
+                }
+                sb.append("}\n");
+                Path file = pkgDir.resolve(name + ".java");
+                Files.writeString(file, sb.toString());
+                sources.add(file.toString());
+                beanNames.add(Character.toLowerCase(name.charAt(0)) + name.substring(1));
+            }
+        }
+
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        if (compiler == null) {
+            throw new IllegalStateException("Benchmarks must run on a JDK.");
+        }
+        List<String> args = new ArrayList<>(List.of("-proc:none", "-parameters", "-d", classesDir.toString(),
+                "-cp", System.getProperty("java.class.path")));
+        args.addAll(sources);
+        if (compiler.run(null, null, null, args.toArray(new String[0])) != 0) {
+            throw new IllegalStateException("Cannot compile generated beans.");
+        }
+        URLClassLoader classLoader = new URLClassLoader(new URL[]{classesDir.toUri().toURL()}, BenchmarkSupport.class.getClassLoader());
+        return new BeanGraph(classLoader, basePackage + ".BenchConfig", List.copyOf(beanNames));
+    }
+
+    static String beanClassName(int d, int i) {
+        return "L" + d + "Bean" + i;
+    }
+
+    public static void deleteRecursively(Path root) {
+        if (root == null || !Files.exists(root)) {
+            return;
+        }
+        try (Stream<Path> files = Files.walk(root)) {
+            for (Path p : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(p);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public record BeanGraph(URLClassLoader classLoader, String configClassName, List<String> beanNames) {
+
+        public Class<?> loadConfigClass() throws ClassNotFoundException {
+            return Class.forName(configClassName, true, classLoader);
+        }
+    }
+}
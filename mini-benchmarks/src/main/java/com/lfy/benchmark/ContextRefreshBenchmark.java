@@ -0,0 +1,89 @@
+package com.lfy.benchmark;
+
+import com.lfy.context.AnnotationConfigApplicationContext;
+import com.lfy.context.BeanDefinition;
+import com.lfy.io.PropertyResolver;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 生成不同宽度和深度的Bean依赖图，测量createBeanDefinitions和完整启动容器的耗时。
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ContextRefreshBenchmark {
+
+    @Param({"10", "100"})
+    int width;
+
+    @Param({"1", "10"})
+    int depth;
+
+    @Param({"false", "true"})
+    boolean parallel;
+
+    Path root;
+
+    BenchmarkSupport.BeanGraph graph;
+
+    Class<?> configClass;
+
+    Set<String> classNames;
+
+    AnnotationConfigApplicationContext context;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        root = Files.createTempDirectory("mini-refresh");
+        graph = BenchmarkSupport.generateBeanGraph(root, "bench.refresh", width, depth);
+        Thread.currentThread().setContextClassLoader(graph.classLoader());
+        configClass = graph.loadConfigClass();
+        context = new AnnotationConfigApplicationContext(configClass, createPropertyResolver());
+        classNames = new HashSet<>();
+        classNames.add(configClass.getName());
+        for (int d = 0; d < depth; d++) {
+            for (int i = 0; i < width; i++) {
+                classNames.add("bench.refresh." + BenchmarkSupport.beanClassName(d, i));
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        context.close();
+        graph.classLoader().close();
+        BenchmarkSupport.deleteRecursively(root);
+    }
+
+    PropertyResolver createPropertyResolver() {
+        Properties props = new Properties();
+        props.setProperty("mini.create.parallel", String.valueOf(parallel));
+        return new PropertyResolver(props);
+    }
+
+    @Benchmark
+    public Map<String, BeanDefinition> createBeanDefinitions() {
+        Thread.currentThread().setContextClassLoader(graph.classLoader());
+        return context.createBeanDefinitions(classNames);
+    }
+
+    @Benchmark
+    public AnnotationConfigApplicationContext refresh() throws Exception {
+        Thread.currentThread().setContextClassLoader(graph.classLoader());
+        //关闭每次创建的容器，避免Bean和线程在迭代之间累积:
+        try (var ctx = new AnnotationConfigApplicationContext(configClass, createPropertyResolver())) {
+            return ctx;
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.lfy.benchmark;
+
+import com.lfy.context.AnnotationConfigApplicationContext;
+import com.lfy.io.PropertyResolver;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 多线程同时按名称和按类型getBean的吞吐量。
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(8)
+@State(Scope.Benchmark)
+public class GetBeanBenchmark {
+
+    @Param({"1000"})
+    int beanCount;
+
+    Path root;
+
+    BenchmarkSupport.BeanGraph graph;
+
+    AnnotationConfigApplicationContext context;
+
+    List<String> beanNames;
+
+    Class<?>[] beanTypes;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        root = Files.createTempDirectory("mini-getbean");
+        graph = BenchmarkSupport.generateBeanGraph(root, "bench.getbean", beanCount, 1);
+        Thread.currentThread().setContextClassLoader(graph.classLoader());
+        context = new AnnotationConfigApplicationContext(graph.loadConfigClass(), new PropertyResolver(new Properties()));
+        beanNames = graph.beanNames();
+        beanTypes = new Class<?>[beanNames.size()];
+        for (int i = 0; i < beanTypes.length; i++) {
+            beanTypes[i] = context.getBean(beanNames.get(i)).getClass();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        context.close();
+        graph.classLoader().close();
+        BenchmarkSupport.deleteRecursively(root);
+    }
+
+    @Benchmark
+    public Object getBeanByName() {
+        return context.getBean(beanNames.get(ThreadLocalRandom.current().nextInt(beanNames.size())));
+    }
+
+    @Benchmark
+    public Object getBeanByType() {
+        return context.getBean(beanTypes[ThreadLocalRandom.current().nextInt(beanTypes.length)]);
+    }
+}
@@ -0,0 +1,58 @@
+package com.lfy.benchmark;
+
+import com.lfy.io.PropertyResolver;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * PropertyResolver.getProperty解析嵌套占位符，以及convert的耗时。
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PropertyResolverBenchmark {
+
+    PropertyResolver resolver;
+
+    @Setup
+    public void setup() {
+        Properties props = new Properties();
+        props.setProperty("app.name", "benchmark");
+        props.setProperty("app.title", "${app.name}");
+        props.setProperty("app.display", "${app.title}");
+        props.setProperty("app.label", "${app.display}");
+        props.setProperty("server.port", "8080");
+        props.setProperty("server.timeout", "${server.connect-timeout:30}");
+        resolver = new PropertyResolver(props);
+    }
+
+    @Benchmark
+    public String plainKey() {
+        return resolver.getProperty("app.name");
+    }
+
+    @Benchmark
+    public String nestedPlaceholder() {
+        return resolver.getProperty("app.label");
+    }
+
+    @Benchmark
+    public String placeholderWithDefault() {
+        return resolver.getProperty("${app.missing:${app.title}}");
+    }
+
+    @Benchmark
+    public Integer convertInt() {
+        return resolver.getProperty("server.port", Integer.class);
+    }
+
+    @Benchmark
+    public int convertDefaultInt() {
+        return resolver.getProperty("server.timeout", int.class);
+    }
+}
@@ -0,0 +1,65 @@
+package com.lfy.benchmark;
+
+import com.lfy.io.ResourceResolver;
+import org.openjdk.jmh.annotations.*;
+
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ResourceResolver.scan在1k/10k个类的目录和Jar包上的耗时。
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ResourceResolverBenchmark {
+
+    static final String BASE_PACKAGE = "bench.scan";
+
+    @Param({"1000", "10000"})
+    int classCount;
+
+    @Param({"dir", "jar"})
+    String layout;
+
+    @Param({"false", "true"})
+    boolean parallel;
+
+    Path root;
+
+    ClassLoader classLoader;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        root = Files.createTempDirectory("mini-scan");
+        URL url = BenchmarkSupport.writeSyntheticClasses(root, BASE_PACKAGE, classCount, "jar".equals(layout));
+        classLoader = new URLClassLoader(new URL[]{url}, null);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        ((URLClassLoader) classLoader).close();
+        BenchmarkSupport.deleteRecursively(root);
+    }
+
+    @Benchmark
+    public List<String> scan() throws Exception {
+        Thread.currentThread().setContextClassLoader(classLoader);
+        ResourceResolver rr = new ResourceResolver(BASE_PACKAGE);
+        rr.setParallel(parallel);
+        return rr.scan(res -> {
+            String name = res.name();
+            if (name.endsWith(".class")) {
+                return name.substring(0, name.length() - 6).replace("/", ".").replace("\\", ".");
+            }
+            return null;
+        });
+    }
+}
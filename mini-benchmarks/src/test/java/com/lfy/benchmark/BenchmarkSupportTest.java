@@ -0,0 +1,105 @@
+package com.lfy.benchmark;
+
+import com.lfy.context.AnnotationConfigApplicationContext;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+
+import static org.junit.Assert.*;
+
+/**
+ * 每个基准测试的setup/benchmark/tearDown执行一次，保证生成的数据和基准测试本身可用。
+ */
+public class BenchmarkSupportTest {
+
+    Path root;
+
+    ClassLoader contextClassLoader;
+
+    @Before
+    public void setUp() throws Exception {
+        root = Files.createTempDirectory("mini-bench-test");
+        contextClassLoader = Thread.currentThread().getContextClassLoader();
+    }
+
+    @After
+    public void tearDown() {
+        Thread.currentThread().setContextClassLoader(contextClassLoader);
+        BenchmarkSupport.deleteRecursively(root);
+    }
+
+    @Test
+    public void scanSyntheticClasses() throws Exception {
+        for (String layout : new String[] { "dir", "jar" }) {
+            var benchmark = new ResourceResolverBenchmark();
+            benchmark.classCount = 250;
+            benchmark.layout = layout;
+            benchmark.parallel = true;
+            benchmark.setup();
+            try {
+                var classes = benchmark.scan();
+                assertEquals(layout, 250, classes.size());
+                assertEquals(250, new HashSet<>(classes).size());
+                assertTrue(classes.contains("bench.scan.p2.C249"));
+            } finally {
+                benchmark.tearDown();
+            }
+        }
+    }
+
+    @Test
+    public void generateBeanGraph() throws Exception {
+        var graph = BenchmarkSupport.generateBeanGraph(root, "bench.test", 3, 2);
+        Thread.currentThread().setContextClassLoader(graph.classLoader());
+        try (var context = new AnnotationConfigApplicationContext(graph.loadConfigClass(), new com.lfy.io.PropertyResolver(new java.util.Properties()))) {
+            assertEquals(6, graph.beanNames().size());
+            for (String name : graph.beanNames()) {
+                assertNotNull(context.getBean(name));
+            }
+        } finally {
+            graph.classLoader().close();
+        }
+    }
+
+    @Test
+    public void contextRefreshBenchmark() throws Exception {
+        var benchmark = new ContextRefreshBenchmark();
+        benchmark.width = 4;
+        benchmark.depth = 3;
+        benchmark.parallel = true;
+        benchmark.setup();
+        try {
+            assertEquals(13, benchmark.createBeanDefinitions().size());
+            assertNotNull(benchmark.refresh());
+        } finally {
+            benchmark.tearDown();
+        }
+    }
+
+    @Test
+    public void getBeanBenchmark() throws Exception {
+        var benchmark = new GetBeanBenchmark();
+        benchmark.beanCount = 10;
+        benchmark.setup();
+        try {
+            assertNotNull(benchmark.getBeanByName());
+            assertNotNull(benchmark.getBeanByType());
+        } finally {
+            benchmark.tearDown();
+        }
+    }
+
+    @Test
+    public void propertyResolverBenchmark() {
+        var benchmark = new PropertyResolverBenchmark();
+        benchmark.setup();
+        assertEquals("benchmark", benchmark.nestedPlaceholder());
+        assertEquals("benchmark", benchmark.placeholderWithDefault());
+        assertEquals(8080, benchmark.convertInt().intValue());
+        assertEquals(30, benchmark.convertDefaultInt());
+    }
+}
@@ -7,7 +7,7 @@ import java.lang.annotation.*;
  * @Date:7/29/2023 11:06 PM
  */
 @Retention(RetentionPolicy.RUNTIME)
-@Target(ElementType.TYPE)
+@Target(ElementType.METHOD)
 @Documented
 public @interface Bean {
 
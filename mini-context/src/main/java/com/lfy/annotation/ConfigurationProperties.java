@@ -0,0 +1,13 @@
+package com.lfy.annotation;
+
+import java.lang.annotation.*;
+
+/**
+ * 把prefix下的配置项整体绑定到record或POJO，支持嵌套对象和列表；标注在@Component类上时Bean由绑定创建。
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface ConfigurationProperties {
+    String prefix() default "";
+}
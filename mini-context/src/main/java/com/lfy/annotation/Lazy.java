@@ -0,0 +1,13 @@
+package com.lfy.annotation;
+
+import java.lang.annotation.*;
+
+/**
+ * 标注的Bean在第一次getBean或被注入时才创建。
+ */
+@Target({ ElementType.TYPE, ElementType.METHOD })
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface Lazy {
+    boolean value() default true;
+}
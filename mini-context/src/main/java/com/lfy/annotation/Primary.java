@@ -7,7 +7,7 @@ import java.lang.annotation.*;
  * @Date:7/29/2023 10:41 PM
  */
 
-@Target(ElementType.TYPE)
+@Target({ ElementType.TYPE, ElementType.METHOD })
 @Retention(RetentionPolicy.RUNTIME)
 @Documented
 public @interface Primary {
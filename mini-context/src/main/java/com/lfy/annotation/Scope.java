@@ -0,0 +1,13 @@
+package com.lfy.annotation;
+
+import java.lang.annotation.*;
+
+/**
+ * Bean的作用域：singleton（默认）、prototype、thread、pooled，或通过registerScope注册的自定义作用域。
+ */
+@Target({ ElementType.TYPE, ElementType.METHOD })
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface Scope {
+    String value() default "singleton";
+}
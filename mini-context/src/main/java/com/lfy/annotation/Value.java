@@ -8,7 +8,7 @@ import java.lang.annotation.*;
  */
 
 @Retention(RetentionPolicy.RUNTIME)
-@Target(ElementType.TYPE)
+@Target({ ElementType.FIELD, ElementType.METHOD, ElementType.PARAMETER })
 @Documented
 public @interface Value {
     String value();
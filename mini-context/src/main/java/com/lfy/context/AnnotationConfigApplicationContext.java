@@ -2,8 +2,13 @@ package com.lfy.context;
 
 import com.lfy.annotation.*;
 import com.lfy.exception.*;
+import com.lfy.io.ClassMetadataReader;
+import com.lfy.io.ConfigFileWatcher;
+import com.lfy.io.ConfigurationPropertiesBinder;
+import com.lfy.io.PropertyChangeListener;
 import com.lfy.io.PropertyResolver;
 import com.lfy.io.ResourceResolver;
+import com.lfy.processor.ComponentIndexProcessor;
 import com.lfy.util.ClassUtils;
 import jakarta.annotation.Nullable;
 import jakarta.annotation.PostConstruct;
@@ -11,64 +16,255 @@ import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.BufferedReader;
 import java.io.IOException;
-import java.lang.annotation.Annotation;
+import java.io.InputStreamReader;
 import java.lang.reflect.*;
 import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.stream.Collectors;
 
 /**
  * @Author:feiyang
  * @Date:7/29/2023 6:32 PM
  */
-public class AnnotationConfigApplicationContext {
+public class AnnotationConfigApplicationContext implements AutoCloseable {
 
     protected final Logger logger = LoggerFactory.getLogger(getClass());
 
     protected final PropertyResolver propertyResolver;
 
+    // @ConfigurationProperties绑定器，每个类型的绑定方式只生成一次:
+    protected final ConfigurationPropertiesBinder propertiesBinder;
+
+    // 关闭容器时清空，getBean可能同时在其他线程读取:
     protected final Map<String, BeanDefinition> beans;
 
-    protected final Set<String> creatingBeanNames;
+    protected final BeanTypeIndex beanTypeIndex;
+
+    // 正在创建的Bean -> 创建该Bean的线程:
+    protected final Map<String, Thread> creatingBeanNames;
+
+    // 线程 -> 正在等待其他线程创建完成的Bean，用于检测跨线程的循环依赖:
+    private final Map<Thread, BeanDefinition> waitingBeans = new ConcurrentHashMap<>();
+
+    // 每个Bean一个创建锁，创建完成后移除，读取已创建的Bean不需要加锁:
+    private final Map<String, ReentrantLock> creationLocks = new ConcurrentHashMap<>();
+
+    private final List<BeanPostProcessor> beanPostProcessors = new CopyOnWriteArrayList<>();
+
+    // 作用域名称 -> 作用域，singleton由容器直接管理:
+    private final Map<String, BeanScope> scopes = new ConcurrentHashMap<>();
+
+    // 注入到singleton中的非singleton实例，随容器关闭一起销毁:
+    private final List<ScopedInstance> dependentScopedBeans = Collections.synchronizedList(new ArrayList<>());
+
+    // @Bean方法返回的实例类型 -> 字段/setter注入点及其取值方式，实例类型在创建后才确定:
+    private final Map<Class<?>, List<InjectionPlan.Injection>> factoryBeanInjections = new ConcurrentHashMap<>();
+
+    // 当前线程正在创建的非singleton Bean，用于检测循环依赖:
+    private final ThreadLocal<Set<String>> creatingScopedBeanNames = ThreadLocal.withInitial(HashSet::new);
+
+    protected final StartupRecorder startupRecorder;
+
+    // 并行创建普通Bean使用的线程池，为null时依次创建:
+    protected final Executor creationExecutor;
+
+    // 开启mini.config.watch后监视配置文件的变化:
+    @Nullable
+    protected final ConfigFileWatcher configFileWatcher;
 
-    private List<BeanPostProcessor> beanPostProcessors = new ArrayList<>();
+    private final PropertyChangeListener propertyChangeListener = this::onPropertiesChanged;
+
+    // 已创建但尚未完成注入和初始化的singleton，只提供给创建线程上的循环依赖，或跨线程互相等待时打破等待:
+    private final Map<String, Object> earlySingletons = new ConcurrentHashMap<>();
+
+    // 初始化前被注入到其他Bean中的Bean，初始化后不能再被BeanPostProcessor替换:
+    private final Set<String> earlyReferencedBeans = ConcurrentHashMap.newKeySet();
+
+    // 启动时因循环依赖推迟注入、推迟初始化的Bean，在启动的注入和初始化阶段处理:
+    private final Set<BeanDefinition> deferredInjections = ConcurrentHashMap.newKeySet();
+    private final Set<BeanDefinition> deferredInitializations = ConcurrentHashMap.newKeySet();
+
+    // 创建普通Bean开始后，新创建的Bean在发布前立即注入和初始化；启动完成后不再推迟:
+    private volatile boolean initializeOnCreate = false;
+    private volatile boolean refreshing = true;
+
+    private final AtomicBoolean closed = new AtomicBoolean(false);
+
+    final Thread shutdownHook = new Thread(this::close, "mini-shutdown-hook");
 
     public AnnotationConfigApplicationContext(Class<?> configClass, PropertyResolver propertyResolver) throws IOException, URISyntaxException {
+        this(configClass, propertyResolver,
+                propertyResolver.getProperty("${mini.create.parallel:false}", boolean.class) ? newCreationExecutor() : null);
+    }
+
+    /**
+     * 并行创建Bean使用的线程池。创建时会阻塞在其他Bean的创建锁上，不能占用ForkJoinPool.commonPool()的线程；
+     * 线程都是守护线程，空闲超时后自动退出，不需要关闭。
+     */
+    static ExecutorService newCreationExecutor() {
+        int threads = Math.max(2, Runtime.getRuntime().availableProcessors());
+        AtomicInteger counter = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 1, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), r -> {
+            Thread thread = new Thread(r, "mini-create-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * 指定creationExecutor时，互不依赖的普通Bean会在该线程池中同时创建。
+     */
+    public AnnotationConfigApplicationContext(Class<?> configClass, PropertyResolver propertyResolver, @Nullable Executor creationExecutor) throws IOException, URISyntaxException {
         this.propertyResolver = propertyResolver;
-        //扫描获取所有Bean的Class类型
-        Set<String> beanClassNames = scanForClassNames(configClass);
+        this.propertiesBinder = new ConfigurationPropertiesBinder(propertyResolver);
+        this.creationExecutor = creationExecutor;
+
+        //注册内置的作用域：
+        this.scopes.put(BeanScope.PROTOTYPE, (def, objectFactory) -> objectFactory.get());
+        this.scopes.put(BeanScope.THREAD, new ThreadBeanScope());
+        this.scopes.put(BeanScope.POOLED, new PooledBeanScope(propertyResolver.getProperty("${mini.scope.pooled.max-idle:16}", int.class), this::destroyInstance));
+        //启动耗时记录：
+        this.startupRecorder = new StartupRecorder(propertyResolver.getProperty("${mini.startup.recording:false}", boolean.class));
+        StartupStep refreshStep = this.startupRecorder.start("context.refresh").tag("configClass", configClass.getName());
+
+        try {
+            //classpath未变化时直接从扫描缓存创建Bean的定义：
+            StartupStep step = this.startupRecorder.start("beans.cache");
+            ScanCache scanCache = createScanCache(configClass);
+            Map<String, BeanDefinition> cachedDefs = scanCache == null ? null : loadBeanDefinitions(scanCache);
+            step.tag("hit", String.valueOf(cachedDefs != null)).end();
+            if (cachedDefs != null) {
+                this.beans = new ConcurrentHashMap<>(cachedDefs);
+            } else {
+                //扫描获取所有Bean的Class类型
+                step = this.startupRecorder.start("beans.scan");
+                Set<String> beanClassNames = scanForClassNames(configClass);
+                step.tag("classCount", String.valueOf(beanClassNames.size())).end();
+
+                //创建Bean的定义
+                step = this.startupRecorder.start("beans.define");
+                this.beans = new ConcurrentHashMap<>(createBeanDefinitions(beanClassNames));
+                step.tag("beanCount", String.valueOf(this.beans.size())).end();
+                if (scanCache != null) {
+                    scanCache.save(toScanCacheEntries(this.beans));
+                }
+            }
+
+            //创建按类型查找的索引：
+            step = this.startupRecorder.start("beans.index");
+            this.beanTypeIndex = new BeanTypeIndex(this.beans.values());
+            step.end();
+
+            //生成每个Bean的注入计划：
+            step = this.startupRecorder.start("beans.plan");
+            createInjectionPlans();
+            step.end();
+
+            //创建BeanName检测循环依赖
+            this.creatingBeanNames = new ConcurrentHashMap<>();
 
-        //创建Bean的定义
-        this.beans = createBeanDefinitions(beanClassNames);
+            //创建@Configuration类型的Bean
+            step = this.startupRecorder.start("beans.configuration");
+            this.beans.values().stream()
+                    //过滤出@Configuration：
+                    .filter(def -> def.getInjectionPlan().configuration()).sorted().map(def -> {
+                        //创建Bean实例
+                        createBeanAsEarlySingleton(def);
+                        return def.getName();
+                    }).collect(Collectors.toList());
+            step.end();
 
-        //创建BeanName检测循环依赖
-        this.creatingBeanNames = new HashSet<>();
+            // 创建BeanPostProcessor类型的Bean:
+            step = this.startupRecorder.start("beans.post-processors");
+            List<BeanPostProcessor> processors = this.beans.values().stream()
+                    // 过滤出BeanPostProcessor:
+                    .filter(def -> def.getInjectionPlan().beanPostProcessor())
+                    // 排序:
+                    .sorted()
+                    // instantiate and collect:
+                    .map(def -> {
+                        return (BeanPostProcessor) createBeanAsEarlySingleton(def);
+                    }).collect(Collectors.toList());
+            this.beanPostProcessors.addAll(processors);
+            step.end();
 
-        //创建@Configuration类型的Bean
-        this.beans.values().stream()
-                //过滤出@Configuration：
-                .filter(this::isConfigurationDefinition).sorted().map(def -> {
-                    //创建Bean实例
-                    createBeanAsEarlySingleton(def);
-                    return def.getName();
-                }).collect(Collectors.toList());
+            //此后创建的普通Bean在创建后立即注入和初始化，依赖它的Bean得到的是最终发布的实例：
+            this.initializeOnCreate = true;
 
-        // 创建BeanPostProcessor类型的Bean:
-        List<BeanPostProcessor> processors = this.beans.values().stream()
-                // 过滤出BeanPostProcessor:
-                .filter(this::isBeanPostProcessorDefinition)
-                // 排序:
-                .sorted()
-                // instantiate and collect:
-                .map(def -> {
-                    return (BeanPostProcessor) createBeanAsEarlySingleton(def);
-                }).collect(Collectors.toList());
-        this.beanPostProcessors.addAll(processors);
+            //所有BeanPostProcessor就绪后注入@Configuration的@Autowired字段（依赖的Bean随之创建），然后初始化@Configuration和BeanPostProcessor：
+            step = this.startupRecorder.start("beans.configuration.initialize");
+            List<BeanDefinition> infrastructure = this.beans.values().stream()
+                    .filter(def -> def.getInstance() != null && (def.getInjectionPlan().configuration() || def.getInjectionPlan().beanPostProcessor()))
+                    .sorted().toList();
+            for (BeanDefinition def : infrastructure) {
+                if (def.getInjectionPlan().configuration()) {
+                    injectBean(def, def.getInstance(), InjectionPlan.Kind.AUTOWIRED);
+                }
+            }
+            initializeBeans(infrastructure, step);
+            step.end();
+
+            //创建其他普通Bean：
+            step = this.startupRecorder.start("beans.instantiate");
+            createNormalBeans(step);
+            step.end();
+
+            //注入因循环依赖推迟的字段和setter：
+            step = this.startupRecorder.start("beans.inject");
+            injectBeans();
+            step.end();
+
+            //初始化因循环依赖推迟初始化的Bean：
+            step = this.startupRecorder.start("beans.initialize");
+            List<BeanDefinition> deferred = this.deferredInitializations.stream().sorted().toList();
+            //此后init方法中延迟创建的Bean不再推迟:
+            this.refreshing = false;
+            initializeBeans(deferred, step);
+            this.deferredInitializations.clear();
+            step.end();
+
+            //配置变化时重新绑定@ConfigurationProperties并通知实现了PropertyChangeListener的Bean：
+            propertyResolver.addChangeListener(this.propertyChangeListener);
+            this.configFileWatcher = propertyResolver.getProperty("${mini.config.watch:false}", boolean.class)
+                    ? propertyResolver.watch(propertyResolver.getProperty("${mini.config.watch-delay:200ms}", Duration.class)) : null;
 
-        //创建其他普通Bean：
-        createNormalBeans();
+            if (propertyResolver.getProperty("${mini.shutdown-hook:false}", boolean.class)) {
+                registerShutdownHook();
+            }
+
+            refreshStep.end();
+        } finally {
+            //启动失败时结束未完成的步骤:
+            this.startupRecorder.finish();
+        }
+        if (this.startupRecorder.isEnabled()) {
+            logger.atInfo().log("context refreshed, slowest beans: {}", this.startupRecorder.slowest("bean.instantiate", 5));
+        }
+    }
 
+    /**
+     * 启动耗时记录，开启mini.startup.recording后可以查询每个阶段和每个Bean的耗时，或导出为JSON。
+     */
+    public StartupRecorder getStartupRecorder() {
+        return this.startupRecorder;
     }
 
     boolean isConfigurationDefinition(BeanDefinition def) {
@@ -82,11 +278,17 @@ public class AnnotationConfigApplicationContext {
     /**
      * 创建普通的Bean
      */
-    void createNormalBeans() {
+    void createNormalBeans(StartupStep parentStep) {
         List<BeanDefinition> defs = this.beans.values().stream()
-                //过滤出instance==null的BeanDefinition:
-                .filter(def -> def.getInstance() == null)
+                //过滤出instance==null的singleton，延迟创建的Bean在第一次使用时创建:
+                .filter(def -> def.getInstance() == null && !def.isLazy() && def.isSingleton())
                 .sorted().collect(Collectors.toList());
+        if (this.creationExecutor != null) {
+            //按依赖关系并行创建：
+            new BeanDependencyGraph(defs, this::findDependencies).runAll(this.creationExecutor,
+                    def -> this.startupRecorder.runWithParent(parentStep, () -> createBeanAsEarlySingleton(def)));
+            return;
+        }
         //依次创建Bean实例
         defs.forEach(def -> {
             //如果Bean未被创建（可能在其他Bean的构造方法注入前被创建）：
@@ -98,120 +300,666 @@ public class AnnotationConfigApplicationContext {
     }
 
     /**
-     * 创建一个Bean，然后使用BeanPostProcessor处理，但不进行字段和方法级别的注入。如果创建的Bean不是Configuration或BeanPostProcessor，则在构造方法中注入的依赖Bean会自动创建。
+     * 按依赖顺序初始化已创建的singleton：依赖的Bean先初始化。指定了creationExecutor时，互不依赖的Bean同时初始化。
+     */
+    void initializeBeans(List<BeanDefinition> defs, StartupStep parentStep) {
+        BeanDependencyGraph graph = new BeanDependencyGraph(defs, this::findAllDependencies);
+        if (this.creationExecutor != null) {
+            graph.runAll(this.creationExecutor,
+                    def -> this.startupRecorder.runWithParent(parentStep, () -> def.setInstance(initializeSingleton(def, def.getInstance()))));
+        } else {
+            graph.topologicalOrder().forEach(def -> def.setInstance(initializeSingleton(def, def.getInstance())));
+        }
+    }
+
+    /**
+     * 初始化singleton。如果原始实例已经在初始化前注入到其他Bean中（循环依赖），BeanPostProcessor就不能再替换它，否则其他Bean持有的不是最终实例。
+     */
+    Object initializeSingleton(BeanDefinition def, Object instance) {
+        Object initialized = initializeBean(def, instance);
+        if (this.earlyReferencedBeans.remove(def.getName()) && initialized != instance) {
+            throw new BeanCreationException(String.format("Bean '%s' has been injected into other beans before initialization as part of a circular reference, " +
+                    "but was replaced by post processor after initialization.", def.getName()));
+        }
+        return initialized;
+    }
+
+    /**
+     * 在原始实例上调用@PostConstruct或@Bean(initMethod)指定的方法，然后依次调用postProcessAfterInitialization，返回最终发布的实例。
+     */
+    Object initializeBean(BeanDefinition def, Object instance) {
+        StartupStep step = this.startupRecorder.start("bean.initialize").tag("beanName", def.getName());
+        try {
+            try {
+                callMethod(def, getProxiedInstance(def, instance), def.getInitMethod(), def.getInitMethodName());
+            } catch (BeanCreationException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new BeanCreationException(String.format("Exception when init bean '%s': %s", def.getName(), def.getBeanClass().getName()), e);
+            }
+            for (BeanPostProcessor processor : this.beanPostProcessors) {
+                Object processed = processor.postProcessAfterInitialization(instance, def.getName());
+                if (processed == null) {
+                    throw new BeanCreationException(String.format("PostBeanProcessor returns null when process bean '%s' by %s", def.getName(), processor));
+                }
+                if (instance != processed) {
+                    logger.atDebug().log("Bean '{}' was replaced by post processor {} after initialization.", def.getName(), processor.getClass().getName());
+                    instance = processed;
+                }
+            }
+            return instance;
+        } finally {
+            step.end();
+        }
+    }
+
+    /**
+     * BeanPostProcessor可能返回代理，按相反顺序调用postProcessOnSetProperty还原为原始实例，init/destroy方法在原始实例上调用。
+     */
+    Object getProxiedInstance(BeanDefinition def, Object instance) {
+        List<BeanPostProcessor> processors = this.beanPostProcessors;
+        for (int i = processors.size() - 1; i >= 0; i--) {
+            Object restored = processors.get(i).postProcessOnSetProperty(instance, def.getName());
+            if (restored != null) {
+                instance = restored;
+            }
+        }
+        return instance;
+    }
+
+    // 调用@PostConstruct/@PreDestroy方法，或按名称查找@Bean指定的init/destroy方法:
+    void callMethod(BeanDefinition def, Object bean, @Nullable Method method, @Nullable String methodName) throws ReflectiveOperationException {
+        if (method == null && methodName != null) {
+            method = findNamedMethod(bean.getClass(), methodName);
+            if (method == null) {
+                throw new BeanCreationException(String.format("Method '%s' not found in bean '%s': %s", methodName, def.getName(), bean.getClass().getName()));
+            }
+            method.setAccessible(true);
+        }
+        if (method != null) {
+            try {
+                method.invoke(bean);
+            } catch (InvocationTargetException e) {
+                throw new BeanCreationException(String.format("Exception when call method '%s' of bean '%s'", method.getName(), def.getName()), e.getCause());
+            }
+        }
+    }
+
+    @Nullable
+    static Method findNamedMethod(Class<?> clazz, String methodName) {
+        for (Class<?> c = clazz; c != null; c = c.getSuperclass()) {
+            try {
+                return c.getDeclaredMethod(methodName);
+            } catch (NoSuchMethodException e) {
+                // 继续查找父类
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 在JVM退出时关闭容器。
+     */
+    public void registerShutdownHook() {
+        try {
+            Runtime.getRuntime().addShutdownHook(this.shutdownHook);
+        } catch (IllegalArgumentException e) {
+            // 已注册
+        }
+    }
+
+    /**
+     * 关闭容器：停止监视配置文件，然后按依赖的相反顺序调用所有已创建singleton的@PreDestroy或@Bean(destroyMethod)方法，
+     * 一个Bean在所有依赖它的Bean销毁后才销毁。指定了creationExecutor时，互不依赖的Bean同时销毁。重复调用不产生作用。
+     * 之后销毁注入到singleton中的非singleton实例，并关闭所有作用域（例如销毁池中的空闲实例）。
+     */
+    @Override
+    public void close() {
+        if (!this.closed.compareAndSet(false, true)) {
+            return;
+        }
+        logger.atInfo().log("closing {}...", getClass().getSimpleName());
+        try {
+            Runtime.getRuntime().removeShutdownHook(this.shutdownHook);
+        } catch (IllegalStateException e) {
+            // JVM正在退出，正在执行shutdownHook
+        }
+        //等待正在进行的重新绑定完成，之后onPropertiesChanged看到closed后直接返回:
+        synchronized (this.propertyChangeListener) {
+            this.propertyResolver.removeChangeListener(this.propertyChangeListener);
+        }
+        if (this.configFileWatcher != null) {
+            try {
+                this.configFileWatcher.close();
+            } catch (IOException e) {
+                logger.warn("failed to close config file watcher.", e);
+            }
+        }
+        List<BeanDefinition> defs = this.beans.values().stream()
+                .filter(def -> def.isSingleton() && def.getInstance() != null).sorted().collect(Collectors.toList());
+        //反向依赖：Bean -> 依赖它的Bean，依赖它的Bean先销毁:
+        Map<BeanDefinition, List<BeanDefinition>> dependents = new HashMap<>();
+        for (BeanDefinition def : defs) {
+            for (BeanDefinition dep : findAllDependencies(def)) {
+                dependents.computeIfAbsent(dep, k -> new ArrayList<>()).add(def);
+            }
+        }
+        BeanDependencyGraph graph = new BeanDependencyGraph(defs, def -> dependents.getOrDefault(def, List.of()));
+        if (this.creationExecutor != null) {
+            graph.runAll(this.creationExecutor, this::destroyBean);
+        } else {
+            graph.topologicalOrder().forEach(this::destroyBean);
+        }
+        //singleton销毁后再销毁注入到其中的非singleton实例，以及作用域中缓存的实例:
+        synchronized (this.dependentScopedBeans) {
+            for (int i = this.dependentScopedBeans.size() - 1; i >= 0; i--) {
+                ScopedInstance scoped = this.dependentScopedBeans.get(i);
+                destroyInstance(scoped.def(), scoped.instance());
+            }
+            this.dependentScopedBeans.clear();
+        }
+        for (BeanScope scope : this.scopes.values()) {
+            try {
+                scope.close();
+            } catch (RuntimeException e) {
+                logger.warn("Exception when close scope {}.", scope, e);
+            }
+        }
+        this.beans.clear();
+        logger.atInfo().log("{} closed.", getClass().getSimpleName());
+    }
+
+    void destroyBean(BeanDefinition def) {
+        Object instance = def.getInstance();
+        if (instance == null) {
+            return;
+        }
+        destroyInstance(def, instance);
+        def.setInstance(null);
+    }
+
+    // 销毁失败只记录日志，继续销毁其他Bean:
+    void destroyInstance(BeanDefinition def, Object instance) {
+        try {
+            callMethod(def, getProxiedInstance(def, instance), def.getDestroyMethod(), def.getDestroyMethodName());
+        } catch (Exception e) {
+            logger.warn("Exception when destroy bean '{}'.", def.getName(), e);
+        }
+    }
+
+    /**
+     * 查找构造方法/工厂方法中@Autowired参数依赖的Bean，非静态的@Bean方法还依赖所在的@Configuration Bean。
+     */
+    List<BeanDefinition> findDependencies(BeanDefinition def) {
+        InjectionPlan plan = def.getInjectionPlan();
+        List<BeanDefinition> deps = new ArrayList<>();
+        if (plan.factoryDefinition() != null) {
+            deps.add(plan.factoryDefinition());
+        }
+        for (InjectionPlan.Argument argument : plan.arguments()) {
+            if (argument.target() != null) {
+                deps.add(argument.target());
+            }
+        }
+        return deps;
+    }
+
+    /**
+     * 创建时的依赖以及字段/setter注入的Bean，决定初始化和销毁的顺序。
+     */
+    List<BeanDefinition> findAllDependencies(BeanDefinition def) {
+        Object instance = def.getInstance();
+        return findAllDependencies(def, instance == null ? def.getInjectionPlan().injections() : getInjections(def, getProxiedInstance(def, instance)));
+    }
+
+    List<BeanDefinition> findAllDependencies(BeanDefinition def, List<InjectionPlan.Injection> injections) {
+        List<BeanDefinition> deps = findDependencies(def);
+        for (InjectionPlan.Injection injection : injections) {
+            if (injection.argument().target() != null) {
+                deps.add(injection.argument().target());
+            }
+        }
+        return deps;
+    }
+
+    void createInjectionPlans() {
+        for (BeanDefinition def : this.beans.values()) {
+            def.setInjectionPlan(createInjectionPlan(def));
+        }
+    }
+
+    /**
+     * 解析构造方法/工厂方法的每个参数，检查@Value/@Autowired的使用是否合法，并确定依赖的BeanDefinition和类型转换器。
+     */
+    InjectionPlan createInjectionPlan(BeanDefinition def) {
+        //@Configuration类型的Bean是工厂，不允许使用@Autowired创建：
+        final boolean isConfiguration = isConfigurationDefinition(def);
+        //BeanPostProcessor不能依赖其他Bean，不允许使用@Autowired创建：
+        final boolean isBeanPostProcessor = isBeanPostProcessorDefinition(def);
+        //@ConfigurationProperties由配置绑定创建，提前生成绑定器:
+        ConfigurationProperties properties = def.getFactoryName() == null ? ClassUtils.findAnnotation(def.getBeanClass(), ConfigurationProperties.class) : null;
+        if (properties != null) {
+            try {
+                this.propertiesBinder.getBinder(def.getBeanClass());
+            } catch (IllegalArgumentException e) {
+                throw new BeanDefinitionException(String.format("Cannot bind @ConfigurationProperties bean '%s': %s.", def.getName(), def.getBeanClass().getName()), e);
+            }
+            return new InjectionPlan(List.of(), isConfiguration, isBeanPostProcessor, null, properties.prefix(), List.of());
+        }
+        List<InjectionPlan.Argument> arguments = new ArrayList<>();
+        for (BeanInstantiator.ArgumentSpec spec : def.getInstantiator().getArguments()) {
+            arguments.add(createArgument(def, spec.type(), spec.genericType(), spec.value(), spec.autowired(), isConfiguration, isBeanPostProcessor));
+        }
+        //字段/setter注入点，@Bean方法创建的Bean在创建后按实例的实际类型解析:
+        List<InjectionPlan.Injection> injections = def.getInjector() == null ? List.of() : createInjections(def, def.getInjector(), isBeanPostProcessor);
+        BeanDefinition factoryDef = null;
+        if (def.getFactoryName() != null) {
+            factoryDef = findBeanDefinition(def.getFactoryName());
+            if (factoryDef == null) {
+                throw new NoSuchBeanDefinitionException(String.format("No factory bean defined with name '%s' for bean '%s'.", def.getFactoryName(), def.getName()));
+            }
+            //静态@Bean方法不需要@Configuration实例，也不依赖它:
+            if (Modifier.isStatic(def.getFactoryMethod().getModifiers())) {
+                factoryDef = null;
+            }
+        }
+        InjectionPlan plan = new InjectionPlan(List.copyOf(arguments), isConfiguration, isBeanPostProcessor, factoryDef, null, injections);
+        logger.atDebug().log("injection plan of bean '{}': {} {}", def.getName(), plan.arguments(), plan.injections());
+        return plan;
+    }
+
+    /**
+     * 解析字段/setter注入点。@Configuration的字段可以使用@Autowired，在所有BeanPostProcessor就绪后注入。
+     */
+    List<InjectionPlan.Injection> createInjections(BeanDefinition def, BeanInjector injector, boolean isBeanPostProcessor) {
+        List<InjectionPlan.Injection> injections = new ArrayList<>();
+        for (BeanInjector.InjectionPoint point : injector.getInjectionPoints()) {
+            injections.add(new InjectionPlan.Injection(point,
+                    createArgument(def, point.type(), point.genericType(), point.value(), point.autowired(), false, isBeanPostProcessor)));
+        }
+        return List.copyOf(injections);
+    }
+
+    /**
+     * 实例的字段/setter注入点。@Bean方法返回的实例类型在创建后才确定，按实际类型解析，每个类型只解析一次。
+     */
+    List<InjectionPlan.Injection> getInjections(BeanDefinition def, Object target) {
+        if (def.getInjector() != null) {
+            return def.getInjectionPlan().injections();
+        }
+        return this.factoryBeanInjections.computeIfAbsent(target.getClass(),
+                type -> createInjections(def, BeanInjector.forClass(type), BeanPostProcessor.class.isAssignableFrom(type)));
+    }
+
+    /**
+     * 解析一个构造方法/工厂方法参数或字段/setter注入点：需要@Value或@Autowired两者之一。
+     */
+    InjectionPlan.Argument createArgument(BeanDefinition def, Class<?> type, Type genericType, @Nullable Value value, @Nullable Autowired autowired,
+                                          boolean isConfiguration, boolean isBeanPostProcessor) {
+        if (isConfiguration && autowired != null) {
+            throw new BeanDefinitionException(
+                    String.format("Cannot specify @Autowired when create @Configuration bean '%s': %s.", def.getName(), def.getBeanClass().getName())
+            );
+        }
+        if (isBeanPostProcessor && autowired != null) {
+            throw new BeanCreationException(
+                    String.format("Cannot specify @Autowired when create BeanPostProcessor '%s': %s.", def.getName(), def.getBeanClass().getName())
+            );
+        }
+        // 参数需要@Value或@Autowired两者之一:
+        if (value != null && autowired != null) {
+            throw new BeanCreationException(
+                    String.format("Cannot specify both @Autowired and @Value when create bean '%s': %s.", def.getName(), def.getBeanClass().getName()));
+        }
+        if (value == null && autowired == null) {
+            throw new BeanCreationException(
+                    String.format("Must specify @Autowired or @Value when create bean '%s': %s.", def.getName(), def.getBeanClass().getName()));
+        }
+        if (value != null) {
+            //参数是@Value，提前检查是否支持转换:
+            try {
+                this.propertyResolver.getConverter(genericType);
+            } catch (IllegalArgumentException e) {
+                throw new BeanDefinitionException(String.format("Unsupported @Value type '%s' when create bean '%s': %s.", genericType.getTypeName(),
+                        def.getName(), def.getBeanClass().getName()), e);
+            }
+            return InjectionPlan.Argument.value(type, value.value(), genericType);
+        }
+        //参数是@Autowired:
+        String name = autowired.name();
+        boolean required = autowired.value();
+        //依赖的BeanDefinition:
+        BeanDefinition dependsOnDef = name.isEmpty() ? findBeanDefinition(type) : findBeanDefinition(name, type);
+        //检测required == true?
+        if (required && dependsOnDef == null) {
+            throw new BeanCreationException(String.format("Missing autowired bean with type '%s' when create bean '%s': %s.", type.getName(),
+                    def.getName(), def.getBeanClass().getName())
+            );
+        }
+        //注入到非singleton中的pooled实例没有归还的时机，不允许注入:
+        if (dependsOnDef != null && BeanScope.POOLED.equals(dependsOnDef.getScope()) && !def.isSingleton()) {
+            throw new BeanDefinitionException(String.format("Cannot inject pooled bean '%s' into %s bean '%s': %s, use getBean and releaseBean instead.",
+                    dependsOnDef.getName(), def.getScope(), def.getName(), def.getBeanClass().getName()));
+        }
+        return InjectionPlan.Argument.autowired(type, dependsOnDef);
+    }
+
+    /**
+     * 创建一个Bean，然后使用BeanPostProcessor处理。@Configuration和BeanPostProcessor创建后立即注入字段，但不自动创建依赖的Bean；
+     * 其他Bean在构造方法中注入的依赖Bean会自动创建，创建普通Bean开始后还会立即注入字段并初始化，发布的是初始化后的最终实例。
+     * 已创建的Bean直接返回；同一个Bean只会被一个线程创建，其他线程等待创建完成后读取同一个实例。
+     * 通过字段循环依赖时，创建线程上的依赖方读取到尚未初始化的原始实例。
      */
     Object createBeanAsEarlySingleton(BeanDefinition def) {
+        Object instance = def.getInstance();
+        if (instance != null) {
+            return instance;
+        }
+        final Thread current = Thread.currentThread();
         //检测循环依赖
-        if (!this.creatingBeanNames.add(def.getName())) {
+        if (this.creatingBeanNames.get(def.getName()) == current) {
+            Object early = getEarlySingleton(def);
+            if (early != null) {
+                //正在注入字段或初始化，通过字段互相注入的Bean读取原始实例:
+                return early;
+            }
             // 检测到重复创建Bean导致的循环依赖:
             throw new UnsatisfiedDependencyException(String.format("Circular dependency detected when create bean '%s'", def.getName()));
         }
-        //创建方式：构造方法或工厂方法：
-        Executable createFn = null;
-        if (def.getFactoryName() == null) {
-            //by constructor
-            createFn = def.getConstructor();
-        } else {
-            //by factory method
-            createFn = def.getFactoryMethod();
-        }
-
-        //创建参数：
-        final Parameter[] parameters = createFn.getParameters();
-        final Annotation[][] parametersAnnos = createFn.getParameterAnnotations();
-        Object[] args = new Object[parameters.length];
-        for (int i = 0; i < parameters.length; i++) {
-            //从参数获取@Value和@Autowired:
-            final Parameter param = parameters[i];
-            final Annotation[] paramAnnos = parametersAnnos[i];
-            final Value value = ClassUtils.getAnnotation(paramAnnos, Value.class);
-            final Autowired autowired = ClassUtils.getAnnotation(paramAnnos, Autowired.class);
-            //@Configuration类型的Bean是工厂，不允许使用@Autowired创建：
-            final boolean isConfiguration = isConfigurationDefinition(def);
-            if (isConfiguration && autowired != null) {
-                throw new BeanDefinitionException(
-                        String.format("Cannot specify @Autowired when create @Configuration bean '%s': %s.", def.getName(), def.getBeanClass().getName())
-                );
-            }
-            //BeanPostProcessor不能依赖其他Bean，不允许使用@Autowired创建：
-            final boolean isBeanPostProcessor = isBeanPostProcessorDefinition(def);
-            if (isBeanPostProcessor && autowired != null) {
-                throw new BeanCreationException(
-                        String.format("Cannot specify @Autowired when create BeanPostProcessor '%s': %s.", def.getName(), def.getBeanClass().getName())
-                );
-            }
-            // 参数需要@Value或@Autowired两者之一:
-            if (value != null && autowired != null) {
-                throw new BeanCreationException(
-                        String.format("Cannot specify both @Autowired and @Value when create bean '%s': %s.", def.getName(), def.getBeanClass().getName()));
-            }
-            if (value == null && autowired == null) {
-                throw new BeanCreationException(
-                        String.format("Must specify @Autowired or @Value when create bean '%s': %s.", def.getName(), def.getBeanClass().getName()));
-            }
-            //参数类型
-            final Class<?> type = param.getType();
-            if (value != null) {
-                //参数是@Value:
-                args[i] = this.propertyResolver.getRequiredProperty(value.value(), type);
-            } else {
-                //参数是@Autowired:
-                String name = autowired.name();
-                boolean required = autowired.value();
-                //依赖的BeanDefinition:
-                BeanDefinition dependsOnDef = name.isEmpty() ? findBeanDefinition(type) : findBeanDefinition(name, type);
-                //检测required == true?
-                if (required && dependsOnDef == null) {
-                    throw new BeanCreationException(String.format("Missing autowired bean with type '%s' when create bean '%s': %s.", type.getName(),
-                            def.getName(), def.getBeanClass().getName())
-                    );
-                }
-                if (dependsOnDef != null) {
-                    //获取依赖Bean
-                    Object autowiredBeanInstance = dependsOnDef.getInstance();
-                    if (autowiredBeanInstance == null && !isConfiguration && !isBeanPostProcessor) {
-                        //当前依赖Bean尚未初始化，递归调用初始化该依赖Bean
-                        autowiredBeanInstance = createBeanAsEarlySingleton(dependsOnDef);
+        ReentrantLock lock = this.creationLocks.computeIfAbsent(def.getName(), name -> new ReentrantLock());
+        if (!lock.tryLock()) {
+            //Bean正在被其他线程创建，等待前检查是否会互相等待：
+            this.waitingBeans.put(current, def);
+            try {
+                if (isCircularWaiting(def, current)) {
+                    Object early = getEarlySingleton(def);
+                    if (early != null) {
+                        //字段循环依赖的两个Bean分别在两个线程中创建，读取原始实例打破等待:
+                        return early;
                     }
-                    args[i] = autowiredBeanInstance;
-                } else {
-                    args[i] = null;
+                    throw new UnsatisfiedDependencyException(String.format("Circular dependency detected when create bean '%s'", def.getName()));
                 }
+                lock.lock();
+            } finally {
+                this.waitingBeans.remove(current);
             }
         }
-        //创建Bean实例
-        Object instance = null;
-        if (def.getFactoryName() == null) {
-            //用构造方法创建
-            try {
-                instance = def.getConstructor().newInstance(args);
-            } catch (Exception e) {
-                throw new BeanCreationException(String.format("Exception when create bean '%s': %s", def.getName(), def.getBeanClass().getName()), e);
+        try {
+            instance = def.getInstance();
+            if (instance != null) {
+                return instance;
             }
-        } else {
-            //用@Bean方法创建：
-            Object configInstance = getBean(def.getFactoryName());
+            this.creatingBeanNames.put(def.getName(), current);
             try {
-                instance = def.getFactoryMethod().invoke(configInstance,args);
-            }catch (Exception e){
-                throw new BeanCreationException(String.format("Exception when create bean '%s': %s", def.getName(), def.getBeanClass().getName()), e);
+                instance = doCreateBean(def);
+                final InjectionPlan plan = def.getInjectionPlan();
+                if (plan.configuration() || plan.beanPostProcessor()) {
+                    //@Configuration的@Autowired字段在所有BeanPostProcessor就绪后注入:
+                    injectBean(def, instance, InjectionPlan.Kind.VALUE);
+                } else if (this.initializeOnCreate) {
+                    instance = injectAndInitialize(def, instance);
+                }
+            } finally {
+                this.earlySingletons.remove(def.getName());
+                this.creatingBeanNames.remove(def.getName());
+            }
+            //所有BeanPostProcessor处理完成后发布最终的实例：
+            def.setInstance(instance);
+            //实例发布后不再需要创建锁，之后的读取不会再加锁；创建失败时保留，避免其他线程同时重试:
+            this.creationLocks.remove(def.getName(), lock);
+            return instance;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 注入字段并初始化刚创建的Bean。启动时依赖的Bean正在当前线程上执行构造方法（构造方法与字段循环依赖）时，推迟到启动的注入阶段；
+     * 依赖的Bean尚未初始化（字段循环依赖）时推迟到启动的初始化阶段，推迟的Bean先发布原始实例。
+     */
+    Object injectAndInitialize(BeanDefinition def, Object instance) {
+        this.earlySingletons.put(def.getName(), instance);
+        List<InjectionPlan.Injection> injections = getInjections(def, getProxiedInstance(def, instance));
+        if (this.refreshing && dependsOnConstructing(injections)) {
+            this.deferredInjections.add(def);
+            this.deferredInitializations.add(def);
+            return instance;
+        }
+        injectBean(def, instance);
+        if (this.refreshing && dependsOnUninitialized(def, injections)) {
+            this.deferredInitializations.add(def);
+            return instance;
+        }
+        return initializeSingleton(def, instance);
+    }
+
+    // 字段/setter依赖的singleton正在当前线程上执行构造方法:
+    boolean dependsOnConstructing(List<InjectionPlan.Injection> injections) {
+        for (InjectionPlan.Injection injection : injections) {
+            BeanDefinition target = injection.argument().target();
+            if (target != null && target.isSingleton() && this.creatingBeanNames.get(target.getName()) == Thread.currentThread()
+                    && !this.earlySingletons.containsKey(target.getName())) {
+                return true;
             }
         }
-        def.setInstance(instance);
+        return false;
+    }
+
+    // 依赖的singleton尚未发布最终实例:
+    boolean dependsOnUninitialized(BeanDefinition def, List<InjectionPlan.Injection> injections) {
+        for (BeanDefinition dep : findAllDependencies(def, injections)) {
+            if (dep.isSingleton() && (dep.getInstance() == null || this.deferredInitializations.contains(dep))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // 读取正在注入或初始化的原始实例，记录它已被其他Bean引用:
+    @Nullable
+    Object getEarlySingleton(BeanDefinition def) {
+        Object early = this.earlySingletons.get(def.getName());
+        if (early != null) {
+            this.earlyReferencedBeans.add(def.getName());
+        }
+        return early;
+    }
+
+    /**
+     * 沿着“Bean的创建线程 -> 该线程正在等待的Bean”检查，如果最终回到当前线程，说明存在跨线程的循环依赖。
+     */
+    boolean isCircularWaiting(BeanDefinition def, Thread current) {
+        BeanDefinition waiting = def;
+        for (int i = 0; waiting != null && i <= this.waitingBeans.size(); i++) {
+            Thread owner = this.creatingBeanNames.get(waiting.getName());
+            if (owner == null) {
+                return false;
+            }
+            if (owner == current) {
+                return true;
+            }
+            waiting = this.waitingBeans.get(owner);
+        }
+        return false;
+    }
+
+    Object doCreateBean(BeanDefinition def) {
+        try (StartupStep step = this.startupRecorder.start("bean.instantiate").tag("beanName", def.getName())) {
+            return doCreateBean(def, step);
+        }
+    }
+
+    Object doCreateBean(BeanDefinition def, StartupStep step) {
+        final InjectionPlan plan = def.getInjectionPlan();
+        Object instance = plan.propertiesPrefix() != null ? bindProperties(def, plan.propertiesPrefix()) : instantiate(def, plan);
 
         //调用BeanPostProcessor处理Bean:
+        step.tag("beanClass", instance.getClass().getName());
         for (BeanPostProcessor processor : beanPostProcessors){
-            Object processed = processor.postProcessBeforeInitialization(def.getInstance(), def.getName());
+            Object processed = processor.postProcessBeforeInitialization(instance, def.getName());
             if (processed == null){
                 throw new BeanCreationException(String.format("PostBeanProcessor returns null when process bean '%s' by %s", def.getName(), processor));
             }
             //如果一个BeanPostProcessor处理Bean：
-            if (def.getInstance() != processed){
+            if (instance != processed){
                 logger.atDebug().log("Bean '{}' was replaced by post processor {}.", def.getName(), processor.getClass().getName());
-                def.setInstance(processed);
+                instance = processed;
+            }
+        }
+        return instance;
+    }
+
+    Object bindProperties(BeanDefinition def, String prefix) {
+        try {
+            return this.propertiesBinder.bind(prefix, def.getBeanClass());
+        } catch (RuntimeException e) {
+            throw new BeanCreationException(String.format("Exception when bind properties '%s' to bean '%s': %s", prefix, def.getName(), def.getBeanClass().getName()), e);
+        }
+    }
+
+    /**
+     * 配置变化后，prefix下有配置变化的@ConfigurationProperties singleton重新绑定为新实例，替换后销毁原实例；
+     * 只有之后通过getBean获取的才是新实例，已经注入到其他Bean中的引用不会更新，需要感知变化的Bean应实现PropertyChangeListener，
+     * 或者每次通过getBean获取。然后按顺序通知已创建的、实现了PropertyChangeListener的singleton。
+     */
+    void onPropertiesChanged(Set<String> changedKeys) {
+        //与close()互斥，关闭后不再替换和通知:
+        synchronized (this.propertyChangeListener) {
+            if (this.closed.get()) {
+                return;
+            }
+            List<BeanDefinition> defs = this.beans.values().stream()
+                    .filter(def -> def.isSingleton() && def.getInstance() != null).sorted().toList();
+            for (BeanDefinition def : defs) {
+                String prefix = def.getInjectionPlan().propertiesPrefix();
+                if (prefix != null && isAffected(prefix, changedKeys)) {
+                    Object rebound;
+                    try {
+                        rebound = initializeBean(def, doCreateBean(def));
+                    } catch (RuntimeException e) {
+                        logger.warn("failed to rebind @ConfigurationProperties bean '{}', keep current instance.", def.getName(), e);
+                        continue;
+                    }
+                    Object previous = def.getInstance();
+                    def.setInstance(rebound);
+                    destroyInstance(def, previous);
+                    logger.atInfo().log("rebind @ConfigurationProperties bean '{}' with prefix '{}'.", def.getName(), prefix);
+                }
+            }
+            for (BeanDefinition def : defs) {
+                if (def.getInstance() instanceof PropertyChangeListener listener) {
+                    try {
+                        listener.onPropertiesChanged(changedKeys);
+                    } catch (RuntimeException e) {
+                        logger.warn("bean '{}' failed to handle property change.", def.getName(), e);
+                    }
+                }
+            }
+        }
+    }
+
+    static boolean isAffected(String prefix, Set<String> changedKeys) {
+        if (prefix.isEmpty()) {
+            return true;
+        }
+        for (String key : changedKeys) {
+            if (key.startsWith(prefix) && (key.length() == prefix.length() || key.charAt(prefix.length()) == '.' || key.charAt(prefix.length()) == '[')) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    Object instantiate(BeanDefinition def, InjectionPlan plan) {
+        //按注入计划准备参数：
+        final List<InjectionPlan.Argument> arguments = plan.arguments();
+        Object[] args = new Object[arguments.size()];
+        for (int i = 0; i < args.length; i++) {
+            args[i] = resolveArgument(def, plan, arguments.get(i));
+        }
+        //创建Bean实例，用@Bean方法创建时需要@Configuration实例：
+        Object configInstance = plan.factoryDefinition() == null ? null : plan.factoryDefinition().getRequiredInstance();
+        try {
+            return def.getInstantiator().instantiate(configInstance, args);
+        } catch (Throwable e) {
+            throw new BeanCreationException(String.format("Exception when create bean '%s': %s", def.getName(), def.getBeanClass().getName()), e);
+        }
+    }
+
+    /**
+     * 按注入计划取得一个参数或注入点的值，可选依赖不存在时返回null。
+     */
+    @Nullable
+    Object resolveArgument(BeanDefinition def, InjectionPlan plan, InjectionPlan.Argument argument) {
+        if (argument.kind() == InjectionPlan.Kind.VALUE) {
+            //参数是@Value，不可变的转换结果由PropertyResolver缓存，原型Bean重复创建时不再解析:
+            return Objects.requireNonNull(this.propertyResolver.getProperty(argument.propertyKey(), argument.valueType()),
+                    "Property '" + argument.propertyKey() + "' not found.");
+        }
+        //参数是@Autowired:
+        final BeanDefinition dependsOnDef = argument.target();
+        if (dependsOnDef == null) {
+            return null;
+        }
+        if (!dependsOnDef.isSingleton()) {
+            //依赖非singleton的Bean，由作用域决定注入的实例；注入到singleton的实例不会被归还，关闭容器时销毁:
+            Object scoped = getScopedBean(dependsOnDef);
+            if (def.isSingleton()) {
+                this.dependentScopedBeans.add(new ScopedInstance(dependsOnDef, scoped));
+            }
+            return scoped;
+        }
+        //获取依赖Bean
+        Object autowiredBeanInstance = dependsOnDef.getInstance();
+        if (autowiredBeanInstance == null && !plan.beanPostProcessor()) {
+            //当前依赖Bean尚未初始化，递归调用初始化该依赖Bean
+            autowiredBeanInstance = createBeanAsEarlySingleton(dependsOnDef);
+        } else if (autowiredBeanInstance != null && this.deferredInitializations.contains(dependsOnDef)) {
+            //推迟初始化的Bean只发布了原始实例:
+            this.earlyReferencedBeans.add(dependsOnDef.getName());
+        }
+        return autowiredBeanInstance;
+    }
+
+    /**
+     * 所有singleton创建完成后注入推迟的字段和setter，因此构造方法和字段之间可以循环依赖。
+     */
+    void injectBeans() {
+        //注入时延迟创建的Bean可能再次推迟:
+        while (!this.deferredInjections.isEmpty()) {
+            List<BeanDefinition> defs = this.deferredInjections.stream().sorted().toList();
+            this.deferredInjections.removeAll(defs);
+            for (BeanDefinition def : defs) {
+                injectBean(def, def.getInstance());
+            }
+        }
+    }
+
+    void injectBean(BeanDefinition def, Object instance) {
+        injectBean(def, instance, null);
+    }
+
+    /**
+     * 通过预编译的VarHandle/MethodHandle写入字段和调用setter，注入到BeanPostProcessor返回代理之前的原始实例。kind不为null时只注入该类注入点。
+     */
+    void injectBean(BeanDefinition def, Object instance, @Nullable InjectionPlan.Kind kind) {
+        final InjectionPlan plan = def.getInjectionPlan();
+        Object target = getProxiedInstance(def, instance);
+        for (InjectionPlan.Injection injection : getInjections(def, target)) {
+            if (kind != null && injection.argument().kind() != kind) {
+                continue;
+            }
+            Object value = resolveArgument(def, plan, injection.argument());
+            if (value == null) {
+                //可选依赖不存在时保留字段的初始值:
+                continue;
+            }
+            try {
+                injection.point().inject(target, value);
+            } catch (Throwable e) {
+                throw new BeanCreationException(String.format("Exception when inject '%s' of bean '%s': %s", injection.point(), def.getName(), def.getBeanClass().getName()), e);
             }
         }
-        return def.getInstance();
     }
 
     //通过Name查找Bean，不存在时抛出NoSuchBeanDefinitionExcetion
@@ -221,22 +969,105 @@ public class AnnotationConfigApplicationContext {
         if (def == null) {
             throw new NoSuchBeanDefinitionException(String.format("No bean defined with name '%s'.", name));
         }
-        return (T) def.getRequiredInstance();
+        return (T) getInstance(def);
     }
 
+    //通过Type查找Bean，不存在时抛出NoSuchBeanDefinitionExcetion，存在多个但没有@Primary时抛出NoUniqueBeanDefinitionException
+    @SuppressWarnings("unchecked")
+    public <T> T getBean(Class<T> requiredType) {
+        BeanDefinition def = findBeanDefinition(requiredType);
+        if (def == null) {
+            throw new NoSuchBeanDefinitionException(String.format("No bean defined with type '%s'.", requiredType.getName()));
+        }
+        return (T) getInstance(def);
+    }
+
+    // 已创建的Bean直接返回，延迟创建的Bean在第一次获取时创建，非singleton的Bean由作用域决定:
+    Object getInstance(BeanDefinition def) {
+        Object instance = def.getInstance();
+        if (instance != null) {
+            return instance;
+        }
+        if (this.closed.get()) {
+            //关闭后不再创建新的实例:
+            throw new BeanCreationException(String.format("Cannot get bean '%s' because the context is closed.", def.getName()));
+        }
+        if (!def.isSingleton()) {
+            return getScopedBean(def);
+        }
+        if (def.isLazy()) {
+            return createBeanAsEarlySingleton(def);
+        }
+        return def.getRequiredInstance();
+    }
+
+
+    /**
+     * 注册自定义作用域，标注@Scope(name)的Bean在getBean或注入时由该作用域提供实例。
+     */
+    public void registerScope(String name, BeanScope scope) {
+        if (BeanScope.SINGLETON.equals(name)) {
+            throw new IllegalArgumentException("Cannot replace singleton scope.");
+        }
+        this.scopes.put(name, Objects.requireNonNull(scope));
+    }
+
+    /**
+     * 归还通过getBean获取的非singleton实例，例如pooled作用域会把实例放回池中复用，归还不是从池中借出或已归还的实例时抛出IllegalArgumentException。
+     */
+    public void releaseBean(String name, Object bean) {
+        BeanDefinition def = this.beans.get(name);
+        if (def == null) {
+            throw new NoSuchBeanDefinitionException(String.format("No bean defined with name '%s'.", name));
+        }
+        if (!def.isSingleton()) {
+            getScope(def).release(def, bean);
+        }
+    }
+
+    Object getScopedBean(BeanDefinition def) {
+        return getScope(def).get(def, () -> createScopedBean(def));
+    }
+
+    BeanScope getScope(BeanDefinition def) {
+        BeanScope scope = this.scopes.get(def.getScope());
+        if (scope == null) {
+            throw new BeanCreationException(String.format("No scope registered with name '%s' for bean '%s'.", def.getScope(), def.getName()));
+        }
+        return scope;
+    }
+
+    /**
+     * 创建一个非singleton的Bean实例，创建过程与singleton相同，但不发布到BeanDefinition。
+     */
+    Object createScopedBean(BeanDefinition def) {
+        Set<String> creating = this.creatingScopedBeanNames.get();
+        if (!creating.add(def.getName())) {
+            throw new UnsatisfiedDependencyException(String.format("Circular dependency detected when create bean '%s'", def.getName()));
+        }
+        try {
+            Object instance = doCreateBean(def);
+            injectBean(def, instance);
+            return initializeBean(def, instance);
+        } finally {
+            creating.remove(def.getName());
+        }
+    }
 
     protected Set<String> scanForClassNames(Class<?> configClass) throws IOException, URISyntaxException {
-        //获取@ComponentScan注解
-        ComponentScan scan = ClassUtils.findAnnotation(configClass, ComponentScan.class);
-        // 获取注解配置的package名字,未配置则默认当前类所在包:
-        String[] scanPackages = scan == null || scan.value().length == 0 ? new String[]{configClass.getPackage().getName()} : scan.value();
+        String[] scanPackages = getScanPackages(configClass);
 
         Set<String> classNameSet = new HashSet<>();
-        //依次扫描所有包：
-        for (String pkg : scanPackages) {
-            logger.atDebug().log("scan package: {}", pkg);
-            //扫描一个包：
-            var rr = new ResourceResolver(pkg);
+        //存在编译期生成的组件索引时直接使用索引，不再扫描classpath：
+        Set<String> indexed = loadComponentIndex(scanPackages);
+        if (indexed != null) {
+            logger.atDebug().log("use component index, found {} classes", indexed.size());
+            classNameSet.addAll(indexed);
+        } else {
+            logger.atDebug().log("scan packages: {}", Arrays.toString(scanPackages));
+            //所有包交给同一个ResourceResolver扫描，开启并行时各包及其根路径同时遍历：
+            var rr = new ResourceResolver(scanPackages);
+            rr.setParallel(this.propertyResolver.getProperty("${mini.scan.parallel:false}", boolean.class));
             List<String> classList = rr.scan(res -> {
                 //遇到以.class结尾的文件，就将其转换为Class全名：
                 String name = res.name();
@@ -260,30 +1091,163 @@ public class AnnotationConfigApplicationContext {
         return classNameSet;
     }
 
+    String[] getScanPackages(Class<?> configClass) {
+        //获取@ComponentScan注解
+        ComponentScan scan = ClassUtils.findAnnotation(configClass, ComponentScan.class);
+        // 获取注解配置的package名字,未配置则默认当前类所在包:
+        return scan == null || scan.value().length == 0 ? new String[]{configClass.getPackage().getName()} : scan.value();
+    }
+
+    /**
+     * 设置了mini.scan.cache时返回该文件对应的扫描缓存，指纹包含配置类、扫描的包和classpath中每个条目的大小与修改时间。
+     */
+    @Nullable
+    ScanCache createScanCache(Class<?> configClass) throws IOException {
+        String cacheFile = this.propertyResolver.getProperty("${mini.scan.cache:}");
+        if (cacheFile == null || cacheFile.isBlank()) {
+            return null;
+        }
+        byte[] fingerprint = ScanCache.fingerprint(getContextClassLoader(), getScanPackages(configClass),
+                configClass.getName(), this.propertyResolver.getProperty("${mini.index.ignore:false}"));
+        return new ScanCache(Path.of(cacheFile), fingerprint);
+    }
+
+    /**
+     * 从缓存创建Bean的定义，只加载缓存中的类，不再扫描和读取字节码；缓存不可用时返回null。
+     */
+    @Nullable
+    Map<String, BeanDefinition> loadBeanDefinitions(ScanCache scanCache) {
+        List<ScanCache.Entry> entries = scanCache.load();
+        if (entries == null) {
+            return null;
+        }
+        ClassLoader classLoader = getContextClassLoader();
+        Map<String, BeanDefinition> defs = new HashMap<>();
+        try {
+            for (ScanCache.Entry entry : entries) {
+                Class<?> clazz = Class.forName(entry.className(), false, classLoader);
+                //校验缓存的类仍然是@Component:
+                if (ClassUtils.findAnnotation(clazz, Component.class) == null) {
+                    logger.atDebug().log("scan cache is invalid, class {} is not a component", entry.className());
+                    return null;
+                }
+                addBeanDefinitions(defs, createComponentDefinition(clazz, entry.beanName(), entry.order(), entry.primary()));
+                for (ScanCache.FactoryEntry factory : entry.factories()) {
+                    Method method = findFactoryMethod(clazz, factory);
+                    if (method == null) {
+                        logger.atDebug().log("scan cache is invalid, @Bean method {}.{} not found", entry.className(), factory.methodName());
+                        return null;
+                    }
+                    addBeanDefinitions(defs, createFactoryDefinition(entry.beanName(), method, factory.beanName(), factory.order(), factory.primary()));
+                }
+            }
+        } catch (ClassNotFoundException | LinkageError | BeanDefinitionException e) {
+            //缓存的内容与当前的类不一致，重新扫描时会给出准确的错误:
+            logger.atDebug().log("scan cache is invalid: {}", e.toString());
+            return null;
+        }
+        logger.atDebug().log("loaded {} bean definitions from scan cache {}", defs.size(), scanCache.file);
+        return defs;
+    }
+
+    @Nullable
+    Method findFactoryMethod(Class<?> clazz, ScanCache.FactoryEntry factory) {
+        for (Method method : clazz.getDeclaredMethods()) {
+            if (method.getName().equals(factory.methodName())
+                    && Arrays.stream(method.getParameterTypes()).map(Class::getName).toList().equals(factory.parameterTypes())) {
+                return method;
+            }
+        }
+        return null;
+    }
+
+    List<ScanCache.Entry> toScanCacheEntries(Map<String, BeanDefinition> defs) {
+        List<ScanCache.Entry> entries = new ArrayList<>();
+        for (BeanDefinition def : defs.values()) {
+            if (def.getFactoryName() != null) {
+                continue;
+            }
+            List<ScanCache.FactoryEntry> factories = defs.values().stream()
+                    .filter(fd -> def.getName().equals(fd.getFactoryName()))
+                    .map(fd -> new ScanCache.FactoryEntry(fd.getFactoryMethod().getName(),
+                            Arrays.stream(fd.getFactoryMethod().getParameterTypes()).map(Class::getName).toList(),
+                            fd.getName(), fd.getOrder(), fd.isPrimary()))
+                    .toList();
+            entries.add(new ScanCache.Entry(def.getBeanClass().getName(), def.getName(), def.getOrder(), def.isPrimary(), factories));
+        }
+        return entries;
+    }
+
+    ClassLoader getContextClassLoader() {
+        ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+        if (classLoader == null) {
+            classLoader = getClass().getClassLoader();
+        }
+        return classLoader;
+    }
+
+    /**
+     * 读取classpath中所有META-INF/mini-spring.components索引，返回位于扫描包内的类名；没有索引或设置了mini.index.ignore时返回null。
+     */
+    @Nullable
+    protected Set<String> loadComponentIndex(String[] scanPackages) throws IOException {
+        if (this.propertyResolver.getProperty("${mini.index.ignore:false}", boolean.class)) {
+            return null;
+        }
+        ClassLoader classLoader = getContextClassLoader();
+        Enumeration<URL> en = classLoader.getResources(ComponentIndexProcessor.COMPONENTS_RESOURCE_LOCATION);
+        if (!en.hasMoreElements()) {
+            return null;
+        }
+        Set<String> classNameSet = new HashSet<>();
+        while (en.hasMoreElements()) {
+            URL url = en.nextElement();
+            logger.atDebug().log("load component index: {}", url);
+            try (var reader = new BufferedReader(new InputStreamReader(url.openStream(), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    String className = line.strip();
+                    if (className.isEmpty() || className.startsWith("#")) {
+                        continue;
+                    }
+                    for (String pkg : scanPackages) {
+                        if (className.startsWith(pkg + ".")) {
+                            classNameSet.add(className);
+                            break;
+                        }
+                    }
+                }
+            }
+        }
+        return classNameSet;
+    }
+
     public Map<String, BeanDefinition> createBeanDefinitions(Set<String> classNameSet) {
         Map<String, BeanDefinition> defs = new HashMap<>();
+        ClassLoader classLoader = getContextClassLoader();
+        //先从字节码判断是否标注@Component，只加载候选类：
+        var metadataReader = new ClassMetadataReader(classLoader);
         // 获取Class:
         for (String className : classNameSet) {
+            if (!metadataReader.isCandidate(className, Component.class.getName())) {
+                continue;
+            }
             Class<?> clazz = null;
+            StartupStep step = this.startupRecorder.start("class.load").tag("className", className);
             try {
-                clazz = Class.forName(className);
+                //加载但不初始化，避免执行静态初始化代码：
+                clazz = Class.forName(className, false, classLoader);
             } catch (ClassNotFoundException e) {
                 throw new BeanCreationException(e);
+            } finally {
+                step.end();
             }
             //是否标注@Component?
             Component component = ClassUtils.findAnnotation(clazz, Component.class);
             if (component != null) {
                 //获取Bean的名称
                 String beanName = ClassUtils.getBeanName(clazz);
-                var def = new BeanDefinition(
-                        beanName, clazz, getSuitableConstructor(clazz),
-                        getOrder(clazz), clazz.isAnnotationPresent(Primary.class),
-                        // init/destory方法名称
-                        null, null,
-                        //查找@PostConstruct方法：
-                        ClassUtils.findAnnotationMethod(clazz, PostConstruct.class),
-                        //查找@PreDestroy方法：
-                        ClassUtils.findAnnotationMethod(clazz, PreDestroy.class));
+                var def = createComponentDefinition(clazz, beanName, getOrder(clazz), clazz.isAnnotationPresent(Primary.class));
                 addBeanDefinitions(defs, def);
                 logger.atDebug().log("define bean: {}", def);
 
@@ -296,6 +1260,20 @@ public class AnnotationConfigApplicationContext {
         return defs;
     }
 
+    BeanDefinition createComponentDefinition(Class<?> clazz, String beanName, int order, boolean primary) {
+        var def = new BeanDefinition(
+                beanName, clazz, getSuitableConstructor(clazz), order, primary,
+                // init/destory方法名称
+                null, null,
+                //查找@PostConstruct方法：
+                ClassUtils.findAnnotationMethod(clazz, PostConstruct.class),
+                //查找@PreDestroy方法：
+                ClassUtils.findAnnotationMethod(clazz, PreDestroy.class));
+        def.setLazy(isLazy(ClassUtils.findAnnotation(clazz, Lazy.class)));
+        def.setScope(getScopeName(ClassUtils.findAnnotation(clazz, Scope.class)));
+        return def;
+    }
+
     void scanFactoryMethods(String factoryBeanName, Class<?> clazz, Map<String, BeanDefinition> defs) {
         for (Method method : clazz.getDeclaredMethods()) {
             Bean bean = method.getAnnotation(Bean.class);
@@ -311,32 +1289,54 @@ public class AnnotationConfigApplicationContext {
                     throw new BeanDefinitionException("@Bean method " + clazz.getName() + "." + method.getName() + " must not be private.");
                 }
                 Class<?> beanClass = method.getReturnType();
+                //void.class也是基本类型，先检查:
+                if (beanClass == void.class || beanClass == Void.class) {
+                    throw new BeanDefinitionException("@Bean method " + clazz.getName() + "." + method.getName() + " must not return void.");
+                }
                 if (beanClass.isPrimitive()) {
                     throw new BeanDefinitionException("@Bean method " + clazz.getName() + "." + method.getName() + " must not return primitive type.");
                 }
-                if (beanClass == void.class || beanClass == void.class) {
-                    throw new BeanDefinitionException("@Bean method " + clazz.getName() + "." + method.getName() + " must not return void.");
-                }
-                var def = new BeanDefinition(
-                        ClassUtils.getBeanName(method), beanClass,
-                        factoryBeanName,
-                        //创建Bean的工厂方法
-                        method,
+                var def = createFactoryDefinition(factoryBeanName, method, ClassUtils.getBeanName(method),
                         //@Order
                         getOrder(method),
                         // 是否存在@Primary标注?
-                        method.isAnnotationPresent(Primary.class),
-                        // init方法名称:
-                        bean.initMethod().isEmpty() ? null : bean.initMethod(),
-                        // destroy方法名称:
-                        bean.destroyMethod().isEmpty() ? null : bean.destroyMethod(),
-                        // @PostConstruct / @PreDestroy method:
-                        null, null);
+                        method.isAnnotationPresent(Primary.class));
+                addBeanDefinitions(defs, def);
                 logger.atDebug().log("define bean: {}", def);
             }
         }
     }
 
+    BeanDefinition createFactoryDefinition(String factoryBeanName, Method method, String beanName, int order, boolean primary) {
+        Bean bean = method.getAnnotation(Bean.class);
+        var def = new BeanDefinition(
+                beanName, method.getReturnType(),
+                factoryBeanName,
+                //创建Bean的工厂方法
+                method, order, primary,
+                // init方法名称:
+                bean.initMethod().isEmpty() ? null : bean.initMethod(),
+                // destroy方法名称:
+                bean.destroyMethod().isEmpty() ? null : bean.destroyMethod(),
+                // @PostConstruct / @PreDestroy method:
+                null, null);
+        def.setLazy(isLazy(method.getAnnotation(Lazy.class)));
+        def.setScope(getScopeName(method.getAnnotation(Scope.class)));
+        return def;
+    }
+
+    String getScopeName(@Nullable Scope scope) {
+        return scope == null || scope.value().isEmpty() ? BeanScope.SINGLETON : scope.value();
+    }
+
+    // 标注了@Lazy，或开启了mini.lazy-init时延迟创建:
+    boolean isLazy(@Nullable Lazy lazy) {
+        if (lazy != null) {
+            return lazy.value();
+        }
+        return this.propertyResolver.getProperty("${mini.lazy-init:false}", boolean.class);
+    }
+
     void addBeanDefinitions(Map<String, BeanDefinition> defs, BeanDefinition def) {
         if (defs.put(def.getName(), def) != null) {
             throw new BeanDefinitionException("Duplicate bean name: " + def.getName());
@@ -396,33 +1396,16 @@ public class AnnotationConfigApplicationContext {
      * 根据Type查找若干个BeanDefinition，返回0个或多个。
      */
     public List<BeanDefinition> findBeanDefinitions(Class<?> type) {
-        return this.beans.values().stream()
-                // 按类型过滤:
-                .filter(def -> type.isAssignableFrom(def.getBeanClass()))
-                // 排序:
-                .sorted().collect(Collectors.toList());
+        return this.beanTypeIndex.findBeanDefinitions(type);
     }
 
     // 根据Type查找某个BeanDefinition，如果不存在返回null，如果存在多个返回@Primary标注的一个:
     @Nullable
     public BeanDefinition findBeanDefinition(Class<?> type) {
-        List<BeanDefinition> defs = findBeanDefinitions(type);
-        if ((defs.isEmpty())) {
-            return null;
-        }
-        if (defs.size() == 1) {
-            return defs.get(0);
-        }
-        // 多于一个时，查找@Primary:
-        List<BeanDefinition> primaryDefs = defs.stream()
-                .filter(def -> def.isPrimary()).collect(Collectors.toList());
-        if (primaryDefs.size() == 1) {
-            return primaryDefs.get(0);
-        }
-        if (primaryDefs.isEmpty()) {
-            throw new NoUniqueBeanDefinitionException(String.format("Multiple bean with type '%s' found, but no @Primary specified", type.getName()));
-        } else {
-            throw new NoUniqueBeanDefinitionException(String.format("Multiple bean with type '%s' found, but multiple @Primary specified", type.getName()));
-        }
+        return this.beanTypeIndex.findBeanDefinition(type);
+    }
+
+    // 一个非singleton Bean的实例:
+    record ScopedInstance(BeanDefinition def, Object instance) {
     }
 }
@@ -12,24 +12,34 @@ import java.lang.reflect.Method;
  */
 
 @Data
-public class BeanDefinition {
+public class BeanDefinition implements Comparable<BeanDefinition> {
 
     // 全局唯一的Bean Name:
     private final String name;
     // Bean的声明类型:
     private final Class<?> beanClass;
-    // Bean的实例:
-    private Object instance = null;
+    // Bean的实例，创建完成后才发布，读取无需加锁:
+    private volatile Object instance = null;
     // 构造方法/null:
     private final Constructor<?> constructor;
     // 工厂方法名称/null:
     private final String factoryName;
     // 工厂方法/null:
     private final Method factoryMethod;
+    // 预编译的构造方法/工厂方法调用:
+    private final BeanInstantiator instantiator;
+    // 预编译的字段/setter注入，@Bean方法创建的Bean为null:
+    private final BeanInjector injector;
+    // 注入计划，所有Bean定义完成后生成:
+    private InjectionPlan injectionPlan;
     // Bean的顺序:
     private final int order;
     // 是否标识@Primary:
     private final boolean primary;
+    // 是否延迟创建:
+    private boolean lazy;
+    // 作用域:
+    private String scope = BeanScope.SINGLETON;
 
     private String initMethodName;
     private String destroyMethodName;
@@ -48,6 +58,8 @@ public class BeanDefinition {
         this.order = order;
         this.primary = primary;
         constructor.setAccessible(true);
+        this.instantiator = BeanInstantiator.forConstructor(constructor);
+        this.injector = BeanInjector.forClass(beanClass);
         setInitAndDestroyMethod(initMethodName, destroyMethodName, initMethod, destroyMethod);
     }
 
@@ -61,6 +73,9 @@ public class BeanDefinition {
         this.order = order;
         this.primary = primary;
         factoryMethod.setAccessible(true);
+        this.instantiator = BeanInstantiator.forFactoryMethod(factoryMethod);
+        //@Bean方法的返回类型可能是接口或父类，注入点按创建后实例的实际类型查找:
+        this.injector = null;
         setInitAndDestroyMethod(initMethodName, destroyMethodName, initMethod, destroyMethod);
     }
 
@@ -77,6 +92,10 @@ public class BeanDefinition {
         this.destroyMethod = destroyMethod;
     }
 
+    public boolean isSingleton() {
+        return BeanScope.SINGLETON.equals(this.scope);
+    }
+
     public Object getRequiredInstance() {
         if (this.instance == null) {
             throw new BeanCreationException(String.format("Instance of bean with name '%s' and type '%s' is not instantiated during current stage.",
@@ -84,4 +103,32 @@ public class BeanDefinition {
         }
         return this.instance;
     }
+
+    //instance和injectionPlan会变化或引用其他BeanDefinition，按对象本身判断相等:
+    @Override
+    public boolean equals(Object o) {
+        return this == o;
+    }
+
+    @Override
+    public int hashCode() {
+        return System.identityHashCode(this);
+    }
+
+    @Override
+    public String toString() {
+        return "BeanDefinition(name=" + name + ", beanClass=" + beanClass.getName() + ", factory=" + (factoryName == null ? null : factoryName + "." + factoryMethod.getName())
+                + ", order=" + order + ", primary=" + primary + ", lazy=" + lazy + ", scope=" + scope + ", initMethodName=" + initMethodName + ", destroyMethodName=" + destroyMethodName
+                + ", initMethod=" + initMethod + ", destroyMethod=" + destroyMethod + ")";
+    }
+
+    //按order排序，order相同时按name排序:
+    @Override
+    public int compareTo(BeanDefinition def) {
+        int cmp = Integer.compare(this.order, def.getOrder());
+        if (cmp != 0) {
+            return cmp;
+        }
+        return this.name.compareTo(def.getName());
+    }
 }
@@ -0,0 +1,116 @@
+package com.lfy.context;
+
+import com.lfy.exception.BeanCreationException;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Bean之间通过构造方法/工厂方法参数形成的依赖图，没有依赖关系的Bean可以同时创建或初始化。
+ * 传入反向的依赖关系时，可以按相反顺序销毁。
+ */
+class BeanDependencyGraph {
+
+    // 已排序的待创建Bean:
+    private final List<BeanDefinition> defs;
+
+    // Bean -> 它依赖的待创建Bean:
+    private final Map<BeanDefinition, List<BeanDefinition>> dependencies = new HashMap<>();
+
+    BeanDependencyGraph(List<BeanDefinition> defs, Function<BeanDefinition, List<BeanDefinition>> dependencyResolver) {
+        this.defs = defs;
+        Set<BeanDefinition> defSet = new HashSet<>(defs);
+        for (BeanDefinition def : defs) {
+            List<BeanDefinition> deps = new ArrayList<>();
+            for (BeanDefinition dep : dependencyResolver.apply(def)) {
+                //只关心同样待创建的Bean，已创建或延迟创建的Bean无需等待:
+                if (dep != def && defSet.contains(dep)) {
+                    deps.add(dep);
+                }
+            }
+            this.dependencies.put(def, deps);
+        }
+    }
+
+    /**
+     * 按拓扑顺序排列，依赖在前；存在循环依赖的Bean排在最后，保持原有顺序。
+     */
+    List<BeanDefinition> topologicalOrder() {
+        Map<BeanDefinition, Integer> inDegree = new HashMap<>();
+        Map<BeanDefinition, List<BeanDefinition>> dependents = new HashMap<>();
+        for (BeanDefinition def : this.defs) {
+            int degree = 0;
+            for (BeanDefinition dep : this.dependencies.get(def)) {
+                if (this.dependencies.containsKey(dep)) {
+                    dependents.computeIfAbsent(dep, k -> new ArrayList<>()).add(def);
+                    degree++;
+                }
+            }
+            inDegree.put(def, degree);
+        }
+        List<BeanDefinition> ordered = new ArrayList<>(this.defs.size());
+        for (BeanDefinition def : this.defs) {
+            if (inDegree.get(def) == 0) {
+                ordered.add(def);
+            }
+        }
+        for (int i = 0; i < ordered.size(); i++) {
+            for (BeanDefinition dependent : dependents.getOrDefault(ordered.get(i), List.of())) {
+                if (inDegree.merge(dependent, -1, Integer::sum) == 0) {
+                    ordered.add(dependent);
+                }
+            }
+        }
+        for (BeanDefinition def : this.defs) {
+            if (inDegree.get(def) > 0) {
+                ordered.add(def);
+            }
+        }
+        return ordered;
+    }
+
+    /**
+     * 在executor中处理所有Bean：每个Bean在它依赖的Bean处理完成后提交，按@Order顺序提交互不依赖的Bean。
+     * 存在循环依赖的Bean最后在当前线程依次处理，由action报告循环依赖。
+     */
+    void runAll(Executor executor, Consumer<BeanDefinition> action) {
+        Map<BeanDefinition, CompletableFuture<Void>> futures = new HashMap<>();
+        List<BeanDefinition> cyclic = new ArrayList<>();
+        for (BeanDefinition def : topologicalOrder()) {
+            List<BeanDefinition> deps = this.dependencies.get(def);
+            CompletableFuture<?>[] depFutures = new CompletableFuture<?>[deps.size()];
+            boolean ready = true;
+            for (int i = 0; i < deps.size(); i++) {
+                CompletableFuture<Void> f = futures.get(deps.get(i));
+                if (f == null) {
+                    ready = false;
+                    break;
+                }
+                depFutures[i] = f;
+            }
+            if (!ready) {
+                cyclic.add(def);
+                continue;
+            }
+            futures.put(def, CompletableFuture.allOf(depFutures).thenRunAsync(() -> action.accept(def), executor));
+        }
+        try {
+            CompletableFuture.allOf(futures.values().toArray(new CompletableFuture<?>[0])).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException re) {
+                throw re;
+            }
+            throw new BeanCreationException(e.getCause());
+        }
+        cyclic.forEach(action);
+    }
+}
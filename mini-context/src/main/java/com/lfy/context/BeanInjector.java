@@ -0,0 +1,154 @@
+package com.lfy.context;
+
+import com.lfy.annotation.Autowired;
+import com.lfy.annotation.Value;
+import com.lfy.exception.BeanDefinitionException;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.invoke.VarHandle;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 预编译的字段/setter注入器：每个类只查找一次标注了@Autowired或@Value的字段和方法（包括父类），
+ * 字段通过VarHandle、方法通过MethodHandle写入，创建Bean时不再反射查找，也不调用Field.set。
+ */
+public final class BeanInjector {
+
+    // 统一签名: (Object bean, Object value) -> void
+    private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
+    private static final BeanInjector EMPTY = new BeanInjector(List.of());
+
+    // 按类缓存，类被卸载时随之释放:
+    private static final ClassValue<BeanInjector> INJECTORS = new ClassValue<>() {
+        @Override
+        protected BeanInjector computeValue(Class<?> type) {
+            return create(type);
+        }
+    };
+
+    private final List<InjectionPoint> injectionPoints;
+
+    private BeanInjector(List<InjectionPoint> injectionPoints) {
+        this.injectionPoints = injectionPoints;
+    }
+
+    public static BeanInjector forClass(Class<?> clazz) {
+        return INJECTORS.get(clazz);
+    }
+
+    /**
+     * 所有注入点，父类的注入点在前，与Spring的注入顺序一致。
+     */
+    public List<InjectionPoint> getInjectionPoints() {
+        return this.injectionPoints;
+    }
+
+    private static BeanInjector create(Class<?> clazz) {
+        if (clazz.isInterface() || clazz.isPrimitive() || clazz.isArray()) {
+            return EMPTY;
+        }
+        List<InjectionPoint> points = new ArrayList<>();
+        // 从子类向父类查找，已被子类覆写的方法按子类的注解处理:
+        Set<String> overridden = new HashSet<>();
+        for (Class<?> c = clazz; c != null && c != Object.class; c = c.getSuperclass()) {
+            //java.lang.Record等JDK中的父类没有注入点，也不允许深度反射:
+            if (c.getModule().isNamed() && !c.getModule().isOpen(c.getPackageName(), BeanInjector.class.getModule())) {
+                continue;
+            }
+            List<InjectionPoint> declared = new ArrayList<>();
+            try {
+                MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(c, MethodHandles.lookup());
+                for (Field field : c.getDeclaredFields()) {
+                    InjectionPoint point = createFieldInjectionPoint(lookup, field);
+                    if (point != null) {
+                        declared.add(point);
+                    }
+                }
+                for (Method method : c.getDeclaredMethods()) {
+                    //编译器生成的桥接方法会复制注解:
+                    if (method.isBridge() || method.isSynthetic()) {
+                        continue;
+                    }
+                    boolean isPrivate = Modifier.isPrivate(method.getModifiers());
+                    if (!isPrivate && !overridden.add(method.getName() + List.of(method.getParameterTypes()))) {
+                        continue;
+                    }
+                    if (method.isAnnotationPresent(Autowired.class) || method.isAnnotationPresent(Value.class)) {
+                        declared.add(createMethodInjectionPoint(lookup, method));
+                    }
+                }
+            } catch (IllegalAccessException e) {
+                throw new BeanDefinitionException("Cannot access injection points of class " + c.getName() + ".", e);
+            }
+            //父类的注入点在前:
+            points.addAll(0, declared);
+        }
+        return points.isEmpty() ? EMPTY : new BeanInjector(List.copyOf(points));
+    }
+
+    private static InjectionPoint createFieldInjectionPoint(MethodHandles.Lookup lookup, Field field) throws IllegalAccessException {
+        Value value = field.getAnnotation(Value.class);
+        Autowired autowired = field.getAnnotation(Autowired.class);
+        if (value == null && autowired == null) {
+            return null;
+        }
+        String name = field.getDeclaringClass().getName() + "." + field.getName();
+        checkAnnotations(name, value, autowired);
+        int mod = field.getModifiers();
+        if (Modifier.isStatic(mod)) {
+            throw new BeanDefinitionException("Cannot inject static field: " + name);
+        }
+        if (Modifier.isFinal(mod)) {
+            throw new BeanDefinitionException("Cannot inject final field: " + name);
+        }
+        VarHandle handle = lookup.unreflectVarHandle(field);
+        MethodHandle setter = handle.toMethodHandle(VarHandle.AccessMode.SET).asType(SETTER_TYPE);
+        return new InjectionPoint(name, field.getType(), field.getGenericType(), value, autowired, setter);
+    }
+
+    private static InjectionPoint createMethodInjectionPoint(MethodHandles.Lookup lookup, Method method) throws IllegalAccessException {
+        Value value = method.getAnnotation(Value.class);
+        Autowired autowired = method.getAnnotation(Autowired.class);
+        String name = method.getDeclaringClass().getName() + "." + method.getName() + "()";
+        checkAnnotations(name, value, autowired);
+        if (Modifier.isStatic(method.getModifiers())) {
+            throw new BeanDefinitionException("Cannot inject static method: " + name);
+        }
+        if (method.getParameterCount() != 1) {
+            throw new BeanDefinitionException("Cannot inject method with " + method.getParameterCount() + " parameters: " + name);
+        }
+        MethodHandle setter = MethodHandles.dropReturn(lookup.unreflect(method)).asType(SETTER_TYPE);
+        return new InjectionPoint(name, method.getParameterTypes()[0], method.getGenericParameterTypes()[0], value, autowired, setter);
+    }
+
+    private static void checkAnnotations(String name, Value value, Autowired autowired) {
+        if (value != null && autowired != null) {
+            throw new BeanDefinitionException("Cannot specify both @Autowired and @Value: " + name);
+        }
+    }
+
+    /**
+     * 一个字段或setter：名称（用于错误信息）、注入的类型、泛型类型、@Value或@Autowired，以及写入值的MethodHandle。
+     */
+    public record InjectionPoint(String name, Class<?> type, Type genericType, Value value, Autowired autowired, MethodHandle setter) {
+
+        public void inject(Object bean, Object value) throws Throwable {
+            this.setter.invokeExact(bean, value);
+        }
+
+        @Override
+        public String toString() {
+            return this.name;
+        }
+    }
+}
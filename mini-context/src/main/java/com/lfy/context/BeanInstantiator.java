@@ -0,0 +1,93 @@
+package com.lfy.context;
+
+import com.lfy.annotation.Autowired;
+import com.lfy.annotation.Value;
+import com.lfy.exception.BeanDefinitionException;
+import com.lfy.util.ClassUtils;
+
+import java.lang.annotation.Annotation;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Executable;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 预编译的Bean创建器：构造方法或工厂方法在定义Bean时转换为MethodHandle，参数上的@Value/@Autowired也只读取一次。
+ */
+public final class BeanInstantiator {
+
+    // 统一签名: (Object factoryInstance, Object[] args) -> Object
+    private static final MethodType GENERIC_TYPE = MethodType.methodType(Object.class, Object.class, Object[].class);
+
+    private final MethodHandle handle;
+
+    private final List<ArgumentSpec> arguments;
+
+    private BeanInstantiator(MethodHandle handle, List<ArgumentSpec> arguments) {
+        this.handle = handle;
+        this.arguments = arguments;
+    }
+
+    public static BeanInstantiator forConstructor(Constructor<?> constructor) {
+        try {
+            MethodHandle mh = MethodHandles.lookup().unreflectConstructor(constructor);
+            mh = mh.asSpreader(Object[].class, constructor.getParameterCount());
+            //构造方法不需要工厂实例，忽略第一个参数：
+            mh = MethodHandles.dropArguments(mh, 0, Object.class);
+            return new BeanInstantiator(mh.asType(GENERIC_TYPE), createArguments(constructor));
+        } catch (IllegalAccessException e) {
+            throw new BeanDefinitionException("Cannot access constructor of class " + constructor.getDeclaringClass().getName() + ".", e);
+        }
+    }
+
+    public static BeanInstantiator forFactoryMethod(Method method) {
+        try {
+            MethodHandle mh = MethodHandles.lookup().unreflect(method);
+            mh = mh.asSpreader(Object[].class, method.getParameterCount());
+            if (Modifier.isStatic(method.getModifiers())) {
+                //静态工厂方法不需要工厂实例，忽略第一个参数：
+                mh = MethodHandles.dropArguments(mh, 0, Object.class);
+            }
+            return new BeanInstantiator(mh.asType(GENERIC_TYPE), createArguments(method));
+        } catch (IllegalAccessException e) {
+            throw new BeanDefinitionException("Cannot access @Bean method " + method.getDeclaringClass().getName() + "." + method.getName() + ".", e);
+        }
+    }
+
+    /**
+     * 调用构造方法或工厂方法，factoryInstance对构造方法无效。
+     */
+    public Object instantiate(Object factoryInstance, Object[] args) throws Throwable {
+        return this.handle.invokeExact(factoryInstance, args);
+    }
+
+    public List<ArgumentSpec> getArguments() {
+        return this.arguments;
+    }
+
+    private static List<ArgumentSpec> createArguments(Executable createFn) {
+        Class<?>[] types = createFn.getParameterTypes();
+        Type[] genericTypes = createFn.getGenericParameterTypes();
+        Annotation[][] parametersAnnos = createFn.getParameterAnnotations();
+        List<ArgumentSpec> arguments = new ArrayList<>(types.length);
+        for (int i = 0; i < types.length; i++) {
+            //内部类等合成参数会导致泛型参数个数不一致，此时退回到原始类型:
+            arguments.add(new ArgumentSpec(types[i], genericTypes.length == types.length ? genericTypes[i] : types[i],
+                    ClassUtils.getAnnotation(parametersAnnos[i], Value.class),
+                    ClassUtils.getAnnotation(parametersAnnos[i], Autowired.class)));
+        }
+        return List.copyOf(arguments);
+    }
+
+    /**
+     * 构造方法/工厂方法的一个参数：参数类型、泛型类型及其@Value或@Autowired。
+     */
+    public record ArgumentSpec(Class<?> type, Type genericType, Value value, Autowired autowired) {
+    }
+}
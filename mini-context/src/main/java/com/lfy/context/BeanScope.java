@@ -0,0 +1,32 @@
+package com.lfy.context;
+
+import java.util.function.Supplier;
+
+/**
+ * 非singleton作用域的扩展点：决定getBean或注入时返回已有实例还是通过objectFactory创建新实例。
+ */
+@FunctionalInterface
+public interface BeanScope {
+
+    String SINGLETON = "singleton";
+    String PROTOTYPE = "prototype";
+    String THREAD = "thread";
+    String POOLED = "pooled";
+
+    /**
+     * 返回作用域内的实例，需要新实例时调用objectFactory创建。
+     */
+    Object get(BeanDefinition def, Supplier<Object> objectFactory);
+
+    /**
+     * 使用方不再需要该实例，默认什么也不做。
+     */
+    default void release(BeanDefinition def, Object instance) {
+    }
+
+    /**
+     * 容器关闭时调用，销毁作用域仍然持有的实例，默认什么也不做。
+     */
+    default void close() {
+    }
+}
@@ -0,0 +1,95 @@
+package com.lfy.context;
+
+import com.lfy.exception.NoUniqueBeanDefinitionException;
+import jakarta.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 按类型索引BeanDefinition：每个Bean的类、所有父类和接口都映射到已排序的不可变列表，按类型查找只需一次Map读取。
+ */
+class BeanTypeIndex {
+
+    private final Map<Class<?>, TypeEntry> entries;
+
+    BeanTypeIndex(Collection<BeanDefinition> defs) {
+        Map<Class<?>, List<BeanDefinition>> byType = new HashMap<>();
+        for (BeanDefinition def : defs) {
+            for (Class<?> type : collectTypes(def.getBeanClass())) {
+                byType.computeIfAbsent(type, k -> new ArrayList<>()).add(def);
+            }
+        }
+        Map<Class<?>, TypeEntry> entries = new HashMap<>(byType.size() * 2);
+        byType.forEach((type, list) -> {
+            Collections.sort(list);
+            entries.put(type, createEntry(type, List.copyOf(list)));
+        });
+        this.entries = entries;
+    }
+
+    /**
+     * 根据Type查找若干个BeanDefinition，返回已排序的不可变列表。
+     */
+    List<BeanDefinition> findBeanDefinitions(Class<?> type) {
+        TypeEntry entry = this.entries.get(type);
+        return entry == null ? List.of() : entry.defs();
+    }
+
+    /**
+     * 根据Type查找唯一的BeanDefinition，存在多个时返回@Primary标注的一个，无法确定时抛出NoUniqueBeanDefinitionException。
+     */
+    @Nullable
+    BeanDefinition findBeanDefinition(Class<?> type) {
+        TypeEntry entry = this.entries.get(type);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.error() != null) {
+            throw new NoUniqueBeanDefinitionException(entry.error());
+        }
+        return entry.unique();
+    }
+
+    private TypeEntry createEntry(Class<?> type, List<BeanDefinition> defs) {
+        if (defs.size() == 1) {
+            return new TypeEntry(defs, defs.get(0), null);
+        }
+        // 多于一个时，查找@Primary:
+        List<BeanDefinition> primaryDefs = defs.stream().filter(BeanDefinition::isPrimary).toList();
+        if (primaryDefs.size() == 1) {
+            return new TypeEntry(defs, primaryDefs.get(0), null);
+        }
+        if (primaryDefs.isEmpty()) {
+            return new TypeEntry(defs, null, String.format("Multiple bean with type '%s' found, but no @Primary specified", type.getName()));
+        }
+        return new TypeEntry(defs, null, String.format("Multiple bean with type '%s' found, but multiple @Primary specified", type.getName()));
+    }
+
+    // 类本身、所有父类和所有接口，接口类型的Bean也可以按Object查找:
+    private static Set<Class<?>> collectTypes(Class<?> clazz) {
+        Set<Class<?>> types = new HashSet<>();
+        types.add(Object.class);
+        for (Class<?> c = clazz; c != null; c = c.getSuperclass()) {
+            collectInterfaces(c, types);
+        }
+        return types;
+    }
+
+    private static void collectInterfaces(Class<?> clazz, Set<Class<?>> types) {
+        if (types.add(clazz)) {
+            for (Class<?> itf : clazz.getInterfaces()) {
+                collectInterfaces(itf, types);
+            }
+        }
+    }
+
+    record TypeEntry(List<BeanDefinition> defs, BeanDefinition unique, String error) {
+    }
+}
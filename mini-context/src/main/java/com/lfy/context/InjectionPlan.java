@@ -0,0 +1,49 @@
+package com.lfy.context;
+
+import java.lang.reflect.Type;
+import java.util.List;
+
+/**
+ * 创建Bean的注入计划：在定义Bean之后一次性解析构造方法/工厂方法的每个参数，以及字段/setter的每个注入点，创建Bean时只需按计划取值，不再读取注解和反射元数据。
+ * 标注@ConfigurationProperties的Bean没有参数，由propertiesPrefix下的配置项绑定创建。
+ */
+public record InjectionPlan(List<Argument> arguments, boolean configuration, boolean beanPostProcessor, BeanDefinition factoryDefinition,
+                            String propertiesPrefix, List<Injection> injections) {
+
+    public enum Kind {
+        // @Value注入配置项:
+        VALUE,
+        // @Autowired注入其他Bean:
+        AUTOWIRED
+    }
+
+    /**
+     * 一个参数：@Value参数记录配置项key和转换的目标类型（可以是泛型类型），@Autowired参数记录依赖的BeanDefinition（可选依赖不存在时为null）。
+     */
+    public record Argument(Kind kind, Class<?> type, String propertyKey, Type valueType, BeanDefinition target) {
+
+        static Argument value(Class<?> type, String propertyKey, Type valueType) {
+            return new Argument(Kind.VALUE, type, propertyKey, valueType, null);
+        }
+
+        static Argument autowired(Class<?> type, BeanDefinition target) {
+            return new Argument(Kind.AUTOWIRED, type, null, null, target);
+        }
+
+        @Override
+        public String toString() {
+            return kind == Kind.VALUE ? "@Value(" + propertyKey + ")" : "@Autowired(" + (target == null ? "null" : target.getName()) + ")";
+        }
+    }
+
+    /**
+     * 一个字段或setter注入点及其取值方式。
+     */
+    public record Injection(BeanInjector.InjectionPoint point, Argument argument) {
+
+        @Override
+        public String toString() {
+            return point + "=" + argument;
+        }
+    }
+}
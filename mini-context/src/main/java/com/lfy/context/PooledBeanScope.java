@@ -0,0 +1,141 @@
+package com.lfy.context;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+
+/**
+ * 池化作用域：适合创建代价高、无状态但非线程安全的对象（解析器、格式化器等）。
+ * getBean时从池中借出一个空闲实例，没有空闲实例时创建新实例；使用完调用releaseBean归还，池满时销毁。
+ * 只能归还从池中借出且尚未归还的实例。
+ */
+public class PooledBeanScope implements BeanScope {
+
+    private final int maxIdle;
+
+    // 池满时丢弃的实例和关闭时的空闲实例交给destroyer销毁:
+    private final BiConsumer<BeanDefinition, Object> destroyer;
+
+    private final Map<String, ObjectPool> pools = new ConcurrentHashMap<>();
+
+    public PooledBeanScope(int maxIdle) {
+        this(maxIdle, (def, instance) -> {
+        });
+    }
+
+    public PooledBeanScope(int maxIdle, BiConsumer<BeanDefinition, Object> destroyer) {
+        if (maxIdle <= 0) {
+            throw new IllegalArgumentException("maxIdle must be positive: " + maxIdle);
+        }
+        this.maxIdle = maxIdle;
+        this.destroyer = destroyer;
+    }
+
+    @Override
+    public Object get(BeanDefinition def, Supplier<Object> objectFactory) {
+        ObjectPool pool = pool(def);
+        Object instance = pool.borrow();
+        if (instance == null) {
+            instance = objectFactory.get();
+        }
+        pool.borrowed.add(new Borrowed(instance));
+        return instance;
+    }
+
+    @Override
+    public void release(BeanDefinition def, Object instance) {
+        ObjectPool pool = pool(def);
+        if (!pool.borrowed.remove(new Borrowed(instance))) {
+            throw new IllegalArgumentException(String.format("Instance of bean '%s' was not borrowed from pool or has been released.", def.getName()));
+        }
+        if (!pool.giveBack(instance)) {
+            this.destroyer.accept(def, instance);
+        }
+    }
+
+    /**
+     * 销毁所有空闲实例，借出的实例由使用方负责。
+     */
+    @Override
+    public void close() {
+        for (ObjectPool pool : this.pools.values()) {
+            Object instance;
+            while ((instance = pool.borrow()) != null) {
+                this.destroyer.accept(pool.def, instance);
+            }
+        }
+    }
+
+    private ObjectPool pool(BeanDefinition def) {
+        ObjectPool pool = this.pools.get(def.getName());
+        if (pool == null) {
+            pool = this.pools.computeIfAbsent(def.getName(), name -> new ObjectPool(def, this.maxIdle));
+        }
+        return pool;
+    }
+
+    // 借出的实例，按对象本身判断相等:
+    record Borrowed(Object instance) {
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Borrowed b && b.instance == this.instance;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(this.instance);
+        }
+    }
+
+    /**
+     * 固定大小的无锁对象池：每个槽位通过CAS借出和归还，不同线程从不同的槽位开始查找以减少竞争。
+     */
+    static class ObjectPool {
+
+        final BeanDefinition def;
+
+        private final AtomicReferenceArray<Object> slots;
+
+        // 已借出的实例:
+        final Set<Borrowed> borrowed = ConcurrentHashMap.newKeySet();
+
+        ObjectPool(BeanDefinition def, int size) {
+            this.def = def;
+            this.slots = new AtomicReferenceArray<>(size);
+        }
+
+        Object borrow() {
+            int size = this.slots.length();
+            int start = startIndex(size);
+            for (int i = 0; i < size; i++) {
+                int index = (start + i) % size;
+                Object obj = this.slots.get(index);
+                if (obj != null && this.slots.compareAndSet(index, obj, null)) {
+                    return obj;
+                }
+            }
+            return null;
+        }
+
+        boolean giveBack(Object obj) {
+            int size = this.slots.length();
+            int start = startIndex(size);
+            for (int i = 0; i < size; i++) {
+                int index = (start + i) % size;
+                if (this.slots.get(index) == null && this.slots.compareAndSet(index, null, obj)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private static int startIndex(int size) {
+            long id = Thread.currentThread().getId();
+            return (int) ((id * 0x9E3779B97F4A7C15L) >>> 33) % size;
+        }
+    }
+}
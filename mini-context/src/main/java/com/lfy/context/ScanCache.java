@@ -0,0 +1,235 @@
+package com.lfy.context;
+
+import jakarta.annotation.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * 磁盘上的扫描结果缓存：以classpath指纹为key保存扫描得到的Bean定义元数据，classpath不变时重启可以跳过扫描和字节码读取。
+ */
+class ScanCache {
+
+    static final int MAGIC = 0x4D534331; // MSC1
+    // 2: 开始记录@Bean工厂方法
+    static final int VERSION = 2;
+
+    final Logger logger = LoggerFactory.getLogger(getClass());
+
+    final Path file;
+
+    final byte[] fingerprint;
+
+    ScanCache(Path file, byte[] fingerprint) {
+        this.file = file;
+        this.fingerprint = fingerprint;
+    }
+
+    /**
+     * 读取缓存，文件不存在、指纹不匹配、被截断或格式错误时返回null，由调用方重新扫描。
+     */
+    @Nullable
+    List<Entry> load() {
+        if (!Files.isRegularFile(this.file)) {
+            return null;
+        }
+        try (var in = new DataInputStream(new BufferedInputStream(Files.newInputStream(this.file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                return null;
+            }
+            byte[] stored = new byte[in.readUnsignedByte()];
+            in.readFully(stored);
+            if (!Arrays.equals(stored, this.fingerprint)) {
+                logger.atDebug().log("scan cache {} is outdated", this.file);
+                return null;
+            }
+            int count = in.readInt();
+            if (count < 0) {
+                return corrupted("negative entry count " + count);
+            }
+            //数量来自文件，损坏时可能非常大，不按它预分配:
+            List<Entry> entries = new ArrayList<>();
+            for (int i = 0; i < count; i++) {
+                String className = in.readUTF();
+                String beanName = in.readUTF();
+                int order = in.readInt();
+                boolean primary = in.readBoolean();
+                int factoryCount = in.readUnsignedShort();
+                List<FactoryEntry> factories = new ArrayList<>(factoryCount);
+                for (int j = 0; j < factoryCount; j++) {
+                    String methodName = in.readUTF();
+                    String[] parameterTypes = new String[in.readUnsignedByte()];
+                    for (int k = 0; k < parameterTypes.length; k++) {
+                        parameterTypes[k] = in.readUTF();
+                    }
+                    factories.add(new FactoryEntry(methodName, List.of(parameterTypes), in.readUTF(), in.readInt(), in.readBoolean()));
+                }
+                entries.add(new Entry(className, beanName, order, primary, List.copyOf(factories)));
+            }
+            if (in.read() != -1) {
+                return corrupted("trailing bytes");
+            }
+            return entries;
+        } catch (IOException | RuntimeException e) {
+            logger.warn("cannot read scan cache {}: {}", this.file, e.toString());
+            return null;
+        }
+    }
+
+    @Nullable
+    private List<Entry> corrupted(String reason) {
+        logger.warn("scan cache {} is corrupted: {}", this.file, reason);
+        return null;
+    }
+
+    /**
+     * 写入缓存：先写临时文件再原子替换，避免并发启动的进程读到写了一半的文件。
+     */
+    void save(List<Entry> entries) {
+        try {
+            Path dir = this.file.toAbsolutePath().getParent();
+            Files.createDirectories(dir);
+            Path tmp = Files.createTempFile(dir, this.file.getFileName().toString(), ".tmp");
+            try (var out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeByte(this.fingerprint.length);
+                out.write(this.fingerprint);
+                out.writeInt(entries.size());
+                for (Entry entry : entries) {
+                    out.writeUTF(entry.className());
+                    out.writeUTF(entry.beanName());
+                    out.writeInt(entry.order());
+                    out.writeBoolean(entry.primary());
+                    out.writeShort(entry.factories().size());
+                    for (FactoryEntry factory : entry.factories()) {
+                        out.writeUTF(factory.methodName());
+                        out.writeByte(factory.parameterTypes().size());
+                        for (String type : factory.parameterTypes()) {
+                            out.writeUTF(type);
+                        }
+                        out.writeUTF(factory.beanName());
+                        out.writeInt(factory.order());
+                        out.writeBoolean(factory.primary());
+                    }
+                }
+            }
+            Files.move(tmp, this.file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            logger.atDebug().log("saved {} entries to scan cache {}", entries.size(), this.file);
+        } catch (IOException e) {
+            logger.warn("cannot write scan cache {}: {}", this.file, e.toString());
+        }
+    }
+
+    /**
+     * classpath指纹：Jar包按路径、大小和修改时间计算，目录则按扫描包下每个文件的相对路径、大小和修改时间计算。
+     */
+    static byte[] fingerprint(ClassLoader classLoader, String[] scanPackages, String... extras) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        update(digest, String.valueOf(VERSION));
+        for (String extra : extras) {
+            update(digest, extra);
+        }
+        for (String pkg : scanPackages) {
+            update(digest, pkg);
+        }
+        for (Path entry : classpathEntries(classLoader)) {
+            update(digest, entry.toString());
+            if (Files.isDirectory(entry)) {
+                List<Path> roots = new ArrayList<>();
+                roots.add(entry.resolve("META-INF"));
+                for (String pkg : scanPackages) {
+                    roots.add(entry.resolve(pkg.replace('.', File.separatorChar)));
+                }
+                for (Path root : roots) {
+                    if (Files.isDirectory(root)) {
+                        try (Stream<Path> files = Files.walk(root)) {
+                            for (Path f : files.filter(Files::isRegularFile).sorted().toList()) {
+                                update(digest, entry.relativize(f).toString());
+                                updateAttributes(digest, f);
+                            }
+                        }
+                    }
+                }
+            } else if (Files.exists(entry)) {
+                updateAttributes(digest, entry);
+            }
+        }
+        return digest.digest();
+    }
+
+    // URLClassLoader链上的所有file: URL，以及java.class.path:
+    static Set<Path> classpathEntries(ClassLoader classLoader) {
+        Set<Path> entries = new LinkedHashSet<>();
+        for (ClassLoader cl = classLoader; cl != null; cl = cl.getParent()) {
+            if (cl instanceof URLClassLoader ucl) {
+                for (URL url : ucl.getURLs()) {
+                    if ("file".equals(url.getProtocol())) {
+                        try {
+                            entries.add(Paths.get(url.toURI()));
+                        } catch (URISyntaxException | IllegalArgumentException e) {
+                            entries.add(Paths.get(url.getPath()));
+                        }
+                    }
+                }
+            }
+        }
+        String classPath = System.getProperty("java.class.path", "");
+        for (String path : classPath.split(File.pathSeparator)) {
+            if (!path.isEmpty()) {
+                entries.add(Paths.get(path).toAbsolutePath());
+            }
+        }
+        return entries;
+    }
+
+    static void update(MessageDigest digest, String s) {
+        digest.update(s.getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+    }
+
+    static void updateAttributes(MessageDigest digest, Path f) throws IOException {
+        BasicFileAttributes attrs = Files.readAttributes(f, BasicFileAttributes.class);
+        update(digest, attrs.size() + ":" + attrs.lastModifiedTime().toMillis());
+    }
+
+    /**
+     * 一个@Component类及其@Bean工厂方法。
+     */
+    record Entry(String className, String beanName, int order, boolean primary, List<FactoryEntry> factories) {
+    }
+
+    /**
+     * 一个@Bean工厂方法，通过方法名和参数类型定位。
+     */
+    record FactoryEntry(String methodName, List<String> parameterTypes, String beanName, int order, boolean primary) {
+    }
+}
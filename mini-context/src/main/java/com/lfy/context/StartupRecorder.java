@@ -0,0 +1,202 @@
+package com.lfy.context;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 记录容器启动各阶段和每个Bean的耗时：每个线程维护自己的步骤栈，新步骤的父步骤是当前线程未结束的最内层步骤。
+ * 未开启或启动已完成时start()返回空步骤，不做任何记录。
+ */
+public class StartupRecorder {
+
+    private final boolean enabled;
+
+    // 启动完成后不再记录，避免运行期创建prototype等Bean时无限增长:
+    private volatile boolean finished = false;
+
+    private final AtomicLong idGenerator = new AtomicLong();
+
+    private final ThreadLocal<Deque<StartupStep>> currentSteps = ThreadLocal.withInitial(ArrayDeque::new);
+
+    // 已结束的步骤，按结束顺序:
+    private final Queue<StartupStep> steps = new ConcurrentLinkedQueue<>();
+
+    private final com.sun.management.ThreadMXBean threadMXBean;
+
+    public StartupRecorder(boolean enabled) {
+        this.enabled = enabled;
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (enabled && bean instanceof com.sun.management.ThreadMXBean sunBean && sunBean.isThreadAllocatedMemorySupported()
+                && sunBean.isThreadAllocatedMemoryEnabled()) {
+            this.threadMXBean = sunBean;
+        } else {
+            this.threadMXBean = null;
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public StartupStep start(String name) {
+        if (!this.enabled || this.finished) {
+            return NoopStep.INSTANCE;
+        }
+        Deque<StartupStep> stack = this.currentSteps.get();
+        StartupStep parent = stack.peek();
+        StartupStep step = new StartupStep(this, this.idGenerator.incrementAndGet(), parent == null ? 0 : parent.getId(), name,
+                currentThreadAllocatedBytes());
+        stack.push(step);
+        return step;
+    }
+
+    /**
+     * 在线程池的线程中执行action，期间该线程开始的步骤以parent为父步骤；线程池的线程没有步骤栈，需要显式传入父步骤。
+     */
+    public void runWithParent(StartupStep parent, Runnable action) {
+        if (!this.enabled || this.finished || parent instanceof NoopStep) {
+            action.run();
+            return;
+        }
+        Deque<StartupStep> stack = this.currentSteps.get();
+        stack.push(parent);
+        try {
+            action.run();
+        } finally {
+            //只移除压入的父步骤，父步骤由它自己的线程结束:
+            stack.removeFirstOccurrence(parent);
+            if (stack.isEmpty()) {
+                this.currentSteps.remove();
+            }
+        }
+    }
+
+    /**
+     * 启动结束后不再记录。启动失败时当前线程可能还有未结束的步骤，标记为failed后结束。
+     */
+    void finish() {
+        Deque<StartupStep> stack = this.currentSteps.get();
+        StartupStep step;
+        while ((step = stack.poll()) != null) {
+            if (step.getDurationNanos() < 0) {
+                step.tag("failed", "true").end();
+            }
+        }
+        this.currentSteps.remove();
+        this.finished = true;
+    }
+
+    void ended(StartupStep step) {
+        Deque<StartupStep> stack = this.currentSteps.get();
+        stack.remove(step);
+        if (stack.isEmpty()) {
+            this.currentSteps.remove();
+        }
+        this.steps.add(step);
+    }
+
+    long currentThreadAllocatedBytes() {
+        return this.threadMXBean == null ? -1 : this.threadMXBean.getCurrentThreadAllocatedBytes();
+    }
+
+    /**
+     * 所有已结束的步骤，按结束顺序。
+     */
+    public List<StartupStep> getSteps() {
+        return List.copyOf(this.steps);
+    }
+
+    /**
+     * 指定名称的步骤中耗时最长的limit个，例如slowest("bean.instantiate", 5)。
+     */
+    public List<StartupStep> slowest(String name, int limit) {
+        return this.steps.stream().filter(step -> step.getName().equals(name))
+                .sorted(Comparator.comparingLong(StartupStep::getDurationNanos).reversed())
+                .limit(limit).toList();
+    }
+
+    public String toJson() {
+        StringBuilder sb = new StringBuilder(256 + this.steps.size() * 128);
+        sb.append("{\"steps\":[");
+        boolean first = true;
+        for (StartupStep step : this.steps) {
+            if (!first) {
+                sb.append(',');
+            }
+            first = false;
+            sb.append("{\"id\":").append(step.getId())
+                    .append(",\"parentId\":").append(step.getParentId())
+                    .append(",\"name\":");
+            appendJsonString(sb, step.getName());
+            sb.append(",\"thread\":");
+            appendJsonString(sb, step.getThreadName());
+            sb.append(",\"durationNanos\":").append(step.getDurationNanos())
+                    .append(",\"allocatedBytes\":").append(step.getAllocatedBytes())
+                    .append(",\"tags\":{");
+            boolean firstTag = true;
+            for (Map.Entry<String, String> tag : step.getTags().entrySet()) {
+                if (!firstTag) {
+                    sb.append(',');
+                }
+                firstTag = false;
+                appendJsonString(sb, tag.getKey());
+                sb.append(':');
+                appendJsonString(sb, tag.getValue());
+            }
+            sb.append("}}");
+        }
+        return sb.append("]}").toString();
+    }
+
+    static void appendJsonString(StringBuilder sb, String s) {
+        sb.append('"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            switch (c) {
+                case '"' -> sb.append("\\\"");
+                case '\\' -> sb.append("\\\\");
+                case '\n' -> sb.append("\\n");
+                case '\r' -> sb.append("\\r");
+                case '\t' -> sb.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        sb.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        sb.append(c);
+                    }
+                }
+            }
+        }
+        sb.append('"');
+    }
+
+    /**
+     * 未开启记录时使用的空步骤。
+     */
+    static class NoopStep extends StartupStep {
+
+        static final NoopStep INSTANCE = new NoopStep();
+
+        private NoopStep() {
+            super(null, 0, 0, "noop", -1);
+        }
+
+        @Override
+        public StartupStep tag(String key, String value) {
+            return this;
+        }
+
+        @Override
+        public void end() {
+        }
+    }
+}
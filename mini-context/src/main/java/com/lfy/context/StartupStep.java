@@ -0,0 +1,107 @@
+package com.lfy.context;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 启动过程中的一个计时步骤，可以嵌套；通过try-with-resources或调用end()结束。
+ */
+public class StartupStep implements AutoCloseable {
+
+    private final StartupRecorder recorder;
+    private final long id;
+    private final long parentId;
+    private final String name;
+    private final String threadName;
+    private final Map<String, String> tags = new LinkedHashMap<>();
+    private final long startNanos;
+    private final long startAllocatedBytes;
+    private final StartupStepEvent event;
+
+    private long durationNanos = -1;
+    private long allocatedBytes = -1;
+
+    StartupStep(StartupRecorder recorder, long id, long parentId, String name, long startAllocatedBytes) {
+        this.recorder = recorder;
+        this.id = id;
+        this.parentId = parentId;
+        this.name = name;
+        this.threadName = Thread.currentThread().getName();
+        this.startAllocatedBytes = startAllocatedBytes;
+        //未开启JFR录制时不创建事件:
+        if (StartupStepEvent.isRecording()) {
+            StartupStepEvent event = new StartupStepEvent();
+            event.begin();
+            this.event = event;
+        } else {
+            this.event = null;
+        }
+        this.startNanos = System.nanoTime();
+    }
+
+    public StartupStep tag(String key, String value) {
+        this.tags.put(key, value);
+        return this;
+    }
+
+    public void end() {
+        if (this.durationNanos >= 0) {
+            return;
+        }
+        this.durationNanos = System.nanoTime() - this.startNanos;
+        long allocated = this.recorder.currentThreadAllocatedBytes();
+        if (allocated >= 0 && this.startAllocatedBytes >= 0) {
+            this.allocatedBytes = allocated - this.startAllocatedBytes;
+        }
+        if (this.event != null) {
+            this.event.end();
+            this.event.id = this.id;
+            this.event.parentId = this.parentId;
+            this.event.name = this.name;
+            this.event.tags = this.tags.toString();
+            this.event.allocatedBytes = this.allocatedBytes;
+            this.event.commit();
+        }
+        this.recorder.ended(this);
+    }
+
+    @Override
+    public void close() {
+        end();
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    // 0表示顶层步骤:
+    public long getParentId() {
+        return parentId;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getThreadName() {
+        return threadName;
+    }
+
+    public Map<String, String> getTags() {
+        return tags;
+    }
+
+    public long getDurationNanos() {
+        return durationNanos;
+    }
+
+    // -1表示当前JVM不支持统计线程分配的内存:
+    public long getAllocatedBytes() {
+        return allocatedBytes;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s%s %.3fms", name, tags, durationNanos / 1_000_000.0);
+    }
+}
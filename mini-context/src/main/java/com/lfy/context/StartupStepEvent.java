@@ -0,0 +1,41 @@
+package com.lfy.context;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * 容器启动步骤对应的JFR事件，开启JFR录制时与StartupRecorder同时记录。
+ */
+@Name("com.lfy.StartupStep")
+@Label("Startup Step")
+@Category({"Mini Spring", "Startup"})
+@Description("A timed step of AnnotationConfigApplicationContext refresh")
+class StartupStepEvent extends Event {
+
+    // 事件是否开启只与事件类型有关，用一个共享实例判断，避免每个步骤都创建事件:
+    private static final StartupStepEvent PROBE = new StartupStepEvent();
+
+    static boolean isRecording() {
+        return PROBE.isEnabled();
+    }
+
+    @Label("Id")
+    long id;
+
+    @Label("Parent Id")
+    long parentId;
+
+    @Label("Name")
+    String name;
+
+    @Label("Tags")
+    String tags;
+
+    @Label("Allocated")
+    @DataAmount
+    long allocatedBytes;
+}
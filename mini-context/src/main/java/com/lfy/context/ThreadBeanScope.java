@@ -0,0 +1,32 @@
+package com.lfy.context;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * 每个线程一个实例。
+ */
+public class ThreadBeanScope implements BeanScope {
+
+    private final ThreadLocal<Map<String, Object>> instances = ThreadLocal.withInitial(HashMap::new);
+
+    @Override
+    public Object get(BeanDefinition def, Supplier<Object> objectFactory) {
+        Map<String, Object> map = this.instances.get();
+        Object instance = map.get(def.getName());
+        if (instance == null) {
+            instance = objectFactory.get();
+            map.put(def.getName(), instance);
+        }
+        return instance;
+    }
+
+    /**
+     * 移除当前线程的实例，下次获取时重新创建。
+     */
+    @Override
+    public void release(BeanDefinition def, Object instance) {
+        this.instances.get().remove(def.getName(), instance);
+    }
+}
@@ -0,0 +1,182 @@
+package com.lfy.io;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import jakarta.annotation.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * 直接从.class字节码读取常量池和RuntimeVisibleAnnotations，在不加载类的前提下判断类上是否（通过元注解）标注了指定注解。
+ */
+public class ClassMetadataReader {
+
+    Logger logger = LoggerFactory.getLogger(getClass());
+
+    static final int ACC_INTERFACE = 0x0200;
+    static final int ACC_ANNOTATION = 0x2000;
+
+    final ClassLoader classLoader;
+
+    // 类名 -> 字节码元数据，UNREADABLE表示无法读取:
+    final Map<String, ClassMetadata> cache = new ConcurrentHashMap<>();
+
+    public ClassMetadataReader(ClassLoader classLoader) {
+        this.classLoader = classLoader;
+    }
+
+    /**
+     * 判断类是否是可实例化的类，且直接或通过元注解标注了annotationName。无法读取字节码时返回true，交给反射判断。
+     */
+    public boolean isCandidate(String className, String annotationName) {
+        ClassMetadata metadata = read(className);
+        if (metadata == null) {
+            return true;
+        }
+        if ((metadata.accessFlags() & (ACC_INTERFACE | ACC_ANNOTATION)) != 0) {
+            return false;
+        }
+        return hasAnnotation(metadata, annotationName, new HashSet<>());
+    }
+
+    boolean hasAnnotation(ClassMetadata metadata, String annotationName, Set<String> visited) {
+        for (String anno : metadata.annotations()) {
+            if (anno.equals(annotationName)) {
+                return true;
+            }
+            //递归查找元注解，跳过java.lang.annotation包下的注解：
+            if (!anno.startsWith("java.lang.annotation.") && visited.add(anno)) {
+                ClassMetadata annoMetadata = read(anno);
+                if (annoMetadata != null && hasAnnotation(annoMetadata, annotationName, visited)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    @Nullable
+    ClassMetadata read(String className) {
+        ClassMetadata metadata = cache.get(className);
+        if (metadata == null && !cache.containsKey(className)) {
+            metadata = parse(className);
+            //读取失败时也缓存，避免重复尝试：
+            cache.put(className, metadata == null ? ClassMetadata.UNREADABLE : metadata);
+        }
+        return metadata == ClassMetadata.UNREADABLE ? null : metadata;
+    }
+
+    @Nullable
+    ClassMetadata parse(String className) {
+        String path = className.replace('.', '/') + ".class";
+        try (InputStream input = classLoader.getResourceAsStream(path)) {
+            if (input == null) {
+                return null;
+            }
+            return parse(new DataInputStream(input));
+        } catch (IOException | RuntimeException e) {
+            logger.atDebug().log("cannot read class file {}: {}", path, e.toString());
+            return null;
+        }
+    }
+
+    ClassMetadata parse(DataInputStream in) throws IOException {
+        if (in.readInt() != 0xCAFEBABE) {
+            throw new IOException("Not a class file.");
+        }
+        in.readUnsignedShort(); // minor_version
+        in.readUnsignedShort(); // major_version
+        //常量池只保留Utf8字符串，其余按长度跳过：
+        int cpCount = in.readUnsignedShort();
+        String[] utf8 = new String[cpCount];
+        for (int i = 1; i < cpCount; i++) {
+            int tag = in.readUnsignedByte();
+            switch (tag) {
+                case 1 -> utf8[i] = in.readUTF();
+                case 7, 8, 16, 19, 20 -> in.skipNBytes(2);
+                case 15 -> in.skipNBytes(3);
+                case 3, 4, 9, 10, 11, 12, 17, 18 -> in.skipNBytes(4);
+                case 5, 6 -> {
+                    in.skipNBytes(8);
+                    i++;
+                }
+                default -> throw new IOException("Invalid constant pool tag: " + tag);
+            }
+        }
+        int accessFlags = in.readUnsignedShort();
+        in.skipNBytes(4); // this_class, super_class
+        in.skipNBytes(2L * in.readUnsignedShort()); // interfaces
+        skipMembers(in); // fields
+        skipMembers(in); // methods
+        Set<String> annotations = new HashSet<>();
+        int attrCount = in.readUnsignedShort();
+        for (int i = 0; i < attrCount; i++) {
+            String attrName = utf8[in.readUnsignedShort()];
+            int length = in.readInt();
+            if ("RuntimeVisibleAnnotations".equals(attrName)) {
+                int num = in.readUnsignedShort();
+                for (int j = 0; j < num; j++) {
+                    annotations.add(descriptorToClassName(utf8[in.readUnsignedShort()]));
+                    skipElementValuePairs(in);
+                }
+            } else {
+                in.skipNBytes(length);
+            }
+        }
+        return new ClassMetadata(accessFlags, Set.copyOf(annotations));
+    }
+
+    void skipMembers(DataInputStream in) throws IOException {
+        int count = in.readUnsignedShort();
+        for (int i = 0; i < count; i++) {
+            in.skipNBytes(6); // access_flags, name_index, descriptor_index
+            int attrCount = in.readUnsignedShort();
+            for (int j = 0; j < attrCount; j++) {
+                in.skipNBytes(2);
+                in.skipNBytes(in.readInt());
+            }
+        }
+    }
+
+    void skipElementValuePairs(DataInputStream in) throws IOException {
+        int pairs = in.readUnsignedShort();
+        for (int i = 0; i < pairs; i++) {
+            in.skipNBytes(2); // element_name_index
+            skipElementValue(in);
+        }
+    }
+
+    void skipElementValue(DataInputStream in) throws IOException {
+        int tag = in.readUnsignedByte();
+        switch (tag) {
+            case 'B', 'C', 'D', 'F', 'I', 'J', 'S', 'Z', 's', 'c' -> in.skipNBytes(2);
+            case 'e' -> in.skipNBytes(4);
+            case '@' -> {
+                in.skipNBytes(2);
+                skipElementValuePairs(in);
+            }
+            case '[' -> {
+                int num = in.readUnsignedShort();
+                for (int i = 0; i < num; i++) {
+                    skipElementValue(in);
+                }
+            }
+            default -> throw new IOException("Invalid element value tag: " + (char) tag);
+        }
+    }
+
+    // Lcom/lfy/annotation/Component; -> com.lfy.annotation.Component
+    String descriptorToClassName(String descriptor) {
+        return descriptor.substring(1, descriptor.length() - 1).replace('/', '.');
+    }
+
+    record ClassMetadata(int accessFlags, Set<String> annotations) {
+        static final ClassMetadata UNREADABLE = new ClassMetadata(0, Set.of());
+    }
+}
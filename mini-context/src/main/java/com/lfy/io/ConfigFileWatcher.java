@@ -0,0 +1,118 @@
+package com.lfy.io;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * 监视配置文件所在的目录，文件变化后在后台线程中调用{@link PropertyResolver#reload(java.util.Collection)}。
+ * 编辑器保存文件时往往产生多个事件，最后一个事件之后等待delay时间再重新加载，同一批变化只加载一次。
+ */
+public class ConfigFileWatcher implements Closeable {
+
+    final Logger logger = LoggerFactory.getLogger(getClass());
+
+    final PropertyResolver propertyResolver;
+
+    final long delayMillis;
+
+    final WatchService watchService;
+
+    // 目录 -> 文件名 -> 配置来源:
+    final Map<Path, Map<Path, List<LazyPropertySource>>> watched = new HashMap<>();
+
+    final Thread thread;
+
+    volatile boolean closed = false;
+
+    ConfigFileWatcher(PropertyResolver propertyResolver, List<LazyPropertySource> sources, Duration delay) throws IOException {
+        this.propertyResolver = propertyResolver;
+        this.delayMillis = Math.max(0, delay.toMillis());
+        this.watchService = sources.get(0).getFile().getFileSystem().newWatchService();
+        try {
+            for (LazyPropertySource source : sources) {
+                Path file = source.getFile().toAbsolutePath();
+                Path dir = file.getParent();
+                if (!this.watched.containsKey(dir)) {
+                    //编辑器通常写入临时文件后重命名，需要同时监视创建事件:
+                    dir.register(this.watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+                }
+                this.watched.computeIfAbsent(dir, d -> new HashMap<>()).computeIfAbsent(file.getFileName(), f -> new ArrayList<>()).add(source);
+            }
+        } catch (IOException | RuntimeException e) {
+            this.watchService.close();
+            throw e;
+        }
+        this.thread = new Thread(this::run, "mini-config-watcher");
+        this.thread.setDaemon(true);
+        this.thread.start();
+        logger.atInfo().log("watching config files in {}", this.watched.keySet());
+    }
+
+    void run() {
+        try {
+            while (!this.closed) {
+                Set<LazyPropertySource> changed = new LinkedHashSet<>();
+                collect(this.watchService.take(), changed);
+                //等待同一批变化全部结束:
+                WatchKey key;
+                while ((key = this.watchService.poll(this.delayMillis, TimeUnit.MILLISECONDS)) != null) {
+                    collect(key, changed);
+                }
+                if (changed.isEmpty()) {
+                    continue;
+                }
+                try {
+                    this.propertyResolver.reload(changed);
+                } catch (RuntimeException e) {
+                    //文件可能正在写入或格式错误，保留当前配置，等待下一次变化:
+                    logger.warn("failed to reload {}, keep current properties.", changed, e);
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // closed
+        }
+    }
+
+    void collect(WatchKey key, Set<LazyPropertySource> changed) {
+        Map<Path, List<LazyPropertySource>> files = this.watched.get((Path) key.watchable());
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                //丢失了事件，重新加载该目录下的所有文件:
+                files.values().forEach(changed::addAll);
+            } else {
+                List<LazyPropertySource> sources = files.get((Path) event.context());
+                if (sources != null) {
+                    changed.addAll(sources);
+                }
+            }
+        }
+        key.reset();
+    }
+
+    public boolean isClosed() {
+        return this.closed;
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.closed = true;
+        this.watchService.close();
+    }
+}
@@ -0,0 +1,301 @@
+package com.lfy.io;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Array;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.InaccessibleObjectException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.RecordComponent;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import jakarta.annotation.Nullable;
+
+/**
+ * 把prefix下的配置项绑定到record或POJO。每个类型的绑定器只生成一次，绑定时按字段查找配置项，
+ * 嵌套对象和列表通过PropertyResolver的前缀索引判断是否存在，开销只与字段数有关，与配置项总数无关。
+ */
+public class ConfigurationPropertiesBinder {
+
+    // 统一签名: (Object[] args) -> Object
+    static final MethodType CONSTRUCTOR_TYPE = MethodType.methodType(Object.class, Object[].class);
+
+    // 统一签名: (Object target, Object value) -> void
+    static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
+    final PropertyResolver propertyResolver;
+
+    // 目标类型 -> 绑定器:
+    final Map<Class<?>, TypeBinder> binders = new ConcurrentHashMap<>();
+
+    // 正在生成的绑定器，全部生成完成后才发布到binders，同时作为生成时的锁:
+    final Map<Class<?>, TypeBinder> creating = new HashMap<>();
+
+    public ConfigurationPropertiesBinder(PropertyResolver propertyResolver) {
+        this.propertyResolver = propertyResolver;
+    }
+
+    /**
+     * 绑定prefix下的配置项并返回新实例，prefix为空时从根开始绑定。
+     */
+    public <T> T bind(String prefix, Class<T> type) {
+        return type.cast(getBinder(type).bind(prefix));
+    }
+
+    /**
+     * 获取类型的绑定器，类型不支持绑定时抛出IllegalArgumentException，可以提前调用以尽早发现错误。
+     */
+    public TypeBinder getBinder(Class<?> type) {
+        TypeBinder binder = this.binders.get(type);
+        if (binder != null) {
+            return binder;
+        }
+        synchronized (this.creating) {
+            binder = this.binders.get(type);
+            if (binder == null) {
+                binder = this.creating.get(type);
+            }
+            if (binder == null) {
+                boolean outermost = this.creating.isEmpty();
+                try {
+                    binder = createBinder(type);
+                    if (outermost) {
+                        this.binders.putAll(this.creating);
+                    }
+                } finally {
+                    if (outermost) {
+                        this.creating.clear();
+                    }
+                }
+            }
+            return binder;
+        }
+    }
+
+    TypeBinder createBinder(Class<?> type) {
+        if (type.isInterface() || Modifier.isAbstract(type.getModifiers())) {
+            throw new IllegalArgumentException("Cannot bind properties to abstract type " + type.getName() + ".");
+        }
+        //先放入占位，允许自引用的类型(如树节点)递归生成:
+        TypeBinder binder = new TypeBinder(type);
+        this.creating.put(type, binder);
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            List<PropertyBinder> properties = new ArrayList<>();
+            if (type.isRecord()) {
+                RecordComponent[] components = type.getRecordComponents();
+                Class<?>[] types = new Class<?>[components.length];
+                for (int i = 0; i < components.length; i++) {
+                    types[i] = components[i].getType();
+                    properties.add(createPropertyBinder(components[i].getName(), components[i].getGenericType(), null));
+                }
+                Constructor<?> constructor = type.getDeclaredConstructor(types);
+                constructor.setAccessible(true);
+                MethodHandle mh = lookup.unreflectConstructor(constructor).asSpreader(Object[].class, types.length);
+                binder.init(mh.asType(CONSTRUCTOR_TYPE), List.copyOf(properties), true);
+            } else {
+                Constructor<?> constructor = type.getDeclaredConstructor();
+                constructor.setAccessible(true);
+                MethodHandle mh = lookup.unreflectConstructor(constructor).asSpreader(Object[].class, 0);
+                for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+                    for (Field field : c.getDeclaredFields()) {
+                        int mod = field.getModifiers();
+                        if (Modifier.isStatic(mod) || Modifier.isFinal(mod) || field.isSynthetic()) {
+                            continue;
+                        }
+                        properties.add(createPropertyBinder(field.getName(), field.getGenericType(), findSetter(lookup, c, field)));
+                    }
+                }
+                binder.init(mh.asType(CONSTRUCTOR_TYPE), List.copyOf(properties), false);
+            }
+            return binder;
+        } catch (NoSuchMethodException | IllegalAccessException | InaccessibleObjectException | SecurityException e) {
+            //模块未开放给框架时setAccessible抛出InaccessibleObjectException:
+            throw new IllegalArgumentException("Cannot bind properties to " + type.getName() + ": " + e.getMessage(), e);
+        }
+    }
+
+    // 优先使用setXxx方法，没有时直接设置字段:
+    MethodHandle findSetter(MethodHandles.Lookup lookup, Class<?> clazz, Field field) throws IllegalAccessException {
+        String setterName = "set" + Character.toUpperCase(field.getName().charAt(0)) + field.getName().substring(1);
+        try {
+            Method setter = clazz.getDeclaredMethod(setterName, field.getType());
+            setter.setAccessible(true);
+            return MethodHandles.dropReturn(lookup.unreflect(setter)).asType(SETTER_TYPE);
+        } catch (NoSuchMethodException e) {
+            field.setAccessible(true);
+            return lookup.unreflectSetter(field).asType(SETTER_TYPE);
+        }
+    }
+
+    PropertyBinder createPropertyBinder(String name, Type type, @Nullable MethodHandle setter) {
+        //maxSize同时匹配max-size:
+        String kebab = toKebabCase(name);
+        List<String> names = kebab.equals(name) ? List.of(name) : List.of(name, kebab);
+        Class<?> rawType = rawType(type);
+        Object defaultValue = rawType.isPrimitive() ? Array.get(Array.newInstance(rawType, 1), 0) : null;
+        ConversionService conversionService = this.propertyResolver.getConversionService();
+        if (conversionService.canConvert(type)) {
+            return new PropertyBinder(names, Kind.VALUE, type, null, null, setter, defaultValue);
+        }
+        if (Map.class.isAssignableFrom(rawType)) {
+            throw new IllegalArgumentException("Cannot bind property '" + name + "' of type " + type.getTypeName() + ": Map is not supported.");
+        }
+        if (Collection.class.isAssignableFrom(rawType)) {
+            if (rawType != List.class && rawType != Collection.class && rawType != Set.class) {
+                throw new IllegalArgumentException("Cannot bind property '" + name + "' of type " + type.getTypeName() + ": use List, Set or Collection.");
+            }
+            if (!(type instanceof ParameterizedType pt)) {
+                throw new IllegalArgumentException("Cannot bind property '" + name + "' of raw type " + type.getTypeName() + ".");
+            }
+            //元素可以是嵌套对象或列表，配置项形如name[0].xxx、name[0][1]:
+            PropertyBinder element = createPropertyBinder(name + "[]", ConversionService.elementType(pt), null);
+            return new PropertyBinder(names, Kind.LIST, type, null, element, setter, defaultValue);
+        }
+        return new PropertyBinder(names, Kind.NESTED, type, getBinder(rawType), null, setter, defaultValue);
+    }
+
+    static Class<?> rawType(Type type) {
+        if (type instanceof Class<?> clazz) {
+            return clazz;
+        }
+        if (type instanceof ParameterizedType pt && pt.getRawType() instanceof Class<?> raw) {
+            return raw;
+        }
+        throw new IllegalArgumentException("Unsupported property type: " + type.getTypeName());
+    }
+
+    static String toKebabCase(String name) {
+        StringBuilder sb = new StringBuilder(name.length() + 4);
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (Character.isUpperCase(c)) {
+                sb.append('-').append(Character.toLowerCase(c));
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+
+    static String join(String prefix, String name) {
+        return prefix.isEmpty() ? name : prefix + "." + name;
+    }
+
+    enum Kind {
+        // 可以直接转换的值，包括逗号分隔的列表:
+        VALUE,
+        // 嵌套对象:
+        NESTED,
+        // List/Set/Collection，元素按下标绑定，配置项形如prefix.name[0].xxx:
+        LIST
+    }
+
+    /**
+     * 一个字段或record组件的绑定方式：可能的配置项名称、类型，嵌套时的绑定器，列表元素的绑定方式，POJO字段的setter。
+     */
+    record PropertyBinder(List<String> names, Kind kind, Type type, @Nullable TypeBinder nested, @Nullable PropertyBinder element,
+                          @Nullable MethodHandle setter, @Nullable Object defaultValue) {
+    }
+
+    /**
+     * 一个类型的绑定器：record通过规范构造方法创建，POJO通过无参构造方法创建后逐个设置字段。
+     */
+    public class TypeBinder {
+
+        final Class<?> type;
+        MethodHandle constructor;
+        List<PropertyBinder> properties;
+        boolean record;
+
+        TypeBinder(Class<?> type) {
+            this.type = type;
+        }
+
+        void init(MethodHandle constructor, List<PropertyBinder> properties, boolean record) {
+            this.constructor = constructor;
+            this.properties = properties;
+            this.record = record;
+        }
+
+        public Object bind(String prefix) {
+            try {
+                if (this.record) {
+                    Object[] args = new Object[this.properties.size()];
+                    for (int i = 0; i < args.length; i++) {
+                        PropertyBinder property = this.properties.get(i);
+                        Object value = bindProperty(prefix, property);
+                        args[i] = value == null ? property.defaultValue() : value;
+                    }
+                    return this.constructor.invokeExact(args);
+                }
+                Object instance = this.constructor.invokeExact(new Object[0]);
+                for (PropertyBinder property : this.properties) {
+                    Object value = bindProperty(prefix, property);
+                    //不存在的配置项保留字段的初始值:
+                    if (value != null) {
+                        property.setter().invokeExact(instance, value);
+                    }
+                }
+                return instance;
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new IllegalStateException("Cannot bind properties with prefix '" + prefix + "' to " + this.type.getName() + ".", e);
+            }
+        }
+
+        @Nullable
+        Object bindProperty(String prefix, PropertyBinder property) {
+            for (String name : property.names()) {
+                Object value = bindValue(join(prefix, name), property);
+                if (value != null) {
+                    return value;
+                }
+            }
+            return null;
+        }
+
+        @Nullable
+        Object bindValue(String key, PropertyBinder property) {
+            return switch (property.kind()) {
+                case VALUE -> propertyResolver.getProperty(key, property.type());
+                case NESTED -> propertyResolver.containsPrefix(key) ? property.nested().bind(key) : null;
+                case LIST -> bindList(key, property);
+            };
+        }
+
+        @Nullable
+        Collection<Object> bindList(String key, PropertyBinder property) {
+            List<Object> list = null;
+            for (int i = 0; ; i++) {
+                String elementKey = key + "[" + i + "]";
+                if (!propertyResolver.containsPrefix(elementKey)) {
+                    break;
+                }
+                if (list == null) {
+                    list = new ArrayList<>();
+                }
+                list.add(bindValue(elementKey, property.element()));
+            }
+            if (list == null) {
+                return null;
+            }
+            //Set保持配置中的顺序:
+            return rawType(property.type()) == Set.class ? Collections.unmodifiableSet(new LinkedHashSet<>(list)) : Collections.unmodifiableList(list);
+        }
+    }
+}
@@ -0,0 +1,267 @@
+package com.lfy.io;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.WildcardType;
+import java.time.*;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * 类型转换服务：把配置字符串转换为目标类型。除内置类型外支持用户注册的转换器、枚举、逗号分隔的数组/List/Set、
+ * 10s/500ms形式的Duration和512MB形式的DataSize。每个目标类型的转换器只生成一次。
+ */
+public class ConversionService {
+
+    // 内置和用户注册的转换器:
+    final Map<Class<?>, Function<String, Object>> converters = new ConcurrentHashMap<>();
+
+    // 目标类型 -> 转换器，包括按需生成的枚举、数组和集合转换器；注册转换器时整体替换，旧缓存中正在生成的转换器不会进入新缓存:
+    volatile Map<Type, Function<String, Object>> cache = new ConcurrentHashMap<>();
+
+    // 转换结果不可变、可以缓存复用的类型:
+    final Set<Type> immutableTypes = ConcurrentHashMap.newKeySet();
+
+    // 每次注册转换器后加一，使用方据此丢弃按旧转换器缓存的结果:
+    volatile int generation = 0;
+
+    public ConversionService() {
+        //基本类型直接解析，不经过包装类型的valueOf查找:
+        addImmutable(String.class, s -> s);
+        addImmutable(boolean.class, Boolean::parseBoolean);
+        addImmutable(Boolean.class, Boolean::valueOf);
+
+        addImmutable(byte.class, Byte::parseByte);
+        addImmutable(Byte.class, Byte::valueOf);
+
+        addImmutable(short.class, Short::parseShort);
+        addImmutable(Short.class, Short::valueOf);
+
+        addImmutable(int.class, Integer::parseInt);
+        addImmutable(Integer.class, Integer::valueOf);
+
+        addImmutable(long.class, Long::parseLong);
+        addImmutable(Long.class, Long::valueOf);
+
+        addImmutable(float.class, Float::parseFloat);
+        addImmutable(Float.class, Float::valueOf);
+
+        addImmutable(double.class, Double::parseDouble);
+        addImmutable(Double.class, Double::valueOf);
+
+        addImmutable(char.class, ConversionService::parseChar);
+        addImmutable(Character.class, ConversionService::parseChar);
+
+        addImmutable(LocalDate.class, LocalDate::parse);
+        addImmutable(LocalTime.class, LocalTime::parse);
+        addImmutable(LocalDateTime.class, LocalDateTime::parse);
+        addImmutable(ZonedDateTime.class, ZonedDateTime::parse);
+        addImmutable(Duration.class, ConversionService::parseDuration);
+        addImmutable(ZoneId.class, ZoneId::of);
+        addImmutable(DataSize.class, DataSize::parse);
+    }
+
+    /**
+     * 注册转换器，会覆盖同一类型已有的转换器。使用该服务的PropertyResolver中已缓存的转换结果随之失效。
+     */
+    public synchronized <T> void addConverter(Class<T> targetType, Function<String, ? extends T> converter) {
+        this.converters.put(targetType, converter::apply);
+        this.immutableTypes.remove(targetType);
+        //已生成的数组/集合转换器可能引用了旧的转换器，换用新的缓存:
+        this.cache = new ConcurrentHashMap<>();
+        this.generation++;
+    }
+
+    /**
+     * 转换器的版本，注册转换器后改变。
+     */
+    public int getGeneration() {
+        return this.generation;
+    }
+
+    public boolean canConvert(Type targetType) {
+        try {
+            getConverter(targetType);
+            return true;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    //targetType可以是基本类型，不能用Class.cast:
+    @SuppressWarnings("unchecked")
+    public <T> T convert(String value, Class<T> targetType) {
+        return (T) getConverter(targetType).apply(value);
+    }
+
+    public Object convert(String value, Type targetType) {
+        return getConverter(targetType).apply(value);
+    }
+
+    /**
+     * 获取目标类型的转换器，可以提前获取后重复使用；不支持的类型抛出IllegalArgumentException。
+     */
+    public Function<String, Object> getConverter(Type targetType) {
+        //按读取到的缓存生成和保存，期间注册了新的转换器时结果只进入被替换的缓存:
+        final Map<Type, Function<String, Object>> cache = this.cache;
+        Function<String, Object> converter = cache.get(targetType);
+        if (converter == null) {
+            converter = createConverter(targetType);
+            cache.put(targetType, converter);
+        }
+        return converter;
+    }
+
+    /**
+     * 转换结果是否不可变，不可变的结果可以被缓存并在多个Bean之间共享。
+     */
+    public boolean isImmutable(Type targetType) {
+        if (this.immutableTypes.contains(targetType)) {
+            return true;
+        }
+        if (targetType instanceof Class<?> clazz) {
+            return clazz.isEnum() && !this.converters.containsKey(clazz);
+        }
+        //生成的List/Set不可修改，元素也不可变时整体不可变:
+        if (targetType instanceof ParameterizedType pt && pt.getRawType() instanceof Class<?> raw
+                && (raw == List.class || raw == Set.class || raw == Collection.class)) {
+            return isImmutable(elementType(pt));
+        }
+        return false;
+    }
+
+    Function<String, Object> createConverter(Type targetType) {
+        if (targetType instanceof Class<?> clazz) {
+            Function<String, Object> converter = this.converters.get(clazz);
+            if (converter != null) {
+                return converter;
+            }
+            if (clazz.isEnum()) {
+                return createEnumConverter(clazz);
+            }
+            if (clazz.isArray()) {
+                return createArrayConverter(clazz.getComponentType());
+            }
+            if (clazz == List.class || clazz == Collection.class || clazz == Set.class) {
+                return createCollectionConverter(clazz, String.class);
+            }
+        } else if (targetType instanceof ParameterizedType pt && pt.getRawType() instanceof Class<?> raw
+                && (raw == List.class || raw == Collection.class || raw == Set.class)) {
+            return createCollectionConverter(raw, elementType(pt));
+        }
+        throw new IllegalArgumentException("Unsupported value type: " + targetType.getTypeName());
+    }
+
+    Function<String, Object> createEnumConverter(Class<?> enumType) {
+        Map<String, Object> constants = new HashMap<>();
+        for (Object constant : enumType.getEnumConstants()) {
+            constants.put(((Enum<?>) constant).name(), constant);
+        }
+        return s -> {
+            String name = s.strip();
+            Object constant = constants.get(name);
+            if (constant == null) {
+                //忽略大小写和-/_的区别再查找一次:
+                String normalized = name.replace('-', '_');
+                for (Map.Entry<String, Object> entry : constants.entrySet()) {
+                    if (entry.getKey().equalsIgnoreCase(normalized)) {
+                        return entry.getValue();
+                    }
+                }
+                throw new IllegalArgumentException("No enum constant " + enumType.getName() + "." + name);
+            }
+            return constant;
+        };
+    }
+
+    Function<String, Object> createArrayConverter(Class<?> componentType) {
+        Function<String, Object> elementConverter = getConverter(componentType);
+        return s -> {
+            List<String> items = splitList(s);
+            Object array = Array.newInstance(componentType, items.size());
+            for (int i = 0; i < items.size(); i++) {
+                Array.set(array, i, elementConverter.apply(items.get(i)));
+            }
+            return array;
+        };
+    }
+
+    Function<String, Object> createCollectionConverter(Class<?> collectionType, Type elementType) {
+        Function<String, Object> elementConverter = getConverter(elementType);
+        boolean set = collectionType == Set.class;
+        return s -> {
+            List<String> items = splitList(s);
+            List<Object> values = new ArrayList<>(items.size());
+            for (String item : items) {
+                values.add(elementConverter.apply(item));
+            }
+            //保持配置中的顺序:
+            return set ? Collections.unmodifiableSet(new LinkedHashSet<>(values)) : Collections.unmodifiableList(values);
+        };
+    }
+
+    void addImmutable(Class<?> type, Function<String, Object> converter) {
+        this.converters.put(type, converter);
+        this.immutableTypes.add(type);
+    }
+
+    static Type elementType(ParameterizedType pt) {
+        Type arg = pt.getActualTypeArguments()[0];
+        if (arg instanceof WildcardType wt) {
+            arg = wt.getUpperBounds()[0];
+        }
+        return arg;
+    }
+
+    /**
+     * 按逗号拆分，去掉每一项首尾的空白，空字符串返回空列表。
+     */
+    static List<String> splitList(String s) {
+        if (s.isBlank()) {
+            return List.of();
+        }
+        List<String> items = new ArrayList<>();
+        int start = 0;
+        int n;
+        while ((n = s.indexOf(',', start)) >= 0) {
+            items.add(s.substring(start, n).strip());
+            start = n + 1;
+        }
+        items.add(s.substring(start).strip());
+        return items;
+    }
+
+    static char parseChar(String s) {
+        if (s.length() != 1) {
+            throw new IllegalArgumentException("Cannot convert '" + s + "' to char.");
+        }
+        return s.charAt(0);
+    }
+
+    /**
+     * 支持ISO-8601格式（PT10S）和简写：100ms、10s、5m、2h、1d，不带单位时表示毫秒。
+     */
+    static Duration parseDuration(String text) {
+        String s = text.strip();
+        if (s.startsWith("P") || s.startsWith("p") || s.startsWith("-P") || s.startsWith("-p")) {
+            return Duration.parse(s);
+        }
+        int n = s.length();
+        while (n > 0 && Character.isLetter(s.charAt(n - 1))) {
+            n--;
+        }
+        long amount = Long.parseLong(s.substring(0, n).strip());
+        return switch (s.substring(n).toLowerCase(Locale.ROOT)) {
+            case "", "ms" -> Duration.ofMillis(amount);
+            case "ns" -> Duration.ofNanos(amount);
+            case "us" -> Duration.ofNanos(Math.multiplyExact(amount, 1000L));
+            case "s" -> Duration.ofSeconds(amount);
+            case "m" -> Duration.ofMinutes(amount);
+            case "h" -> Duration.ofHours(amount);
+            case "d" -> Duration.ofDays(amount);
+            default -> throw new IllegalArgumentException("Invalid duration: " + text);
+        };
+    }
+}
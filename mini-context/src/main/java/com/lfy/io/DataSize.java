@@ -0,0 +1,64 @@
+package com.lfy.io;
+
+import java.util.Locale;
+
+/**
+ * 数据大小，支持512B、10KB、512MB、1GB、2TB等写法，单位按1024换算，不带单位时表示字节数。
+ */
+public record DataSize(long bytes) implements Comparable<DataSize> {
+
+    public static DataSize ofBytes(long bytes) {
+        return new DataSize(bytes);
+    }
+
+    public static DataSize ofKilobytes(long kilobytes) {
+        return new DataSize(Math.multiplyExact(kilobytes, 1024L));
+    }
+
+    public static DataSize ofMegabytes(long megabytes) {
+        return new DataSize(Math.multiplyExact(megabytes, 1024L * 1024));
+    }
+
+    public static DataSize ofGigabytes(long gigabytes) {
+        return new DataSize(Math.multiplyExact(gigabytes, 1024L * 1024 * 1024));
+    }
+
+    public static DataSize parse(String text) {
+        String s = text.strip().toUpperCase(Locale.ROOT);
+        int n = s.length();
+        while (n > 0 && Character.isLetter(s.charAt(n - 1))) {
+            n--;
+        }
+        if (n == 0) {
+            throw new IllegalArgumentException("Invalid data size: " + text);
+        }
+        long amount = Long.parseLong(s.substring(0, n).strip());
+        long multiplier = switch (s.substring(n)) {
+            case "", "B" -> 1L;
+            case "K", "KB" -> 1024L;
+            case "M", "MB" -> 1024L * 1024;
+            case "G", "GB" -> 1024L * 1024 * 1024;
+            case "T", "TB" -> 1024L * 1024 * 1024 * 1024;
+            default -> throw new IllegalArgumentException("Invalid data size unit: " + text);
+        };
+        return new DataSize(Math.multiplyExact(amount, multiplier));
+    }
+
+    public long toKilobytes() {
+        return this.bytes / 1024;
+    }
+
+    public long toMegabytes() {
+        return this.bytes / (1024L * 1024);
+    }
+
+    @Override
+    public int compareTo(DataSize o) {
+        return Long.compare(this.bytes, o.bytes);
+    }
+
+    @Override
+    public String toString() {
+        return this.bytes + "B";
+    }
+}
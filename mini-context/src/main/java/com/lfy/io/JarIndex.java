@@ -0,0 +1,130 @@
+package com.lfy.io;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Jar包的条目索引：通过内存映射直接读取中央目录，只保留排序后的条目名，按包前缀查询时二分查找，不再为每次扫描打开zip FileSystem。
+ */
+public class JarIndex {
+
+    static final int EOCD_SIGNATURE = 0x06054b50;
+    static final int EOCD_SIZE = 22;
+    static final int ZIP64_LOCATOR_SIGNATURE = 0x07064b50;
+    static final int ZIP64_EOCD_SIGNATURE = 0x06064b50;
+    static final int CEN_SIGNATURE = 0x02014b50;
+    static final int CEN_HEADER_SIZE = 46;
+    static final int MAX_COMMENT_SIZE = 0xFFFF;
+
+    final Path jarFile;
+
+    // 已排序的条目名，不含目录:
+    final String[] entries;
+
+    JarIndex(Path jarFile, String[] entries) {
+        this.jarFile = jarFile;
+        this.entries = entries;
+    }
+
+    public static JarIndex open(Path jarFile) throws IOException {
+        try (FileChannel channel = FileChannel.open(jarFile, StandardOpenOption.READ)) {
+            long size = channel.size();
+            // 中央目录结束记录在文件末尾，之后最多跟64K的注释:
+            long tailStart = Math.max(0, size - EOCD_SIZE - MAX_COMMENT_SIZE);
+            MappedByteBuffer tail = map(channel, tailStart, size - tailStart);
+            int eocd = findEndOfCentralDirectory(tail);
+            if (eocd < 0) {
+                throw new IOException("Not a jar file: " + jarFile);
+            }
+            long entryCount = Short.toUnsignedInt(tail.getShort(eocd + 10));
+            long cenSize = Integer.toUnsignedLong(tail.getInt(eocd + 12));
+            long cenOffset = Integer.toUnsignedLong(tail.getInt(eocd + 16));
+            if (entryCount == 0xFFFF || cenSize == 0xFFFFFFFFL || cenOffset == 0xFFFFFFFFL) {
+                // ZIP64: 真实的条目数和偏移量记录在ZIP64结束记录中:
+                long locator = tailStart + eocd - 20;
+                MappedByteBuffer loc = map(channel, locator, 20);
+                if (loc.getInt(0) != ZIP64_LOCATOR_SIGNATURE) {
+                    throw new IOException("Invalid zip64 end of central directory in " + jarFile);
+                }
+                MappedByteBuffer zip64 = map(channel, loc.getLong(8), 56);
+                if (zip64.getInt(0) != ZIP64_EOCD_SIGNATURE) {
+                    throw new IOException("Invalid zip64 end of central directory in " + jarFile);
+                }
+                entryCount = zip64.getLong(32);
+                cenSize = zip64.getLong(40);
+                cenOffset = zip64.getLong(48);
+            }
+            return new JarIndex(jarFile, readEntries(map(channel, cenOffset, cenSize), entryCount, jarFile));
+        }
+    }
+
+    /**
+     * 返回以prefix开头的所有条目名，按名称排序。
+     */
+    public List<String> findEntries(String prefix) {
+        int from = Arrays.binarySearch(this.entries, prefix);
+        if (from < 0) {
+            from = -from - 1;
+        }
+        List<String> result = new ArrayList<>();
+        for (int i = from; i < this.entries.length && this.entries[i].startsWith(prefix); i++) {
+            result.add(this.entries[i]);
+        }
+        return result;
+    }
+
+    public Path getJarFile() {
+        return this.jarFile;
+    }
+
+    public int size() {
+        return this.entries.length;
+    }
+
+    static MappedByteBuffer map(FileChannel channel, long position, long size) throws IOException {
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, size);
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        return buffer;
+    }
+
+    static int findEndOfCentralDirectory(MappedByteBuffer tail) {
+        for (int i = tail.limit() - EOCD_SIZE; i >= 0; i--) {
+            if (tail.getInt(i) == EOCD_SIGNATURE) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    static String[] readEntries(MappedByteBuffer cen, long entryCount, Path jarFile) throws IOException {
+        List<String> names = new ArrayList<>((int) Math.min(entryCount, 65536));
+        int pos = 0;
+        for (long i = 0; i < entryCount; i++) {
+            if (pos + CEN_HEADER_SIZE > cen.limit() || cen.getInt(pos) != CEN_SIGNATURE) {
+                throw new IOException("Invalid central directory in " + jarFile);
+            }
+            int nameLength = Short.toUnsignedInt(cen.getShort(pos + 28));
+            int extraLength = Short.toUnsignedInt(cen.getShort(pos + 30));
+            int commentLength = Short.toUnsignedInt(cen.getShort(pos + 32));
+            byte[] name = new byte[nameLength];
+            cen.get(pos + CEN_HEADER_SIZE, name);
+            //与JarFile一致，条目名按UTF-8解码：
+            String entryName = new String(name, StandardCharsets.UTF_8);
+            if (!entryName.endsWith("/")) {
+                names.add(entryName);
+            }
+            pos += CEN_HEADER_SIZE + nameLength + extraLength + commentLength;
+        }
+        String[] entries = names.toArray(new String[0]);
+        Arrays.sort(entries);
+        return entries;
+    }
+}
@@ -0,0 +1,72 @@
+package com.lfy.io;
+
+import java.nio.file.Path;
+import java.util.function.Supplier;
+
+import jakarta.annotation.Nullable;
+
+/**
+ * 第一次访问时才加载的配置来源，如配置文件。对应的文件位于文件系统中时可以被监视并重新加载。
+ */
+public class LazyPropertySource implements PropertySource {
+
+    final String name;
+    final Supplier<PropertyStore> loader;
+    @Nullable
+    final Path file;
+    volatile PropertyStore store;
+
+    public LazyPropertySource(String name, Supplier<PropertyStore> loader) {
+        this(name, loader, null);
+    }
+
+    public LazyPropertySource(String name, Supplier<PropertyStore> loader, @Nullable Path file) {
+        this.name = name;
+        this.loader = loader;
+        this.file = file;
+    }
+
+    @Override
+    public String getName() {
+        return this.name;
+    }
+
+    /**
+     * 来源对应的文件，不在文件系统中（如位于jar包内）时为null。
+     */
+    @Nullable
+    public Path getFile() {
+        return this.file;
+    }
+
+    @Nullable
+    @Override
+    public String getProperty(String key) {
+        return getStore().get(key);
+    }
+
+    @Override
+    public PropertyStore getStore() {
+        PropertyStore s = this.store;
+        if (s == null) {
+            synchronized (this) {
+                s = this.store;
+                if (s == null) {
+                    s = this.loader.get();
+                    this.store = s;
+                }
+            }
+        }
+        return s;
+    }
+
+    // 重新加载但不替换当前内容，加载结果保存在PropertyResolver的新状态中:
+    PropertyStore load() {
+        return this.loader.get();
+    }
+
+    @Override
+    public String toString() {
+        return this.name;
+    }
+}
@@ -0,0 +1,72 @@
+package com.lfy.io;
+
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import jakarta.annotation.Nullable;
+
+/**
+ * 按key直接查询的配置来源，如环境变量和系统属性；只有前缀查询时才枚举全部配置项并排序。
+ * enumerable为false时（环境变量）前缀查询只按key本身查找，不参与prefix.xxx的查询，只有合并全部配置项时才枚举。
+ */
+public class LookupPropertySource implements PropertySource {
+
+    final String name;
+    final Function<String, String> lookup;
+    final Supplier<Map<String, String>> enumerator;
+    final boolean enumerable;
+    volatile PropertyStore store;
+
+    public LookupPropertySource(String name, Function<String, String> lookup, Supplier<Map<String, String>> enumerator) {
+        this(name, lookup, enumerator, true);
+    }
+
+    public LookupPropertySource(String name, Function<String, String> lookup, Supplier<Map<String, String>> enumerator, boolean enumerable) {
+        this.name = name;
+        this.lookup = lookup;
+        this.enumerator = enumerator;
+        this.enumerable = enumerable;
+    }
+
+    @Override
+    public String getName() {
+        return this.name;
+    }
+
+    @Nullable
+    @Override
+    public String getProperty(String key) {
+        return this.lookup.apply(key);
+    }
+
+    @Override
+    public boolean isEnumerable() {
+        return this.enumerable;
+    }
+
+    @Override
+    public boolean containsPrefix(String prefix) {
+        return this.enumerable ? PropertySource.super.containsPrefix(prefix) : this.lookup.apply(prefix) != null;
+    }
+
+    @Override
+    public PropertyStore getStore(String keyPrefix) {
+        return this.enumerable || keyPrefix.isEmpty() ? PropertySource.super.getStore(keyPrefix) : PropertyStore.EMPTY;
+    }
+
+    @Override
+    public PropertyStore getStore() {
+        PropertyStore s = this.store;
+        if (s == null) {
+            s = PropertyStore.of(this.enumerator.get());
+            this.store = s;
+        }
+        return s;
+    }
+
+    @Override
+    public String toString() {
+        return this.name;
+    }
+}
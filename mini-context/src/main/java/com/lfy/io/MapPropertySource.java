@@ -0,0 +1,38 @@
+package com.lfy.io;
+
+import jakarta.annotation.Nullable;
+
+/**
+ * 内容固定的配置来源。
+ */
+public class MapPropertySource implements PropertySource {
+
+    final String name;
+    final PropertyStore store;
+
+    public MapPropertySource(String name, PropertyStore store) {
+        this.name = name;
+        this.store = store;
+    }
+
+    @Override
+    public String getName() {
+        return this.name;
+    }
+
+    @Nullable
+    @Override
+    public String getProperty(String key) {
+        return this.store.get(key);
+    }
+
+    @Override
+    public PropertyStore getStore() {
+        return this.store;
+    }
+
+    @Override
+    public String toString() {
+        return this.name + "(" + this.store.size() + ")";
+    }
+}
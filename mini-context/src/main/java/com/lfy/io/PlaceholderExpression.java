@@ -0,0 +1,132 @@
+package com.lfy.io;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Function;
+
+import jakarta.annotation.Nullable;
+
+/**
+ * 编译后的占位符表达式：解析一次后得到不可变的语法树，支持嵌入的占位符如prefix-${a}-${b:x}，以及嵌套的默认值${a:${b:x}}。
+ * \${表示普通文本${（默认值中的\${...}仍参与}的配对）；没有配对}的${按普通文本处理。
+ */
+public sealed interface PlaceholderExpression {
+
+    /**
+     * 按lookup查找配置项计算表达式的值，lookup返回null表示配置项不存在。
+     */
+    String resolve(Function<String, String> lookup);
+
+    /**
+     * 普通文本。
+     */
+    record Literal(String text) implements PlaceholderExpression {
+        @Override
+        public String resolve(Function<String, String> lookup) {
+            return text;
+        }
+    }
+
+    /**
+     * ${key}或${key:default}，没有默认值且配置项不存在时抛出异常。
+     */
+    record Placeholder(String key, @Nullable PlaceholderExpression defaultValue) implements PlaceholderExpression {
+        @Override
+        public String resolve(Function<String, String> lookup) {
+            String value = lookup.apply(key);
+            if (value != null) {
+                return value;
+            }
+            if (defaultValue != null) {
+                return defaultValue.resolve(lookup);
+            }
+            return Objects.requireNonNull(value, "Property '" + key + "' not found.");
+        }
+    }
+
+    /**
+     * 由文本和占位符拼接而成。
+     */
+    record Composite(List<PlaceholderExpression> parts) implements PlaceholderExpression {
+        @Override
+        public String resolve(Function<String, String> lookup) {
+            StringBuilder sb = new StringBuilder();
+            for (PlaceholderExpression part : parts) {
+                sb.append(part.resolve(lookup));
+            }
+            return sb.toString();
+        }
+    }
+
+    static PlaceholderExpression parse(String s) {
+        List<PlaceholderExpression> parts = new ArrayList<>();
+        int start = 0;
+        int pos = 0;
+        StringBuilder text = new StringBuilder();
+        while ((pos = s.indexOf("${", pos)) >= 0) {
+            if (isEscaped(s, pos)) {
+                // \${转义为${:
+                text.append(s, start, pos - 1).append("${");
+                start = pos = pos + 2;
+                continue;
+            }
+            int end = findPlaceholderEnd(s, pos);
+            if (end < 0) {
+                // 没有配对的}，剩余部分按普通文本处理:
+                break;
+            }
+            text.append(s, start, pos);
+            if (!text.isEmpty()) {
+                parts.add(new Literal(text.toString()));
+                text.setLength(0);
+            }
+            parts.add(parsePlaceholder(s.substring(pos + 2, end)));
+            start = pos = end + 1;
+        }
+        text.append(s, start, s.length());
+        if (!text.isEmpty()) {
+            parts.add(new Literal(text.toString()));
+        }
+        if (parts.size() == 1) {
+            return parts.get(0);
+        }
+        return parts.isEmpty() ? new Literal("") : new Composite(List.copyOf(parts));
+    }
+
+    // key:default，以第一个不在嵌套占位符中的冒号分隔:
+    private static Placeholder parsePlaceholder(String body) {
+        int depth = 0;
+        for (int i = 0; i < body.length(); i++) {
+            char c = body.charAt(i);
+            if (c == '$' && i + 1 < body.length() && body.charAt(i + 1) == '{') {
+                depth++;
+                i++;
+            } else if (c == '}') {
+                depth--;
+            } else if (c == ':' && depth == 0) {
+                return new Placeholder(body.substring(0, i), parse(body.substring(i + 1)));
+            }
+        }
+        return new Placeholder(body, null);
+    }
+
+    // 返回与pos处的${配对的}的位置，不存在时返回-1:
+    private static int findPlaceholderEnd(String s, int pos) {
+        int depth = 0;
+        for (int i = pos; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == '$' && i + 1 < s.length() && s.charAt(i + 1) == '{') {
+                depth++;
+                i++;
+            } else if (c == '}' && --depth == 0) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean isEscaped(String s, int pos) {
+        return pos > 0 && s.charAt(pos - 1) == '\\';
+    }
+}
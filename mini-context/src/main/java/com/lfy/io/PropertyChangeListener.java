@@ -0,0 +1,12 @@
+package com.lfy.io;
+
+import java.util.Set;
+
+/**
+ * 配置变化的监听器，在重新加载配置或调用setProperty后收到值发生变化的key。
+ */
+@FunctionalInterface
+public interface PropertyChangeListener {
+
+    void onPropertiesChanged(Set<String> changedKeys);
+}
@@ -3,8 +3,15 @@ package com.lfy.io;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.time.*;
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.nio.file.Files;
+import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Function;
 import jakarta.annotation.Nullable;
 
@@ -17,123 +24,420 @@ public class PropertyResolver {
 
     Logger logger = LoggerFactory.getLogger(getClass());
 
-    Map<String, String> properties = new HashMap<>();
+    // 配置来源，排在前面的优先:
+    final List<PropertySource> sources;
 
-    Map<Class<?>, Function<String, Object>> converters = new HashMap<>();
+    // 当前状态，配置变化时整体替换，读取时只读一次，不会看到更新了一半的配置:
+    volatile State state;
 
-    public PropertyResolver(Properties props) {
-        //存入环境变量
-        this.properties.putAll(System.getenv());
-        //存入Properoties
-        Set<String> names = props.stringPropertyNames();
-        for (String name : names) {
-            this.properties.put(name, props.getProperty(name));
+    // setProperty设置的值为REMOVED表示已删除:
+    static final String REMOVED = new String("<removed>");
+
+    // 已编译的占位符表达式，只缓存包含${的key或配置值 -> 语法树:
+    final Map<String, PlaceholderExpression> expressions = new ConcurrentHashMap<>();
+
+    // 缓存的表达式数量上限，超过后不再缓存，每次重新编译:
+    static final int MAX_EXPRESSIONS = 4096;
+
+    // 缓存中表示配置项不存在:
+    static final String NOT_FOUND = new String("<not found>");
+
+    // 每个状态缓存的不存在的key数量上限，避免大量不同的key查询使缓存无限增长:
+    static final int MAX_NOT_FOUND = 1024;
+
+    final ConversionService conversionService;
+
+    final List<PropertyChangeListener> listeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * 一次完整的配置状态：setProperty设置的配置项（优先级最高）、所有来源合并后的快照（未生成时为null，逐个查找sources），
+     * 快照的前缀索引（只合并参与前缀查询的来源，与未生成快照时的前缀查询结果一致；所有来源都参与时与快照相同），
+     * 当前的来源（重新加载过的文件来源替换为加载结果），以及基于这些配置的缓存。旧状态的缓存在替换后不会再被读取。
+     */
+    record State(PropertyStore overrides, @Nullable PropertyStore snapshot, @Nullable PropertyStore prefixIndex, List<PropertySource> sources,
+                 // 已完全解析的配置值:
+                 Map<String, String> resolved,
+                 // resolved中NOT_FOUND的数量:
+                 AtomicInteger notFound,
+                 // 已转换的配置值，注册新的转换器后整体替换:
+                 AtomicReference<Converted> converted) {
+
+        State(PropertyStore overrides, @Nullable PropertyStore snapshot, @Nullable PropertyStore prefixIndex, List<PropertySource> sources) {
+            this(overrides, snapshot, prefixIndex, sources, new ConcurrentHashMap<>(), new AtomicInteger(), new AtomicReference<>(new Converted(0, new ConcurrentHashMap<>())));
         }
+    }
+
+    /**
+     * 按某一版本的转换器得到的结果，目标类型 -> key -> 值，只缓存不可变的结果。
+     */
+    record Converted(int generation, Map<Type, Map<String, Object>> values) {
+    }
+
+    public PropertyResolver(Properties props) {
+        this(props, new ConversionService());
+    }
+
+    /**
+     * Properties优先，其次是环境变量。
+     */
+    public PropertyResolver(Properties props, ConversionService conversionService) {
+        this(List.of(PropertySource.properties("properties", props), PropertySource.environment()), conversionService);
+    }
+
+    public PropertyResolver(List<PropertySource> sources) {
+        this(sources, new ConversionService());
+    }
+
+    /**
+     * 按顺序查找sources，排在前面的优先。每个来源在第一次访问时才加载，环境变量按key直接查询，不复制也不排序。
+     */
+    public PropertyResolver(List<PropertySource> sources, ConversionService conversionService) {
+        this.sources = List.copyOf(sources);
+        this.conversionService = conversionService;
+        this.state = new State(PropertyStore.EMPTY, null, null, this.sources);
         if (logger.isDebugEnabled()) {
-            List<String> keys = new ArrayList<>(this.properties.keySet());
-            Collections.sort((keys));
-            for (String key : keys){
-                logger.debug("PropertyResolver: {} = {}", key, this.properties.get(key));
+            logger.debug("PropertyResolver: sources = {}", this.sources.stream().map(PropertySource::getName).toList());
+        }
+    }
+
+    public List<PropertySource> getPropertySources() {
+        return this.sources;
+    }
+
+    /**
+     * 把所有来源合并为一个存储，之后的查询只访问合并后的存储。会加载所有来源并枚举环境变量，适合配置稳定后的热点查询。
+     * 环境变量仍然不参与prefix.xxx形式的前缀查询，查询结果与调用前一致。
+     */
+    public synchronized void snapshot() {
+        State current = this.state;
+        this.state = snapshotState(current.overrides(), current.sources());
+    }
+
+    // 合并所有来源生成快照，另外合并参与前缀查询的来源生成前缀索引:
+    static State snapshotState(PropertyStore overrides, List<PropertySource> sources) {
+        PropertyStore snapshot = merge(sources.stream().map(PropertySource::getStore).toList(), overrides, "");
+        PropertyStore prefixIndex = sources.stream().allMatch(PropertySource::isEnumerable) ? snapshot
+                : merge(sources.stream().filter(PropertySource::isEnumerable).map(PropertySource::getStore).toList(), overrides, "");
+        return new State(overrides, snapshot, prefixIndex, sources);
+    }
+
+    /**
+     * 重新加载所有来自文件的配置来源，见{@link #reload(Collection)}。
+     */
+    public Set<String> reload() {
+        return reload(this.sources);
+    }
+
+    /**
+     * 重新加载changed中来自文件的配置来源，加载结果和新的缓存作为一个新状态一次性替换，读取配置的线程不会被阻塞，也不会看到更新了一半的配置。
+     * 未调用snapshot()时不会合并全部配置项，也不会枚举环境变量，之后仍按来源逐个查找。
+     * 任何一个来源加载失败时抛出异常，当前配置保持不变。返回值发生变化的key，并通知所有监听器。
+     */
+    public Set<String> reload(Collection<? extends PropertySource> changed) {
+        //先在锁外加载，加载失败时不修改任何状态:
+        Map<LazyPropertySource, PropertyStore> loaded = new LinkedHashMap<>();
+        for (PropertySource source : changed) {
+            if (source instanceof LazyPropertySource lazy && this.sources.contains(lazy)) {
+                loaded.put(lazy, lazy.load());
+            }
+        }
+        if (loaded.isEmpty()) {
+            return Set.of();
+        }
+        Set<String> changedKeys = new HashSet<>();
+        synchronized (this) {
+            State current = this.state;
+            List<PropertySource> sources = new ArrayList<>(current.sources());
+            for (int i = 0; i < sources.size(); i++) {
+                PropertyStore store = loaded.get(this.sources.get(i));
+                if (store != null) {
+                    //只需比较重新加载的来源中出现过的key:
+                    sources.get(i).getStore().changedKeys(store).forEach(changedKeys::add);
+                    sources.set(i, new MapPropertySource(this.sources.get(i).getName(), store));
+                }
+            }
+            List<PropertySource> nextSources = List.copyOf(sources);
+            State next = current.snapshot() == null ? new State(current.overrides(), null, null, nextSources)
+                    : snapshotState(current.overrides(), nextSources);
+            //被优先级更高的来源或setProperty覆盖的key不算变化:
+            changedKeys.removeIf(key -> Objects.equals(getRawProperty(current, key), getRawProperty(next, key)));
+            //来源本身保持不变，仍在读取旧状态的线程不会看到新旧混合的配置:
+            this.state = next;
+        }
+        logger.atInfo().log("reloaded property sources {}, {} properties changed", loaded.keySet(), changedKeys.size());
+        fireChange(changedKeys);
+        return changedKeys;
+    }
+
+    /**
+     * 监视来自文件系统的配置来源（classpath目录中的文件，或通过{@link PropertySource#yaml(Path, boolean)}等指定的文件），
+     * 文件变化delay时间后在后台线程中重新加载；没有可监视的文件时返回null。
+     */
+    @Nullable
+    public ConfigFileWatcher watch(Duration delay) throws IOException {
+        List<LazyPropertySource> watchable = new ArrayList<>();
+        for (PropertySource source : this.sources) {
+            //只能监视已存在的目录:
+            if (source instanceof LazyPropertySource lazy && lazy.getFile() != null && Files.isDirectory(lazy.getFile().toAbsolutePath().getParent())) {
+                watchable.add(lazy);
+            }
+        }
+        if (watchable.isEmpty()) {
+            logger.atDebug().log("no property source can be watched: {}", this.sources);
+            return null;
+        }
+        return new ConfigFileWatcher(this, watchable, delay);
+    }
+
+    public void addChangeListener(PropertyChangeListener listener) {
+        this.listeners.add(Objects.requireNonNull(listener));
+    }
+
+    public void removeChangeListener(PropertyChangeListener listener) {
+        this.listeners.remove(listener);
+    }
+
+    void fireChange(Set<String> changedKeys) {
+        if (changedKeys.isEmpty()) {
+            return;
+        }
+        for (PropertyChangeListener listener : this.listeners) {
+            try {
+                listener.onPropertiesChanged(changedKeys);
+            } catch (RuntimeException e) {
+                logger.warn("property change listener {} failed.", listener, e);
             }
         }
-        converters.put(String.class, s -> s);
-        converters.put(boolean.class, s -> Boolean.parseBoolean(s));
-        converters.put(Boolean.class, s -> Boolean.valueOf(s));
+    }
 
-        converters.put(byte.class, s -> Byte.parseByte(s));
-        converters.put(Byte.class, s -> Byte.valueOf(s));
+    // s必须包含${:
+    PlaceholderExpression compile(String s) {
+        PlaceholderExpression expr = this.expressions.get(s);
+        if (expr == null) {
+            expr = PlaceholderExpression.parse(s);
+            if (this.expressions.size() < MAX_EXPRESSIONS) {
+                this.expressions.put(s, expr);
+            }
+        }
+        return expr;
+    }
 
-        converters.put(short.class, s -> Short.parseShort(s));
-        converters.put(Short.class, s -> Short.valueOf(s));
+    /**
+     * 设置配置项，value为null时删除，已解析的缓存随之失效，值发生变化时通知监听器。
+     */
+    public void setProperty(String key, @Nullable String value) {
+        boolean changed;
+        synchronized (this) {
+            State current = this.state;
+            changed = !Objects.equals(getRawProperty(current, key), value);
+            this.state = new State(current.overrides().with(key, value == null ? REMOVED : value), current.snapshot(), current.prefixIndex(), current.sources());
+        }
+        if (changed) {
+            fireChange(Set.of(key));
+        }
+    }
 
-        converters.put(int.class, s -> Integer.parseInt(s));
-        converters.put(Integer.class, s -> Integer.valueOf(s));
+    /**
+     * 是否存在以prefix开头（prefix本身或prefix.xxx、prefix[0]）的配置项，通过二分查找判断；环境变量只按key本身查找，不会被枚举。
+     */
+    public boolean containsPrefix(String prefix) {
+        State s = this.state;
+        if (!s.overrides().isEmpty() && s.overrides().containsPrefix(prefix)) {
+            //被删除的key可能是唯一的匹配项，合并后再判断:
+            return getRawProperty(s, prefix) != null || !merge(s, prefix + ".").isEmpty() || !merge(s, prefix + "[").isEmpty();
+        }
+        if (s.snapshot() != null) {
+            return s.prefixIndex().containsPrefix(prefix) || s.snapshot().get(prefix) != null;
+        }
+        for (PropertySource source : s.sources()) {
+            if (source.getProperty(prefix) != null || source.containsPrefix(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
 
-        converters.put(long.class, s -> Long.parseLong(s));
-        converters.put(Long.class, s -> Long.valueOf(s));
+    /**
+     * prefix下的所有配置项（prefix.xxx），返回按key排序的只读存储，值为未解析占位符的原始字符串。
+     * 调用snapshot()后返回共享底层数组的视图，否则合并各来源中的匹配项。
+     */
+    public PropertyStore getSubProperties(String prefix) {
+        State s = this.state;
+        if (s.snapshot() != null && s.overrides().isEmpty()) {
+            return prefix.isEmpty() ? s.snapshot() : s.prefixIndex().subTree(prefix);
+        }
+        return merge(s, prefix.isEmpty() ? "" : prefix + ".");
+    }
 
-        converters.put(float.class, s -> Float.parseFloat(s));
-        converters.put(Float.class, s -> Float.valueOf(s));
+    /**
+     * 所有来源合并后的配置项。
+     */
+    public PropertyStore getPropertyStore() {
+        State s = this.state;
+        if (s.snapshot() != null && s.overrides().isEmpty()) {
+            return s.snapshot();
+        }
+        return merge(s, "");
+    }
 
-        converters.put(double.class, s -> Double.parseDouble(s));
-        converters.put(Double.class, s -> Double.valueOf(s));
+    // 按优先级从低到高合并以keyPrefix开头的配置项，keyPrefix为空时合并全部:
+    PropertyStore merge(State s, String keyPrefix) {
+        List<PropertyStore> stores = s.snapshot() == null ? s.sources().stream().map(source -> source.getStore(keyPrefix)).toList()
+                : List.of(keyPrefix.isEmpty() ? s.snapshot() : s.prefixIndex());
+        return merge(stores, s.overrides(), keyPrefix);
+    }
 
-        converters.put(LocalDate.class, s -> LocalDate.parse(s));
-        converters.put(LocalTime.class, s -> LocalTime.parse(s));
-        converters.put(LocalDateTime.class, s -> LocalDateTime.parse(s));
-        converters.put(ZonedDateTime.class, s -> ZonedDateTime.parse(s));
-        converters.put(Duration.class, s -> Duration.parse(s));
-        converters.put(ZoneId.class, s -> ZoneId.of(s));
+    // stores按优先级从高到低排列:
+    static PropertyStore merge(List<PropertyStore> stores, PropertyStore overrides, String keyPrefix) {
+        Map<String, String> merged = new HashMap<>();
+        for (int i = stores.size() - 1; i >= 0; i--) {
+            stores.get(i).withPrefix(keyPrefix).forEach(merged::put);
+        }
+        overrides.withPrefix(keyPrefix).forEach(merged::put);
+        merged.values().removeIf(value -> value == REMOVED);
+        return PropertyStore.of(merged);
     }
 
-    PropertyExpr parsePropertyExpr(String key) {
-        if (key.startsWith("${") && key.endsWith("}")) {
-            // 是否存在defaultValue?
-            int n = key.indexOf(':');
-            if (n == (-1)) {
-                // 没有defaultValue: ${key}
-                String k = key.substring(2, key.length() - 1);
-                return new PropertyExpr(k, null);
-            } else {
-                // 有defaultValue: ${key:default}
-                String k = key.substring(2, n);
-                return new PropertyExpr(k, key.substring(n + 1, key.length() - 1));
+    /**
+     * 按优先级查找未解析占位符的原始值。
+     */
+    @Nullable
+    String getRawProperty(State s, String key) {
+        if (!s.overrides().isEmpty()) {
+            String value = s.overrides().get(key);
+            if (value != null) {
+                return value == REMOVED ? null : value;
+            }
+        }
+        if (s.snapshot() != null) {
+            return s.snapshot().get(key);
+        }
+        for (PropertySource source : s.sources()) {
+            String value = source.getProperty(key);
+            if (value != null) {
+                return value;
             }
         }
         return null;
     }
 
+    @Nullable
+    public String getProperty(String key) {
+        return getProperty(this.state, key);
+    }
 
+    // 一次读取（包括嵌套的占位符）始终使用同一个状态:
+    @Nullable
+    String getProperty(State s, String key) {
+        // 解析结果已缓存时只需一次Map读取:
+        Map<String, String> cache = s.resolved();
+        String value = cache.get(key);
+        if (value == null) {
+            value = resolveProperty(s, key);
+            if (value != null) {
+                cache.put(key, value);
+            } else if (s.notFound().get() < MAX_NOT_FOUND && cache.putIfAbsent(key, NOT_FOUND) == null) {
+                s.notFound().incrementAndGet();
+            }
+            return value;
+        }
+        return value == NOT_FOUND ? null : value;
+    }
 
     @Nullable
-    public String getProperty(String key) {
+    String resolveProperty(State s, String key) {
         // 解析${abc.xyz:defaultValue}:
-        PropertyExpr keyExpr = parsePropertyExpr(key);
-        if (keyExpr != null) {
-            if (keyExpr.defaultValue() != null) {
-                // 带默认值查询:
-                return getProperty(keyExpr.key(), keyExpr.defaultValue());
-            } else {
-                // 不带默认值查询:
-                return getRequiredProperty(keyExpr.key());
+        if (key.startsWith("${")) {
+            PlaceholderExpression keyExpr = compile(key);
+            if (keyExpr instanceof PlaceholderExpression.Placeholder) {
+                return keyExpr.resolve(k -> getProperty(s, k));
             }
         }
         // 普通key查询:
-        String value = this.properties.get(key);
+        String value = getRawProperty(s, key);
         if (value != null) {
-            return parseValue(value);
+            return parseValue(s, value);
         }
         return value;
     }
 
     @Nullable
+    @SuppressWarnings("unchecked")
     public <T> T getProperty(String key, Class<T> targetType) {
-        String value = getProperty(key);
+        return (T) getProperty(key, (Type) targetType);
+    }
+
+    /**
+     * 读取配置并转换为targetType，targetType可以是List<Integer>这样的泛型类型。不可变的转换结果会被缓存，重复读取不再解析。
+     */
+    @Nullable
+    public Object getProperty(String key, Type targetType) {
+        State s = this.state;
+        Map<Type, Map<String, Object>> cache = getConverted(s);
+        Map<String, Object> values = cache.get(targetType);
+        if (values != null) {
+            Object result = values.get(key);
+            if (result != null) {
+                return result;
+            }
+        }
+        String value = getProperty(s, key);
         if (value == null) {
             return null;
         }
         // 转换为指定类型:
-        return convert(targetType, value);
+        Object result = this.conversionService.convert(value, targetType);
+        if (this.conversionService.isImmutable(targetType)) {
+            if (values == null) {
+                values = new ConcurrentHashMap<>();
+                Map<String, Object> existing = cache.putIfAbsent(targetType, values);
+                if (existing != null) {
+                    values = existing;
+                }
+            }
+            values.put(key, result);
+        }
+        return result;
     }
 
-    public <T> T convert(Class<T> clazz, String value) {
-        Function<String,Object> fun = this.converters.get(clazz);
-        if (fun == null){
-            throw new IllegalArgumentException("Unsupported value type: " + clazz.getName());
+    // 转换器版本变化后丢弃旧的转换结果:
+    Map<Type, Map<String, Object>> getConverted(State s) {
+        int generation = this.conversionService.getGeneration();
+        Converted converted = s.converted().get();
+        if (converted.generation() != generation) {
+            s.converted().compareAndSet(converted, new Converted(generation, new ConcurrentHashMap<>()));
+            converted = s.converted().get();
         }
-        return (T) fun.apply(value);
+        return converted.values();
+    }
+
+    public <T> T convert(Class<T> clazz, String value) {
+        return this.conversionService.convert(value, clazz);
+    }
+
+    /**
+     * 获取指定类型的转换器，可以提前获取后重复使用。
+     */
+    public Function<String, Object> getConverter(Type type) {
+        return this.conversionService.getConverter(type);
     }
 
+    public ConversionService getConversionService() {
+        return this.conversionService;
+    }
+
+    /**
+     * 替换value中的所有占位符。
+     */
     public String parseValue(String value) {
-        PropertyExpr expr = parsePropertyExpr(value);
-        if (expr == null) {
+        return parseValue(this.state, value);
+    }
+
+    String parseValue(State s, String value) {
+        if (value.indexOf("${") < 0) {
             return value;
         }
-        if (expr.defaultValue() != null) {
-            return getProperty(expr.key(), expr.defaultValue());
-        } else {
-            return getRequiredProperty(expr.key());
-        }
+        return compile(value).resolve(k -> getProperty(s, k));
     }
 
     public String getRequiredProperty(String key) {
@@ -147,10 +451,8 @@ public class PropertyResolver {
     }
 
     public String getProperty(String key, String defaultValue) {
-        String value = getProperty(key);
-        return value == null ? parseValue(defaultValue) : value;
-    }
-
-    record PropertyExpr(String key, String defaultValue) {
+        State s = this.state;
+        String value = getProperty(s, key);
+        return value == null ? parseValue(s, defaultValue) : value;
     }
 }
@@ -0,0 +1,212 @@
+package com.lfy.io;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.stream.Collectors;
+
+import com.lfy.util.ClassPathUtils;
+import com.lfy.util.YamlUtils;
+import jakarta.annotation.Nullable;
+
+/**
+ * 一个配置来源，PropertyResolver按顺序查找多个来源，排在前面的优先。
+ * 按key查找应尽量直接访问来源本身；只有前缀查询和生成快照时才调用getStore()枚举全部配置项。
+ */
+public interface PropertySource {
+
+    String getName();
+
+    @Nullable
+    String getProperty(String key);
+
+    /**
+     * 该来源的全部配置项，可能需要枚举并排序整个来源，调用方应只在需要时调用。
+     */
+    PropertyStore getStore();
+
+    /**
+     * 以keyPrefix开头的配置项，keyPrefix为空时返回全部。
+     */
+    default PropertyStore getStore(String keyPrefix) {
+        return getStore().withPrefix(keyPrefix);
+    }
+
+    /**
+     * 是否参与prefix.xxx形式的前缀查询，不参与的来源（环境变量）只按key本身查找。
+     */
+    default boolean isEnumerable() {
+        return true;
+    }
+
+    /**
+     * 是否存在prefix本身或prefix.xxx、prefix[0]形式的配置项。
+     */
+    default boolean containsPrefix(String prefix) {
+        return getStore().containsPrefix(prefix);
+    }
+
+    static PropertySource of(String name, Map<String, String> properties) {
+        return new MapPropertySource(name, PropertyStore.of(properties));
+    }
+
+    /**
+     * Properties中的字符串，以及YAML列表（按逗号连接）。
+     */
+    static PropertySource properties(String name, Properties props) {
+        Map<String, String> properties = new HashMap<>();
+        for (String key : props.stringPropertyNames()) {
+            properties.put(key, props.getProperty(key));
+        }
+        //YAML中的列表按逗号连接，可以转换为数组或List/Set:
+        for (Map.Entry<Object, Object> entry : props.entrySet()) {
+            if (entry.getKey() instanceof String key && entry.getValue() instanceof List<?> list) {
+                properties.put(key, joinList(list));
+            }
+        }
+        return of(name, properties);
+    }
+
+    /**
+     * 进程环境变量：按key直接调用System.getenv，不复制整个环境，也不参与前缀查询。
+     */
+    static PropertySource environment() {
+        return new LookupPropertySource("environment", System::getenv, System::getenv, false);
+    }
+
+    /**
+     * JVM系统属性(-Dkey=value)。
+     */
+    static PropertySource systemProperties() {
+        return new LookupPropertySource("systemProperties", System::getProperty, () -> {
+            Properties props = System.getProperties();
+            Map<String, String> map = new HashMap<>();
+            for (String key : props.stringPropertyNames()) {
+                map.put(key, props.getProperty(key));
+            }
+            return map;
+        });
+    }
+
+    /**
+     * 命令行参数：--key=value，以及等价于--key=true的--key，其他参数忽略。
+     */
+    static PropertySource commandLine(String... args) {
+        Map<String, String> properties = new HashMap<>();
+        for (String arg : args) {
+            if (arg.startsWith("--") && arg.length() > 2) {
+                int n = arg.indexOf('=');
+                if (n < 0) {
+                    properties.put(arg.substring(2), "true");
+                } else {
+                    properties.put(arg.substring(2, n), arg.substring(n + 1));
+                }
+            }
+        }
+        return of("commandLine", properties);
+    }
+
+    /**
+     * classpath中的YAML文件，第一次访问时才读取；optional为true时文件不存在视为空，适用于application-{profile}.yml。
+     * 文件位于classpath目录中时可以被监视并重新加载。
+     */
+    static PropertySource yaml(String path, boolean optional) {
+        return new LazyPropertySource("yaml:" + path, () -> {
+            if (optional && getResource(path) == null) {
+                return PropertyStore.EMPTY;
+            }
+            Map<String, String> properties = new HashMap<>();
+            YamlUtils.loadYaml(path, (key, value) -> properties.put(key, value instanceof List<?> list ? joinList(list) : String.valueOf(value)));
+            return PropertyStore.of(properties);
+        }, getFile(path));
+    }
+
+    /**
+     * classpath中的.properties文件，按UTF-8读取，其他同{@link #yaml(String, boolean)}。
+     */
+    static PropertySource propertiesFile(String path, boolean optional) {
+        return new LazyPropertySource("properties:" + path, () -> {
+            if (optional && getResource(path) == null) {
+                return PropertyStore.EMPTY;
+            }
+            Properties props = ClassPathUtils.readInputStream(path, input -> {
+                Properties p = new Properties();
+                p.load(new InputStreamReader(input, StandardCharsets.UTF_8));
+                return p;
+            });
+            return properties(path, props).getStore();
+        }, getFile(path));
+    }
+
+    /**
+     * 文件系统中的YAML文件，如部署目录下的application.yml，第一次访问时才读取；optional为true时文件不存在视为空。
+     * 文件所在的目录存在时可以被监视并重新加载，包括之后才创建的文件。
+     */
+    static PropertySource yaml(Path file, boolean optional) {
+        Path absolute = file.toAbsolutePath();
+        return new LazyPropertySource("yaml:" + absolute, () -> {
+            if (optional && !Files.exists(absolute)) {
+                return PropertyStore.EMPTY;
+            }
+            Map<String, String> properties = new HashMap<>();
+            YamlUtils.loadYaml(absolute, (key, value) -> properties.put(key, value instanceof List<?> list ? joinList(list) : String.valueOf(value)));
+            return PropertyStore.of(properties);
+        }, absolute);
+    }
+
+    /**
+     * 文件系统中的.properties文件，按UTF-8读取，其他同{@link #yaml(Path, boolean)}。
+     */
+    static PropertySource propertiesFile(Path file, boolean optional) {
+        Path absolute = file.toAbsolutePath();
+        return new LazyPropertySource("properties:" + absolute, () -> {
+            if (optional && !Files.exists(absolute)) {
+                return PropertyStore.EMPTY;
+            }
+            Properties props = new Properties();
+            try (Reader reader = Files.newBufferedReader(absolute, StandardCharsets.UTF_8)) {
+                props.load(reader);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return properties(absolute.toString(), props).getStore();
+        }, absolute);
+    }
+
+    @Nullable
+    private static URL getResource(String path) {
+        ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+        if (classLoader == null) {
+            classLoader = PropertySource.class.getClassLoader();
+        }
+        return classLoader.getResource(path.startsWith("/") ? path.substring(1) : path);
+    }
+
+    // classpath资源对应的文件，位于jar包内或不存在时返回null:
+    @Nullable
+    private static Path getFile(String path) {
+        URL url = getResource(path);
+        if (url == null || !"file".equals(url.getProtocol())) {
+            return null;
+        }
+        try {
+            return Path.of(url.toURI());
+        } catch (URISyntaxException e) {
+            return null;
+        }
+    }
+
+    private static String joinList(List<?> list) {
+        return list.stream().map(String::valueOf).collect(Collectors.joining(","));
+    }
+}
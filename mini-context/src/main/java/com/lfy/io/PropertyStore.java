@@ -0,0 +1,206 @@
+package com.lfy.io;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+import jakarta.annotation.Nullable;
+
+/**
+ * 不可变的配置存储：key按字典序保存在数组中，按key查找和按前缀查询都是二分查找，前缀查询返回共享底层数组的视图。
+ * key在创建时驻留(intern)，多个配置源中相同的key只保留一份。值为未解析占位符的原始字符串。
+ */
+public final class PropertyStore {
+
+    static final PropertyStore EMPTY = new PropertyStore(new String[0], new String[0], 0, 0);
+
+    final String[] keys;
+    final String[] values;
+    // 视图范围[from, to):
+    final int from;
+    final int to;
+
+    PropertyStore(String[] keys, String[] values, int from, int to) {
+        this.keys = keys;
+        this.values = values;
+        this.from = from;
+        this.to = to;
+    }
+
+    public static PropertyStore of(Map<String, String> properties) {
+        String[] keys = new String[properties.size()];
+        int i = 0;
+        for (String key : properties.keySet()) {
+            keys[i++] = key.intern();
+        }
+        Arrays.sort(keys);
+        String[] values = new String[keys.length];
+        for (i = 0; i < keys.length; i++) {
+            values[i] = properties.get(keys[i]);
+        }
+        return new PropertyStore(keys, values, 0, keys.length);
+    }
+
+    @Nullable
+    public String get(String key) {
+        int n = indexOf(key);
+        return n < 0 ? null : this.values[n];
+    }
+
+    public boolean containsKey(String key) {
+        return indexOf(key) >= 0;
+    }
+
+    public int size() {
+        return this.to - this.from;
+    }
+
+    public boolean isEmpty() {
+        return this.to == this.from;
+    }
+
+    /**
+     * 是否存在key本身或它下面的配置项（key.xxx或key[0]）。
+     */
+    public boolean containsPrefix(String key) {
+        return containsKey(key) || hasKeyStartingWith(key + ".") || hasKeyStartingWith(key + "[");
+    }
+
+    /**
+     * 所有以prefix开头的配置项，返回共享底层数组的视图。
+     */
+    public PropertyStore withPrefix(String prefix) {
+        int lo = lowerBound(prefix);
+        //以prefix开头的key在排序后是连续的一段，二分查找这一段的末尾:
+        int hi = lo;
+        int end = this.to;
+        while (hi < end) {
+            int mid = (hi + end) >>> 1;
+            if (this.keys[mid].startsWith(prefix)) {
+                hi = mid + 1;
+            } else {
+                end = mid;
+            }
+        }
+        return lo == hi ? EMPTY : new PropertyStore(this.keys, this.values, lo, hi);
+    }
+
+    /**
+     * prefix下的子树，即所有prefix.xxx形式的配置项。
+     */
+    public PropertyStore subTree(String prefix) {
+        return withPrefix(prefix.isEmpty() ? "" : prefix + ".");
+    }
+
+    /**
+     * 按字典序排列的key，不可修改。
+     */
+    public List<String> keys() {
+        return new AbstractList<>() {
+            @Override
+            public String get(int index) {
+                return keys[from + checkIndex(index)];
+            }
+
+            @Override
+            public int size() {
+                return PropertyStore.this.size();
+            }
+        };
+    }
+
+    public void forEach(BiConsumer<String, String> action) {
+        for (int i = this.from; i < this.to; i++) {
+            action.accept(this.keys[i], this.values[i]);
+        }
+    }
+
+    /**
+     * 返回设置了key的新存储，value为null时删除key，当前存储不变。
+     */
+    public PropertyStore with(String key, @Nullable String value) {
+        int n = indexOf(key);
+        if (n >= 0) {
+            if (value == null) {
+                return copyWithout(n);
+            }
+            String[] values = Arrays.copyOfRange(this.values, this.from, this.to);
+            values[n - this.from] = value;
+            return new PropertyStore(Arrays.copyOfRange(this.keys, this.from, this.to), values, 0, size());
+        }
+        if (value == null) {
+            return this;
+        }
+        int pos = -n - 1 - this.from;
+        String[] keys = new String[size() + 1];
+        String[] values = new String[size() + 1];
+        System.arraycopy(this.keys, this.from, keys, 0, pos);
+        System.arraycopy(this.values, this.from, values, 0, pos);
+        keys[pos] = key.intern();
+        values[pos] = value;
+        System.arraycopy(this.keys, this.from + pos, keys, pos + 1, size() - pos);
+        System.arraycopy(this.values, this.from + pos, values, pos + 1, size() - pos);
+        return new PropertyStore(keys, values, 0, keys.length);
+    }
+
+    /**
+     * 与other相比新增、删除或值不同的key，两个存储都已排序，合并遍历一次即可。
+     */
+    public Set<String> changedKeys(PropertyStore other) {
+        Set<String> changed = new HashSet<>();
+        int i = this.from;
+        int j = other.from;
+        while (i < this.to || j < other.to) {
+            int cmp = i == this.to ? 1 : j == other.to ? -1 : this.keys[i].compareTo(other.keys[j]);
+            if (cmp < 0) {
+                changed.add(this.keys[i++]);
+            } else if (cmp > 0) {
+                changed.add(other.keys[j++]);
+            } else {
+                if (!this.values[i].equals(other.values[j])) {
+                    changed.add(this.keys[i]);
+                }
+                i++;
+                j++;
+            }
+        }
+        return changed;
+    }
+
+    PropertyStore copyWithout(int n) {
+        int pos = n - this.from;
+        String[] keys = new String[size() - 1];
+        String[] values = new String[size() - 1];
+        System.arraycopy(this.keys, this.from, keys, 0, pos);
+        System.arraycopy(this.values, this.from, values, 0, pos);
+        System.arraycopy(this.keys, n + 1, keys, pos, this.to - n - 1);
+        System.arraycopy(this.values, n + 1, values, pos, this.to - n - 1);
+        return new PropertyStore(keys, values, 0, keys.length);
+    }
+
+    int indexOf(String key) {
+        return Arrays.binarySearch(this.keys, this.from, this.to, key);
+    }
+
+    // 第一个不小于s的位置:
+    int lowerBound(String s) {
+        int n = indexOf(s);
+        return n >= 0 ? n : -n - 1;
+    }
+
+    boolean hasKeyStartingWith(String prefix) {
+        int n = lowerBound(prefix);
+        return n < this.to && this.keys[n].startsWith(prefix);
+    }
+
+    int checkIndex(int index) {
+        if (index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException(index);
+        }
+        return index;
+    }
+}
@@ -5,19 +5,24 @@ package com.lfy.io;
  */
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URL;
 import java.net.URLDecoder;
 import java.nio.charset.StandardCharsets;
-import java.nio.file.FileSystems;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Enumeration;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
 import java.util.function.Function;
+import java.util.stream.Stream;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -26,23 +31,62 @@ public class ResourceResolver {
 
     Logger logger = LoggerFactory.getLogger(getClass());
 
-    String basePackage;
+    List<String> basePackages;
+
+    // 是否并行扫描:
+    boolean parallel = false;
+
+    // 并行扫描使用的线程池，为null时使用ForkJoinPool.commonPool():
+    ForkJoinPool forkJoinPool = null;
+
+    // Jar文件 -> 条目索引，同一个Jar包中的多个包共用一次读取:
+    final Map<Path, JarIndex> jarIndexes = new HashMap<>();
+
+    // 并行扫描时每个任务至少处理的Jar条目数:
+    static final int JAR_SCAN_THRESHOLD = 256;
 
     public ResourceResolver(String basePackage) {
-        this.basePackage = basePackage;
+        this.basePackages = List.of(basePackage);
+    }
+
+    public ResourceResolver(String... basePackages) {
+        this.basePackages = List.of(basePackages);
+    }
+
+    /**
+     * 开启并行扫描后，所有包及其目录、Jar根路径会在ForkJoinPool中同时遍历，mapper必须是线程安全的。
+     */
+    public void setParallel(boolean parallel) {
+        this.parallel = parallel;
+    }
+
+    public void setForkJoinPool(ForkJoinPool forkJoinPool) {
+        this.forkJoinPool = forkJoinPool;
     }
 
     //获取扫描到得basePackage
     public <R> List<R> scan(Function<Resource, R> mapper) throws IOException, URISyntaxException {
-        //将包名转化为路径
-        String basePackagePath = this.basePackage.replace(".", "/");
-        String path = basePackagePath;
+        List<ScanRoot> roots = new ArrayList<>();
+        for (String basePackage : this.basePackages) {
+            //将包名转化为路径
+            String basePackagePath = basePackage.replace(".", "/");
+            scanO(basePackagePath, basePackagePath, roots);
+        }
+        if (this.parallel) {
+            return scanParallel(roots, mapper);
+        }
         List<R> collector = new ArrayList<>();
-        scanO(basePackagePath, path, collector, mapper);
+        for (ScanRoot root : roots) {
+            if (root.isJar()) {
+                scanJar(root.baseDir(), root.jarIndex().findEntries(root.prefix()), collector, mapper);
+            } else {
+                scanFile(root.baseDir(), root.root(), collector, mapper);
+            }
+        }
         return collector;
     }
 
-    <R> void scanO(String basePackagePath, String path, List<R> collector, Function<Resource, R> mapper) throws IOException, URISyntaxException {
+    void scanO(String basePackagePath, String path, List<ScanRoot> roots) throws IOException, URISyntaxException {
         logger.atDebug().log("scan path: {}", path);
         // 通过ClassLoader获取URL列表:
         Enumeration<URL> en = getContextClassLoader().getResources(path);
@@ -54,41 +98,76 @@ public class ResourceResolver {
             // 在目录中搜索
             if (uriBaseStr.startsWith("file:")) {
                 uriBaseStr = uriBaseStr.substring(5);
+                roots.add(new ScanRoot(removeTrailingSlash(uriBaseStr), Paths.get(uri), null, null));
             }
             // 在Jar包中搜索
             if (uriStr.startsWith("jar:")) {
-                scanFile(true, uriBaseStr, jarUriToPath(basePackagePath, uri), collector, mapper);
+                roots.add(new ScanRoot(removeTrailingSlash(uriBaseStr), null, getJarIndex(uri), basePackagePath + "/"));
             }
-
         }
     }
 
-    <R> void scanFile(boolean isJar, String uriBaseStr, Path jarUriToPath, List<R> collector, Function<Resource, R> mapper) throws IOException {
-        //除去路径中最后的分隔符
-        String baseDir = removeTrailingSlash(uriBaseStr);
+    <R> void scanFile(String baseDir, Path root, List<R> collector, Function<Resource, R> mapper) throws IOException {
         //遍历文件并且过滤掉不可读文件
-        Files.walk(jarUriToPath).filter(Files::isReadable).forEach(file -> {
-            Resource resource = null;
-            if (isJar) {
-                //创建文件
-                resource = new Resource(baseDir, removeLeadingSlash(file.toString()));
-            } else {
-                String path = file.toString();
-                String name = removeLeadingSlash(path.substring(baseDir.length()));
-                resource = new Resource("file:" + path, name);
-            }
+        try (Stream<Path> files = Files.walk(root)) {
+            files.filter(Files::isReadable).forEach(file -> {
+                R r = mapResource(baseDir, file, mapper);
+                if (r != null) {
+                    collector.add(r);
+                }
+            });
+        }
+    }
+
+    <R> void scanJar(String baseDir, List<String> entries, List<R> collector, Function<Resource, R> mapper) {
+        for (String entry : entries) {
+            Resource resource = new Resource(baseDir, entry);
             logger.atDebug().log("found resource: {}", resource);
-            //传递文件对象
             R r = mapper.apply(resource);
             if (r != null) {
                 collector.add(r);
             }
+        }
+    }
+
+    /**
+     * 每个根路径一个任务，目录再按子目录拆分为子任务，各任务的结果在join时合并，无需加锁。
+     */
+    <R> List<R> scanParallel(List<ScanRoot> roots, Function<Resource, R> mapper) {
+        ForkJoinPool pool = this.forkJoinPool == null ? ForkJoinPool.commonPool() : this.forkJoinPool;
+        return pool.invoke(new RecursiveTask<List<R>>() {
+            @Override
+            protected List<R> compute() {
+                List<RecursiveTask<List<R>>> tasks = new ArrayList<>(roots.size());
+                for (ScanRoot root : roots) {
+                    if (root.isJar()) {
+                        tasks.add(new JarScanTask<>(root.baseDir(), root.jarIndex().findEntries(root.prefix()), mapper));
+                    } else {
+                        tasks.add(new DirectoryScanTask<>(root.baseDir(), root.root(), mapper));
+                    }
+                }
+                List<R> collector = new ArrayList<>();
+                for (RecursiveTask<List<R>> task : invokeAll(tasks)) {
+                    collector.addAll(task.join());
+                }
+                return collector;
+            }
         });
     }
 
+    // 目录中的文件，Jar包中的条目由scanJar处理:
+    <R> R mapResource(String baseDir, Path file, Function<Resource, R> mapper) {
+        String path = file.toString();
+        String name = removeLeadingSlash(path.substring(baseDir.length()));
+        Resource resource = new Resource("file:" + path, name);
+        logger.atDebug().log("found resource: {}", resource);
+        //传递文件对象
+        return mapper.apply(resource);
+    }
+
     private String removeLeadingSlash(String s) {
         if (s.startsWith("/") || s.startsWith("\\")) {
-            s.substring(1);
+            s = s.substring(1);
         }
         return s;
     }
@@ -114,7 +193,112 @@ public class ResourceResolver {
         return URLDecoder.decode(uri.toString(), StandardCharsets.UTF_8);
     }
 
-    Path jarUriToPath(String basePackagePath, URI jarUri) throws IOException {
-        return FileSystems.newFileSystem(jarUri, Map.of()).getPath(basePackagePath);
+    /**
+     * jar:file:/path/to/app.jar!/com/lfy -> /path/to/app.jar的条目索引，每个Jar文件只读取一次中央目录。
+     */
+    JarIndex getJarIndex(URI jarUri) throws IOException, URISyntaxException {
+        String spec = jarUri.getRawSchemeSpecificPart();
+        int n = spec.indexOf("!/");
+        Path jarFile = Paths.get(new URI(n < 0 ? spec : spec.substring(0, n)));
+        JarIndex index = this.jarIndexes.get(jarFile);
+        if (index == null) {
+            logger.atDebug().log("index jar: {}", jarFile);
+            index = JarIndex.open(jarFile);
+            this.jarIndexes.put(jarFile, index);
+        }
+        return index;
+    }
+
+    /**
+     * 扫描的根路径：目录时root为目录路径，Jar包时jarIndex为条目索引、prefix为包路径前缀。
+     */
+    record ScanRoot(String baseDir, Path root, JarIndex jarIndex, String prefix) {
+        boolean isJar() {
+            return jarIndex != null;
+        }
+    }
+
+    /**
+     * 遍历Jar包中的一段条目：超过阈值时对半拆分为两个任务。
+     */
+    //任务只在扫描期间使用，不会被序列化:
+    @SuppressWarnings("serial")
+    class JarScanTask<R> extends RecursiveTask<List<R>> {
+
+        final String baseDir;
+        final List<String> entries;
+        final Function<Resource, R> mapper;
+
+        JarScanTask(String baseDir, List<String> entries, Function<Resource, R> mapper) {
+            this.baseDir = baseDir;
+            this.entries = entries;
+            this.mapper = mapper;
+        }
+
+        @Override
+        protected List<R> compute() {
+            List<R> collector = new ArrayList<>();
+            if (this.entries.size() <= JAR_SCAN_THRESHOLD) {
+                scanJar(this.baseDir, this.entries, collector, this.mapper);
+                return collector;
+            }
+            int mid = this.entries.size() / 2;
+            JarScanTask<R> left = new JarScanTask<>(this.baseDir, this.entries.subList(0, mid), this.mapper);
+            JarScanTask<R> right = new JarScanTask<>(this.baseDir, this.entries.subList(mid, this.entries.size()), this.mapper);
+            invokeAll(left, right);
+            collector.addAll(left.join());
+            collector.addAll(right.join());
+            return collector;
+        }
+    }
+
+    /**
+     * 遍历一个目录：文件直接转换，子目录fork为新的任务。
+     */
+    //任务只在扫描期间使用，不会被序列化:
+    @SuppressWarnings("serial")
+    class DirectoryScanTask<R> extends RecursiveTask<List<R>> {
+
+        final String baseDir;
+        final Path dir;
+        final Function<Resource, R> mapper;
+
+        DirectoryScanTask(String baseDir, Path dir, Function<Resource, R> mapper) {
+            this.baseDir = baseDir;
+            this.dir = dir;
+            this.mapper = mapper;
+        }
+
+        @Override
+        protected List<R> compute() {
+            List<R> collector = new ArrayList<>();
+            List<DirectoryScanTask<R>> subTasks = new ArrayList<>();
+            if (Files.isReadable(this.dir)) {
+                R r = mapResource(this.baseDir, this.dir, this.mapper);
+                if (r != null) {
+                    collector.add(r);
+                }
+            }
+            if (Files.isDirectory(this.dir)) {
+                try (Stream<Path> children = Files.list(this.dir)) {
+                    children.forEach(child -> {
+                        if (Files.isDirectory(child)) {
+                            subTasks.add(new DirectoryScanTask<>(this.baseDir, child, this.mapper));
+                        } else if (Files.isReadable(child)) {
+                            R r = mapResource(this.baseDir, child, this.mapper);
+                            if (r != null) {
+                                collector.add(r);
+                            }
+                        }
+                    });
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+            for (DirectoryScanTask<R> task : invokeAll(subTasks)) {
+                collector.addAll(task.join());
+            }
+            return collector;
+        }
     }
 }
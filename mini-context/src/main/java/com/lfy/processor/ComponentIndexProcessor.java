@@ -0,0 +1,136 @@
+package com.lfy.processor;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.TypeElement;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * 编译期生成组件索引META-INF/mini-spring.components，每行一个标注了@Component或@Configuration（含元注解）的类名。
+ * 存在索引时，AnnotationConfigApplicationContext直接读取索引，不再扫描classpath。
+ * 使用时在编译参数中指定：-processor com.lfy.processor.ComponentIndexProcessor（或配置maven-compiler-plugin的annotationProcessors）。
+ * 增量编译时只有部分类参与本次编译，已有索引中未参与编译且仍然存在的类会被保留。
+ */
+@SupportedAnnotationTypes("*")
+public class ComponentIndexProcessor extends AbstractProcessor {
+
+    public static final String COMPONENTS_RESOURCE_LOCATION = "META-INF/mini-spring.components";
+
+    static final String COMPONENT_ANNOTATION = "com.lfy.annotation.Component";
+    static final String CONFIGURATION_ANNOTATION = "com.lfy.annotation.Configuration";
+
+    // 已收集的组件类名，排序后输出以保证构建结果稳定:
+    final Set<String> components = new TreeSet<>();
+
+    // 本次编译处理过的所有类型，已有索引中的这些类以本次结果为准:
+    final Set<String> processed = new HashSet<>();
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        for (Element element : roundEnv.getRootElements()) {
+            //跳过package-info等非类型元素:
+            if (element instanceof TypeElement type) {
+                collect(type);
+            }
+        }
+        if (roundEnv.processingOver()) {
+            Set<String> existing = readIndex();
+            if (!components.isEmpty() || !existing.isEmpty()) {
+                for (String className : existing) {
+                    if (!processed.contains(className) && !isDeleted(className)) {
+                        components.add(className);
+                    }
+                }
+                writeIndex();
+            }
+        }
+        return false;
+    }
+
+    void collect(TypeElement type) {
+        String className = processingEnv.getElementUtils().getBinaryName(type).toString();
+        processed.add(className);
+        //class、record、enum都可以是组件，跳过接口和注解:
+        if (type.getKind().isClass() && isComponent(type, new HashSet<>())) {
+            components.add(className);
+        }
+        //内部类也可能是组件：
+        for (Element enclosed : type.getEnclosedElements()) {
+            if (enclosed instanceof TypeElement enclosedType) {
+                collect(enclosedType);
+            }
+        }
+    }
+
+    //递归查找@Component/@Configuration元注解
+    boolean isComponent(Element element, Set<String> visited) {
+        for (AnnotationMirror mirror : element.getAnnotationMirrors()) {
+            TypeElement annoType = (TypeElement) mirror.getAnnotationType().asElement();
+            String name = annoType.getQualifiedName().toString();
+            if (name.equals(COMPONENT_ANNOTATION) || name.equals(CONFIGURATION_ANNOTATION)) {
+                return true;
+            }
+            if (!name.startsWith("java.lang.annotation.") && visited.add(name) && isComponent(annoType, visited)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    //读取上次编译生成的索引，不存在时返回空集合
+    Set<String> readIndex() {
+        Set<String> existing = new TreeSet<>();
+        try {
+            FileObject file = processingEnv.getFiler().getResource(StandardLocation.CLASS_OUTPUT, "", COMPONENTS_RESOURCE_LOCATION);
+            try (Reader reader = file.openReader(true); var lines = new BufferedReader(reader)) {
+                String line;
+                while ((line = lines.readLine()) != null) {
+                    String className = line.strip();
+                    if (!className.isEmpty() && !className.startsWith("#")) {
+                        existing.add(className);
+                    }
+                }
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            // 没有已存在的索引
+        }
+        return existing;
+    }
+
+    //已删除的类无法再通过名称找到
+    boolean isDeleted(String className) {
+        return processingEnv.getElementUtils().getTypeElement(className.replace('$', '.')) == null;
+    }
+
+    void writeIndex() {
+        try {
+            FileObject file = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "", COMPONENTS_RESOURCE_LOCATION);
+            try (Writer writer = file.openWriter()) {
+                for (String component : components) {
+                    writer.write(component);
+                    writer.write('\n');
+                }
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Cannot write " + COMPONENTS_RESOURCE_LOCATION + ": " + e);
+        }
+    }
+}
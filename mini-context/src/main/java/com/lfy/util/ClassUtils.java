@@ -13,6 +13,8 @@ import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 /**
@@ -20,14 +22,44 @@ import java.util.stream.Collectors;
  * @Date:7/29/2023 9:41 PM
  */
 public class ClassUtils {
-    //递归查找注解
+
+    // 未找到注解时缓存的占位值:
+    private static final Object NOT_FOUND = new Object();
+
+    // 类 -> (注解类型 -> 合并元注解后找到的注解或NOT_FOUND)，缓存随类一起释放，不会阻止类加载器被回收，也不需要清空:
+    private static final ClassValue<Map<Class<? extends Annotation>, Object>> annotationCache = new ClassValue<>() {
+        @Override
+        protected Map<Class<? extends Annotation>, Object> computeValue(Class<?> type) {
+            return new ConcurrentHashMap<>();
+        }
+    };
+
+    //递归查找注解，结果按类缓存
+    @SuppressWarnings("unchecked")
     public static <A extends Annotation> A findAnnotation(Class<?> target, Class<A> annoClass) {
+        Map<Class<? extends Annotation>, Object> cache = annotationCache.get(target);
+        Object cached = cache.get(annoClass);
+        if (cached == null) {
+            //递归查找时会再次访问缓存，不能使用computeIfAbsent：
+            A found = doFindAnnotation(target, annoClass);
+            cached = found == null ? NOT_FOUND : found;
+            cache.putIfAbsent(annoClass, cached);
+        }
+        return cached == NOT_FOUND ? null : (A) cached;
+    }
+
+    private static <A extends Annotation> A doFindAnnotation(Class<?> target, Class<A> annoClass) {
         A a = target.getAnnotation(annoClass);
+        //直接标注的注解优先于元注解，例如同时标注@Configuration和@Component:
+        if (a != null) {
+            return a;
+        }
         for (Annotation anno : target.getAnnotations()) {
             Class<? extends Annotation> annoType = anno.annotationType();
             if (!annoType.getPackageName().equals("java.lang.annotation")) {
                 A found = findAnnotation(annoType, annoClass);
-                if (found != null) {
+                //多个元注解上相同的注解只算一次:
+                if (found != null && !found.equals(a)) {
                     if (a != null) {
                         throw new BeanDefinitionException("Duplicate @" + annoClass.getSimpleName() + " found on class " + target.getSimpleName());
                     }
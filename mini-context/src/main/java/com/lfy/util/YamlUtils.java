@@ -1,15 +1,29 @@
 package com.lfy.util;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
 
-import org.yaml.snakeyaml.DumperOptions;
 import org.yaml.snakeyaml.LoaderOptions;
 import org.yaml.snakeyaml.Yaml;
-import org.yaml.snakeyaml.constructor.Constructor;
-import org.yaml.snakeyaml.representer.Representer;
-import org.yaml.snakeyaml.resolver.Resolver;
+import org.yaml.snakeyaml.events.AliasEvent;
+import org.yaml.snakeyaml.events.Event;
+import org.yaml.snakeyaml.events.NodeEvent;
+import org.yaml.snakeyaml.events.ScalarEvent;
 
 
 /**
@@ -21,49 +35,392 @@ public class YamlUtils {
 
     //将yaml文件内容转化为Map对象
     public static Map<String, Object> loadYamlAsPlainMap(String path) {
-        //加载yaml文件转化为对象
-        Map<String, Object> data = loadYaml(path);
         //创建容器对象
         Map<String, Object> plain = new LinkedHashMap<>();
-        //将加载的Map对象key前缀key - value对应
-        converTo(data, "", plain);
+        loadYaml(path, plain::put);
         return plain;
     }
 
-    private static Map<String, Object> loadYaml(String path) {
-        //通过yaml内置方法创建yaml对象
-        var loaderOptions = new LoaderOptions();
-        var dumperOptions = new DumperOptions();
-        var representer = new Representer(dumperOptions);
-        var resolver = new NoImplicitResolver();
-        var yaml = new Yaml(new Constructor(loaderOptions), representer, dumperOptions, loaderOptions, resolver);
-        //读取指定yaml文件并且转化为map对象返回
-        return ClassPathUtils.readInputStream(path, (input) -> {
-            return (Map<String, Object>) yaml.load(input);
+    /**
+     * 按事件流读取yaml文件，展开后的key-value直接交给consumer，不构造完整的Map树。
+     * 所有标量都按字符串处理；标量列表作为List，对象列表展开为key[0].xxx。
+     */
+    public static void loadYaml(String path, BiConsumer<String, Object> consumer) {
+        ClassPathUtils.readInputStream(path, (input) -> {
+            loadYaml(input, consumer);
+            return null;
         });
     }
 
-    private static void converTo(Map<String, Object> source, String prefix, Map<String, Object> plain) {
-        for (String key : source.keySet()) {
-            Object value = source.get(key);
-            if (value instanceof Map) {
-                Map<String, Object> subMap = (Map<String, Object>) value;
-                converTo(subMap, prefix + key + ".", plain);
-            } else if (value instanceof List) {
-                plain.put(prefix + key, value);
-            }else {
-                plain.put(prefix + key,value.toString());
+    /**
+     * 读取文件系统中的yaml文件，其他同{@link #loadYaml(String, BiConsumer)}。
+     */
+    public static void loadYaml(Path file, BiConsumer<String, Object> consumer) {
+        try (InputStream input = Files.newInputStream(file)) {
+            loadYaml(input, consumer);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    static void loadYaml(InputStream input, BiConsumer<String, Object> consumer) {
+        var loaderOptions = new LoaderOptions();
+        //生成的配置文件可能有几十MB:
+        loaderOptions.setCodePointLimit(Integer.MAX_VALUE);
+        var yaml = new Yaml(loaderOptions);
+        var flattener = new YamlFlattener(consumer);
+        for (Event event : yaml.parse(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+            flattener.accept(event);
+        }
+    }
+}
+
+/**
+ * 把yaml事件流展开为扁平的key：所有层级共用一个StringBuilder保存当前key，进入子节点时追加，离开时截断。
+ */
+class YamlFlattener {
+
+    static final String MERGE_KEY = "<<";
+
+    final BiConsumer<String, Object> consumer;
+
+    // 当前key:
+    final StringBuilder key = new StringBuilder(128);
+
+    final Deque<Frame> frames = new ArrayDeque<>();
+
+    // 锚点 -> 该节点展开后相对于节点key的条目，用于展开别名:
+    final Map<String, List<Object[]>> anchors = new HashMap<>();
+
+    // 正在记录的锚点节点:
+    final List<Recorder> recorders = new ArrayList<>();
+
+    // 列表中嵌套的列表无法展开，构造为List:
+    final Deque<Container> materializing = new ArrayDeque<>();
+
+    YamlFlattener(BiConsumer<String, Object> consumer) {
+        this.consumer = consumer;
+    }
+
+    void accept(Event event) {
+        if (!this.materializing.isEmpty()) {
+            materialize(event);
+            return;
+        }
+        switch (event.getEventId()) {
+            case MappingStart -> startMapping(((NodeEvent) event).getAnchor());
+            case SequenceStart -> startSequence(((NodeEvent) event).getAnchor());
+            case MappingEnd, SequenceEnd -> end();
+            case Scalar -> scalar((ScalarEvent) event);
+            case Alias -> alias(((AliasEvent) event).getAnchor());
+            default -> {
+                // StreamStart, DocumentStart等不影响key
             }
         }
     }
 
+    void startMapping(String anchor) {
+        Frame parent = this.frames.peek();
+        if (parent != null && parent.sequence) {
+            //列表中出现对象，之前的标量也按下标展开:
+            parent.switchToIndexed(this);
+            this.key.append('[').append(parent.index).append(']');
+        }
+        String nodeKey = this.key.toString();
+        if (anchor != null) {
+            this.recorders.add(new Recorder(anchor, nodeKey));
+        }
+        if (!this.key.isEmpty()) {
+            this.key.append('.');
+        }
+        this.frames.push(new Frame(false, this.key.length(), nodeKey, anchor));
+    }
 
-}
-//禁用隐式解析器功能
-class NoImplicitResolver extends Resolver {
+    void startSequence(String anchor) {
+        Frame parent = this.frames.peek();
+        if (parent == null) {
+            throw new IllegalArgumentException("Top level of yaml must be a mapping.");
+        }
+        if (parent.sequence) {
+            //列表中的列表作为一个整体值:
+            this.materializing.push(new Container(true));
+            return;
+        }
+        if (isMergeKey(parent)) {
+            //<<: [*a, *b] 依次合并到当前对象:
+            Frame frame = new Frame(true, this.key.length(), this.key.toString(), null);
+            frame.mergeTarget = parent;
+            this.frames.push(frame);
+            return;
+        }
+        String nodeKey = this.key.toString();
+        if (anchor != null) {
+            this.recorders.add(new Recorder(anchor, nodeKey));
+        }
+        this.frames.push(new Frame(true, this.key.length(), nodeKey, anchor));
+    }
+
+    void end() {
+        Frame frame = this.frames.pop();
+        if (frame.sequence && !frame.indexed && frame.mergeTarget == null) {
+            emit(frame.nodeKey, frame.scalars);
+        }
+        if (frame.merged != null) {
+            emitMerged(frame);
+        }
+        if (frame.anchor != null) {
+            finishRecorder(frame.anchor);
+        }
+        valueDone();
+    }
+
+    void scalar(ScalarEvent event) {
+        Frame frame = this.frames.peek();
+        if (frame == null) {
+            return;
+        }
+        String value = event.getValue();
+        if (!frame.sequence && frame.expectKey) {
+            this.key.setLength(frame.prefixLength);
+            this.key.append(value);
+            frame.expectKey = false;
+            if (!MERGE_KEY.equals(value)) {
+                frame.addExplicitKey(value);
+            }
+            return;
+        }
+        if (event.getAnchor() != null) {
+            this.anchors.put(event.getAnchor(), List.<Object[]>of(new Object[]{"", value}));
+        }
+        addValue(frame, value);
+    }
+
+    void alias(String anchor) {
+        List<Object[]> entries = this.anchors.get(anchor);
+        if (entries == null) {
+            throw new IllegalArgumentException("Unknown yaml alias: *" + anchor);
+        }
+        Frame frame = this.frames.peek();
+        if (frame.mergeTarget != null) {
+            //<<: [*a, *b] 中的一项，排在前面的优先:
+            frame.mergeTarget.addMerged(entries);
+            return;
+        }
+        if (isMergeKey(frame)) {
+            //<<: *anchor 合并到当前对象，对象结束时才展开，显式设置的key优先:
+            frame.addMerged(entries);
+            this.key.setLength(frame.prefixLength);
+            frame.expectKey = true;
+            return;
+        }
+        if (entries.size() == 1 && ((String) entries.get(0)[0]).isEmpty()) {
+            addValue(frame, entries.get(0)[1]);
+            return;
+        }
+        if (frame.sequence) {
+            frame.switchToIndexed(this);
+            this.key.append('[').append(frame.index).append(']');
+        }
+        String nodeKey = this.key.toString();
+        for (Object[] entry : entries) {
+            emit(nodeKey + entry[0], entry[1]);
+        }
+        valueDone();
+    }
+
+    boolean isMergeKey(Frame frame) {
+        return !frame.sequence && !frame.expectKey && MERGE_KEY.contentEquals(this.key.subSequence(frame.prefixLength, this.key.length()));
+    }
 
-    public NoImplicitResolver() {
-        super();
-        super.yamlImplicitResolvers.clear();
+    // 与yaml.load一致：合并是浅层的，顶层key显式设置或已由前面的锚点提供时，整个子树都不再合并:
+    void emitMerged(Frame frame) {
+        Set<String> taken = frame.explicitKeys == null ? new HashSet<>() : new HashSet<>(frame.explicitKeys);
+        for (List<Object[]> entries : frame.merged) {
+            Set<String> provided = new HashSet<>();
+            for (Object[] entry : entries) {
+                String suffix = (String) entry[0];
+                String relative = suffix.startsWith(".") ? suffix.substring(1) : suffix;
+                String topKey = topKey(relative);
+                if (!taken.contains(topKey)) {
+                    provided.add(topKey);
+                    emit(frame.nodeKey.isEmpty() ? relative : frame.nodeKey + "." + relative, entry[1]);
+                }
+            }
+            taken.addAll(provided);
+        }
+    }
+
+    // a.b、a[0].b中的a:
+    static String topKey(String relative) {
+        for (int i = 0; i < relative.length(); i++) {
+            char c = relative.charAt(i);
+            if (c == '.' || c == '[') {
+                return relative.substring(0, i);
+            }
+        }
+        return relative;
+    }
+
+    // 标量或整体值出现在对象或列表中:
+    void addValue(Frame frame, Object value) {
+        if (frame.sequence) {
+            if (frame.indexed) {
+                emit(frame.nodeKey + "[" + frame.index + "]", value);
+            } else {
+                frame.scalars.add(value);
+            }
+            frame.index++;
+        } else {
+            emit(this.key.toString(), value);
+            this.key.setLength(frame.prefixLength);
+            frame.expectKey = true;
+        }
+    }
+
+    // 一个对象或列表节点结束，回到父节点:
+    void valueDone() {
+        Frame parent = this.frames.peek();
+        if (parent == null) {
+            this.key.setLength(0);
+        } else if (parent.sequence) {
+            parent.index++;
+            this.key.setLength(parent.prefixLength);
+        } else {
+            this.key.setLength(parent.prefixLength);
+            parent.expectKey = true;
+        }
+    }
+
+    void materialize(Event event) {
+        switch (event.getEventId()) {
+            case SequenceStart -> this.materializing.push(new Container(true));
+            case MappingStart -> this.materializing.push(new Container(false));
+            case MappingEnd, SequenceEnd -> {
+                Object value = this.materializing.pop().value();
+                if (this.materializing.isEmpty()) {
+                    addValue(this.frames.peek(), value);
+                } else {
+                    this.materializing.peek().add(value);
+                }
+            }
+            case Scalar -> this.materializing.peek().add(((ScalarEvent) event).getValue());
+            case Alias -> {
+                String anchor = ((AliasEvent) event).getAnchor();
+                List<Object[]> entries = this.anchors.get(anchor);
+                if (entries == null || entries.size() != 1 || !((String) entries.get(0)[0]).isEmpty()) {
+                    throw new IllegalArgumentException("Unsupported yaml alias in nested list: *" + anchor);
+                }
+                this.materializing.peek().add(entries.get(0)[1]);
+            }
+            default -> {
+            }
+        }
+    }
+
+    void emit(String key, Object value) {
+        for (Recorder recorder : this.recorders) {
+            if (key.startsWith(recorder.nodeKey)) {
+                recorder.entries.add(new Object[]{key.substring(recorder.nodeKey.length()), value});
+            }
+        }
+        this.consumer.accept(key, value);
+    }
+
+    void finishRecorder(String anchor) {
+        for (int i = this.recorders.size() - 1; i >= 0; i--) {
+            Recorder recorder = this.recorders.get(i);
+            if (recorder.anchor.equals(anchor)) {
+                this.recorders.remove(i);
+                this.anchors.put(anchor, List.copyOf(recorder.entries));
+                return;
+            }
+        }
+    }
+
+    /**
+     * 一层对象或列表：prefixLength为子节点key的起始位置，nodeKey为节点自身的key。
+     */
+    static class Frame {
+        final boolean sequence;
+        final int prefixLength;
+        final String nodeKey;
+        final String anchor;
+        // 对象：下一个标量是否为key:
+        boolean expectKey = true;
+        // 列表：当前下标，是否已按下标展开，未展开时收集的标量:
+        int index = 0;
+        boolean indexed = false;
+        List<Object> scalars = new ArrayList<>();
+        // 对象：显式设置的key，以及<<合并的锚点条目（按优先级）:
+        Set<String> explicitKeys;
+        List<List<Object[]>> merged;
+        // <<: [...]列表：合并到的对象:
+        Frame mergeTarget;
+
+        Frame(boolean sequence, int prefixLength, String nodeKey, String anchor) {
+            this.sequence = sequence;
+            this.prefixLength = prefixLength;
+            this.nodeKey = nodeKey;
+            this.anchor = anchor;
+        }
+
+        void addExplicitKey(String key) {
+            if (this.explicitKeys == null) {
+                this.explicitKeys = new HashSet<>();
+            }
+            this.explicitKeys.add(key);
+        }
+
+        void addMerged(List<Object[]> entries) {
+            if (this.merged == null) {
+                this.merged = new ArrayList<>();
+            }
+            this.merged.add(entries);
+        }
+
+        void switchToIndexed(YamlFlattener flattener) {
+            if (!this.indexed) {
+                this.indexed = true;
+                for (int i = 0; i < this.scalars.size(); i++) {
+                    flattener.emit(this.nodeKey + "[" + i + "]", this.scalars.get(i));
+                }
+                this.scalars = null;
+            }
+        }
+    }
+
+    /**
+     * 构造中的List或Map，Map的key和value交替出现。
+     */
+    static class Container {
+        final List<Object> list;
+        final Map<String, Object> map;
+        String pendingKey;
+
+        Container(boolean sequence) {
+            this.list = sequence ? new ArrayList<>() : null;
+            this.map = sequence ? null : new LinkedHashMap<>();
+        }
+
+        void add(Object value) {
+            if (this.list != null) {
+                this.list.add(value);
+            } else if (this.pendingKey == null) {
+                this.pendingKey = String.valueOf(value);
+            } else {
+                this.map.put(this.pendingKey, value);
+                this.pendingKey = null;
+            }
+        }
+
+        Object value() {
+            return this.list != null ? this.list : this.map;
+        }
+    }
+
+    record Recorder(String anchor, String nodeKey, List<Object[]> entries) {
+        Recorder(String anchor, String nodeKey) {
+            this(anchor, nodeKey, new ArrayList<>());
+        }
     }
 }
@@ -6,6 +6,7 @@ import org.junit.Test;
 import java.io.IOException;
 import java.net.URISyntaxException;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import static org.junit.Assert.*;
 
@@ -33,4 +34,19 @@ public class ResourceResolverTest {
         }
     }
 
+    @Test
+    public void scanClassParallel() throws IOException, URISyntaxException {
+        var rr = new ResourceResolver("com.lfy.test", "com.lfy.io");
+        rr.setParallel(true);
+        List<String> classes = rr.scan(res -> {
+            String name = res.name();
+            if (name.endsWith(".class")) {
+                return name.substring(0, name.length() - 6).replace("/", ".").replace("\\", ".");
+            }
+            return null;
+        });
+        assertTrue(classes.contains("com.lfy.test.StudentBean"));
+        assertTrue(classes.contains("com.lfy.io.ResourceResolver"));
+        assertEquals(classes.size(), new HashSet<>(classes).size());
+    }
 }
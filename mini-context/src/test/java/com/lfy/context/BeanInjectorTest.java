@@ -0,0 +1,126 @@
+package com.lfy.context;
+
+import com.lfy.annotation.Autowired;
+import com.lfy.annotation.Value;
+import com.lfy.exception.BeanDefinitionException;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+public class BeanInjectorTest {
+
+    public static class Base {
+        @Autowired
+        private Object privateField;
+
+        String setterValue;
+
+        @Value("${base}")
+        public void setValue(String value) {
+            this.setterValue = "base:" + value;
+        }
+
+        Object privateField() {
+            return this.privateField;
+        }
+    }
+
+    public static class Child extends Base {
+        @Value("${child}")
+        int port;
+
+        //覆写的方法按子类的注解处理，只注入一次:
+        @Override
+        @Value("${child.value}")
+        public void setValue(String value) {
+            this.setterValue = "child:" + value;
+        }
+
+        @Autowired(false)
+        Runnable setTask(Runnable task) {
+            return task;
+        }
+    }
+
+    public static class Plain {
+        String name;
+    }
+
+    public static class StaticField {
+        @Value("${x}")
+        static String value;
+    }
+
+    public static class FinalField {
+        @Value("${x}")
+        final String value = "";
+    }
+
+    public static class TwoParameters {
+        @Autowired
+        void set(Object a, Object b) {
+        }
+    }
+
+    public static class Both {
+        @Value("${x}")
+        @Autowired
+        Object value;
+    }
+
+    @Test
+    public void superclassInjectionPointsFirst() {
+        List<String> names = BeanInjector.forClass(Child.class).getInjectionPoints().stream().map(BeanInjector.InjectionPoint::name).toList();
+        //父类的注入点在前，同一个类中字段在方法前，方法之间的顺序不确定:
+        assertEquals(List.of(Base.class.getName() + ".privateField", Child.class.getName() + ".port"), names.subList(0, 2));
+        assertEquals(Set.of(Child.class.getName() + ".setValue()", Child.class.getName() + ".setTask()"), Set.copyOf(names.subList(2, names.size())));
+    }
+
+    @Test
+    public void injectFieldsAndSettersThroughHandles() throws Throwable {
+        Child child = new Child();
+        Object dependency = new Object();
+        Runnable task = () -> {
+        };
+        for (BeanInjector.InjectionPoint point : BeanInjector.forClass(Child.class).getInjectionPoints()) {
+            if (point.type() == Object.class) {
+                point.inject(child, dependency);
+            } else if (point.type() == int.class) {
+                //基本类型字段写入装箱的值:
+                point.inject(child, 8080);
+            } else if (point.type() == String.class) {
+                point.inject(child, "v");
+            } else {
+                //setter的返回值被忽略:
+                point.inject(child, task);
+            }
+        }
+        assertSame(dependency, child.privateField());
+        assertEquals(8080, child.port);
+        assertEquals("child:v", child.setterValue);
+    }
+
+    @Test
+    public void wrongValueTypeFails() {
+        BeanInjector.InjectionPoint port = BeanInjector.forClass(Child.class).getInjectionPoints().stream().filter(p -> p.type() == int.class).findFirst().orElseThrow();
+        assertThrows(ClassCastException.class, () -> port.inject(new Child(), "8080"));
+    }
+
+    @Test
+    public void cachedPerClass() {
+        assertSame(BeanInjector.forClass(Child.class), BeanInjector.forClass(Child.class));
+        assertEquals(List.of(), BeanInjector.forClass(Plain.class).getInjectionPoints());
+        assertEquals(List.of(), BeanInjector.forClass(Runnable.class).getInjectionPoints());
+    }
+
+    @Test
+    public void invalidInjectionPoints() {
+        assertThrows(BeanDefinitionException.class, () -> BeanInjector.forClass(StaticField.class));
+        assertThrows(BeanDefinitionException.class, () -> BeanInjector.forClass(FinalField.class));
+        assertThrows(BeanDefinitionException.class, () -> BeanInjector.forClass(TwoParameters.class));
+        assertThrows(BeanDefinitionException.class, () -> BeanInjector.forClass(Both.class));
+    }
+}
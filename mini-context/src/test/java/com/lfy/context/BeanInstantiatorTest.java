@@ -0,0 +1,108 @@
+package com.lfy.context;
+
+import com.lfy.annotation.Autowired;
+import com.lfy.annotation.Value;
+import com.lfy.exception.BeanDefinitionException;
+import org.junit.Test;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class BeanInstantiatorTest {
+
+    public static class Bean {
+        final String name;
+        final int port;
+
+        private Bean(@Value("${app.name}") String name, @Value("${app.port}") int port) {
+            this.name = name;
+            this.port = port;
+        }
+    }
+
+    public static class Factory {
+        final String prefix;
+
+        public Factory(String prefix) {
+            this.prefix = prefix;
+        }
+
+        Bean create(@Autowired(name = "other", value = false) List<String> names) {
+            return new Bean(this.prefix + names, 0);
+        }
+
+        static Bean createStatic(long port) {
+            return new Bean("static", (int) port);
+        }
+
+        static Bean fail() throws Exception {
+            throw new Exception("boom");
+        }
+    }
+
+    @Test
+    public void privateConstructor() throws Throwable {
+        Constructor<?> constructor = Bean.class.getDeclaredConstructor(String.class, int.class);
+        //BeanDefinition创建前设置accessible:
+        constructor.setAccessible(true);
+        BeanInstantiator instantiator = BeanInstantiator.forConstructor(constructor);
+        Bean bean = (Bean) instantiator.instantiate(null, new Object[] { "app", 8080 });
+        assertEquals("app", bean.name);
+        assertEquals(8080, bean.port);
+
+        List<BeanInstantiator.ArgumentSpec> args = instantiator.getArguments();
+        assertEquals(2, args.size());
+        assertEquals(String.class, args.get(0).type());
+        assertEquals("${app.name}", args.get(0).value().value());
+        assertEquals(int.class, args.get(1).type());
+        assertNull(args.get(1).autowired());
+    }
+
+    @Test
+    public void inaccessibleConstructor() throws Exception {
+        Constructor<?> constructor = Bean.class.getDeclaredConstructor(String.class, int.class);
+        constructor.setAccessible(false);
+        assertThrows(BeanDefinitionException.class, () -> BeanInstantiator.forConstructor(constructor));
+    }
+
+    @Test
+    public void instanceFactoryMethod() throws Throwable {
+        Method method = Factory.class.getDeclaredMethod("create", List.class);
+        method.setAccessible(true);
+        BeanInstantiator instantiator = BeanInstantiator.forFactoryMethod(method);
+        Bean bean = (Bean) instantiator.instantiate(new Factory("p-"), new Object[] { List.of("a", "b") });
+        assertEquals("p-[a, b]", bean.name);
+        BeanInstantiator.ArgumentSpec arg = instantiator.getArguments().get(0);
+        assertEquals("other", arg.autowired().name());
+        assertEquals("java.util.List<java.lang.String>", arg.genericType().getTypeName());
+    }
+
+    @Test
+    public void staticFactoryMethod() throws Throwable {
+        Method method = Factory.class.getDeclaredMethod("createStatic", long.class);
+        method.setAccessible(true);
+        Bean bean = (Bean) BeanInstantiator.forFactoryMethod(method).instantiate(null, new Object[] { 9L });
+        assertEquals("static", bean.name);
+        assertEquals(9, bean.port);
+    }
+
+    @Test
+    public void exceptionIsNotWrapped() throws Exception {
+        Method method = Factory.class.getDeclaredMethod("fail");
+        method.setAccessible(true);
+        BeanInstantiator instantiator = BeanInstantiator.forFactoryMethod(method);
+        Exception e = assertThrows(Exception.class, () -> instantiator.instantiate(null, new Object[0]));
+        assertEquals("boom", e.getMessage());
+    }
+
+    @Test
+    public void wrongArgumentCount() throws Exception {
+        Constructor<?> constructor = Bean.class.getDeclaredConstructor(String.class, int.class);
+        constructor.setAccessible(true);
+        BeanInstantiator instantiator = BeanInstantiator.forConstructor(constructor);
+        assertThrows(IllegalArgumentException.class, () -> instantiator.instantiate(null, new Object[] { "x" }));
+    }
+}
@@ -0,0 +1,92 @@
+package com.lfy.context;
+
+import com.lfy.exception.BeanCreationException;
+import com.lfy.io.PropertyResolver;
+import com.lfy.test.scope.CustomBean;
+import com.lfy.test.scope.Destroyed;
+import com.lfy.test.scope.Holder;
+import com.lfy.test.scope.PooledBean;
+import com.lfy.test.scope.ProtoBean;
+import com.lfy.test.scope.ScopeConfig;
+import com.lfy.test.scope.ThreadBean;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.Assert.*;
+
+public class BeanScopeTest {
+
+    @Before
+    public void setUp() {
+        Destroyed.BEANS.clear();
+    }
+
+    AnnotationConfigApplicationContext createContext() throws Exception {
+        return new AnnotationConfigApplicationContext(ScopeConfig.class, new PropertyResolver(new Properties()));
+    }
+
+    @Test
+    public void resolveScopeFromAnnotation() throws Exception {
+        try (var ctx = createContext()) {
+            assertEquals(BeanScope.SINGLETON, ctx.findBeanDefinition("holder").getScope());
+            assertEquals(BeanScope.PROTOTYPE, ctx.findBeanDefinition("protoBean").getScope());
+            assertEquals(BeanScope.POOLED, ctx.findBeanDefinition("pooledBean").getScope());
+            assertEquals(BeanScope.THREAD, ctx.findBeanDefinition("threadBean").getScope());
+
+            assertNotSame(ctx.getBean(ProtoBean.class), ctx.getBean(ProtoBean.class));
+            ThreadBean threadBean = ctx.getBean(ThreadBean.class);
+            assertSame(threadBean, ctx.getBean(ThreadBean.class));
+            assertNotSame(threadBean, CompletableFuture.supplyAsync(() -> ctx.getBean(ThreadBean.class)).get());
+            //非singleton实例不发布到BeanDefinition:
+            assertNull(ctx.findBeanDefinition("protoBean").getInstance());
+        }
+    }
+
+    @Test
+    public void pooledBeanIsReusedAfterRelease() throws Exception {
+        try (var ctx = createContext()) {
+            PooledBean bean = ctx.getBean(PooledBean.class);
+            assertNotSame(bean, ctx.getBean(PooledBean.class));
+            ctx.releaseBean("pooledBean", bean);
+            assertSame(bean, ctx.getBean(PooledBean.class));
+            assertThrows(IllegalArgumentException.class, () -> ctx.releaseBean("pooledBean", new PooledBean()));
+        }
+    }
+
+    @Test
+    public void customScope() throws Exception {
+        try (var ctx = createContext()) {
+            BeanCreationException e = assertThrows(BeanCreationException.class, () -> ctx.getBean(CustomBean.class));
+            assertTrue(e.getMessage().contains("No scope registered with name 'custom'"));
+            CustomBean shared = new CustomBean();
+            ctx.registerScope("custom", (def, objectFactory) -> shared);
+            assertSame(shared, ctx.getBean(CustomBean.class));
+            assertThrows(IllegalArgumentException.class, () -> ctx.registerScope(BeanScope.SINGLETON, (def, objectFactory) -> null));
+        }
+    }
+
+    @Test
+    public void destroyScopedBeansInjectedIntoSingletons() throws Exception {
+        Holder holder;
+        PooledBean idle;
+        ProtoBean notInjected;
+        try (var ctx = createContext()) {
+            holder = ctx.getBean(Holder.class);
+            assertNotNull(holder.proto);
+            assertNotNull(holder.pooled);
+            assertNotNull(holder.thread);
+            idle = ctx.getBean(PooledBean.class);
+            ctx.releaseBean("pooledBean", idle);
+            notInjected = ctx.getBean(ProtoBean.class);
+        }
+        //先销毁singleton，再销毁注入其中的实例和池中的空闲实例；通过getBean获取的prototype由使用方负责:
+        assertEquals(holder, Destroyed.BEANS.get(0));
+        assertTrue(Destroyed.BEANS.containsAll(List.of(holder.proto, holder.pooled, holder.thread, idle)));
+        assertFalse(Destroyed.BEANS.contains(notInjected));
+        assertEquals(5, Destroyed.BEANS.size());
+    }
+}
@@ -0,0 +1,83 @@
+package com.lfy.context;
+
+import com.lfy.exception.NoUniqueBeanDefinitionException;
+import org.junit.Test;
+
+import java.io.Serializable;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class BeanTypeIndexTest {
+
+    interface Repository {
+    }
+
+    interface NamedRepository extends Repository {
+    }
+
+    public static class BaseRepository implements NamedRepository {
+    }
+
+    public static class JdbcRepository extends BaseRepository implements Serializable {
+    }
+
+    public static class MemoryRepository implements Repository {
+    }
+
+    public static class Service {
+    }
+
+    static BeanDefinition def(String name, Class<?> clazz, int order, boolean primary) throws NoSuchMethodException {
+        return new BeanDefinition(name, clazz, clazz.getConstructor(), order, primary, null, null, null, null);
+    }
+
+    @Test
+    public void findBySuperclassAndInterfaces() throws Exception {
+        BeanDefinition jdbc = def("jdbc", JdbcRepository.class, 0, false);
+        BeanDefinition service = def("service", Service.class, 0, false);
+        var index = new BeanTypeIndex(List.of(jdbc, service));
+        assertSame(jdbc, index.findBeanDefinition(JdbcRepository.class));
+        assertSame(jdbc, index.findBeanDefinition(BaseRepository.class));
+        assertSame(jdbc, index.findBeanDefinition(NamedRepository.class));
+        assertSame(jdbc, index.findBeanDefinition(Repository.class));
+        assertSame(jdbc, index.findBeanDefinition(Serializable.class));
+        assertSame(service, index.findBeanDefinition(Service.class));
+        assertNull(index.findBeanDefinition(MemoryRepository.class));
+        assertEquals(List.of(), index.findBeanDefinitions(String.class));
+    }
+
+    @Test
+    public void sortByOrderThenName() throws Exception {
+        BeanDefinition b = def("b", MemoryRepository.class, 1, false);
+        BeanDefinition a = def("a", JdbcRepository.class, 1, false);
+        BeanDefinition c = def("c", Service.class, 0, false);
+        var index = new BeanTypeIndex(List.of(b, a, c));
+        assertEquals(List.of(a, b), index.findBeanDefinitions(Repository.class));
+        assertEquals(List.of(c, a, b), index.findBeanDefinitions(Object.class));
+        assertThrows(UnsupportedOperationException.class, () -> index.findBeanDefinitions(Repository.class).clear());
+    }
+
+    @Test
+    public void primaryResolvesMultipleCandidates() throws Exception {
+        BeanDefinition jdbc = def("jdbc", JdbcRepository.class, 0, false);
+        BeanDefinition memory = def("memory", MemoryRepository.class, 1, true);
+        var index = new BeanTypeIndex(List.of(jdbc, memory));
+        assertSame(memory, index.findBeanDefinition(Repository.class));
+        //只有一个候选时不需要@Primary:
+        assertSame(jdbc, index.findBeanDefinition(NamedRepository.class));
+    }
+
+    @Test
+    public void noUniqueBeanDefinition() throws Exception {
+        var noPrimary = new BeanTypeIndex(List.of(def("jdbc", JdbcRepository.class, 0, false), def("memory", MemoryRepository.class, 0, false)));
+        NoUniqueBeanDefinitionException e = assertThrows(NoUniqueBeanDefinitionException.class, () -> noPrimary.findBeanDefinition(Repository.class));
+        assertTrue(e.getMessage().contains("no @Primary"));
+
+        var multiplePrimary = new BeanTypeIndex(List.of(def("jdbc", JdbcRepository.class, 0, true), def("memory", MemoryRepository.class, 0, true)));
+        e = assertThrows(NoUniqueBeanDefinitionException.class, () -> multiplePrimary.findBeanDefinition(Repository.class));
+        assertTrue(e.getMessage().contains("multiple @Primary"));
+        //列表查找不受影响:
+        assertEquals(2, multiplePrimary.findBeanDefinitions(Repository.class).size());
+    }
+}
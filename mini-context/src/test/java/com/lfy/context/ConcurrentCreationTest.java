@@ -0,0 +1,83 @@
+package com.lfy.context;
+
+import com.lfy.exception.UnsatisfiedDependencyException;
+import com.lfy.io.PropertyResolver;
+import com.lfy.test.lazycycle.CyclicA;
+import com.lfy.test.lazycycle.CyclicB;
+import com.lfy.test.lazycycle.Independent;
+import com.lfy.test.lazycycle.LazyCycleConfig;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class ConcurrentCreationTest {
+
+    @Test(timeout = 10_000)
+    public void mutualDependencyFromTwoThreads() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            for (int i = 0; i < 50; i++) {
+                try (var ctx = new AnnotationConfigApplicationContext(LazyCycleConfig.class, new PropertyResolver(new Properties()))) {
+                    CountDownLatch start = new CountDownLatch(1);
+                    List<Future<Object>> futures = List.of(executor.submit(getBean(ctx, start, CyclicA.class)), executor.submit(getBean(ctx, start, CyclicB.class)));
+                    start.countDown();
+                    //两个线程都应报告循环依赖，而不是互相等待:
+                    for (Future<Object> future : futures) {
+                        ExecutionException e = assertThrows(ExecutionException.class, () -> future.get(5, TimeUnit.SECONDS));
+                        assertTrue(e.getCause() instanceof UnsatisfiedDependencyException);
+                        assertTrue(e.getCause().getMessage().contains("Circular dependency"));
+                    }
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void concurrentGetBeanCreatesOnce() throws Exception {
+        try (var ctx = new AnnotationConfigApplicationContext(LazyCycleConfig.class, new PropertyResolver(new Properties()))) {
+            ExecutorService executor = Executors.newFixedThreadPool(8);
+            CountDownLatch start = new CountDownLatch(1);
+            Set<Object> instances = ConcurrentHashMap.newKeySet();
+            for (int i = 0; i < 8; i++) {
+                executor.submit(() -> {
+                    start.await();
+                    return instances.add(ctx.getBean(Independent.class));
+                });
+            }
+            start.countDown();
+            executor.shutdown();
+            assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+            assertEquals(1, instances.size());
+            //创建完成后不再保留创建锁:
+            assertEquals(Map.of(), getCreationLocks(ctx));
+        }
+    }
+
+    Callable<Object> getBean(AnnotationConfigApplicationContext ctx, CountDownLatch start, Class<?> type) {
+        return () -> {
+            start.await();
+            return ctx.getBean(type);
+        };
+    }
+
+    static Map<?, ?> getCreationLocks(AnnotationConfigApplicationContext ctx) throws ReflectiveOperationException {
+        var field = AnnotationConfigApplicationContext.class.getDeclaredField("creationLocks");
+        field.setAccessible(true);
+        return (Map<?, ?>) field.get(ctx);
+    }
+}
@@ -0,0 +1,109 @@
+package com.lfy.context;
+
+import com.lfy.annotation.Bean;
+import com.lfy.exception.BeanDefinitionException;
+import com.lfy.io.PropertyResolver;
+import com.lfy.test.factory.Car;
+import com.lfy.test.factory.Engine;
+import com.lfy.test.factory.FactoryConfig;
+import com.lfy.test.factory.Wheels;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Properties;
+
+import static org.junit.Assert.*;
+
+public class FactoryMethodTest {
+
+    public static class VoidFactory {
+        @Bean
+        void nothing() {
+        }
+    }
+
+    public static class PrimitiveFactory {
+        @Bean
+        int number() {
+            return 1;
+        }
+    }
+
+    AnnotationConfigApplicationContext ctx;
+
+    @Before
+    public void setUp() throws Exception {
+        Properties props = new Properties();
+        props.setProperty("engine.power", "150");
+        ctx = new AnnotationConfigApplicationContext(FactoryConfig.class, new PropertyResolver(props));
+    }
+
+    @After
+    public void tearDown() {
+        ctx.close();
+    }
+
+    @Test
+    public void instanceFactoryMethod() {
+        BeanDefinition def = ctx.findBeanDefinition("engine");
+        assertEquals(Engine.class, def.getBeanClass());
+        assertEquals("factoryConfig", def.getFactoryName());
+        assertSame(ctx.findBeanDefinition("factoryConfig"), def.getInjectionPlan().factoryDefinition());
+        assertTrue(ctx.findDependencies(def).contains(ctx.findBeanDefinition("factoryConfig")));
+        assertEquals(new Engine("engine", 150), ctx.getBean("engine"));
+    }
+
+    @Test
+    public void staticFactoryMethod() {
+        BeanDefinition def = ctx.findBeanDefinition("wheels");
+        //静态@Bean方法不依赖@Configuration实例:
+        assertNull(def.getInjectionPlan().factoryDefinition());
+        assertEquals(List.of(), ctx.findDependencies(def));
+        assertEquals(new Wheels(4), ctx.getBean(Wheels.class));
+    }
+
+    @Test
+    public void staticFactoryMethodWithoutConfigurationInstance() {
+        BeanDefinition def = ctx.findBeanDefinition("wheels");
+        ctx.findBeanDefinition("factoryConfig").setInstance(null);
+        assertEquals(new Wheels(4), ctx.instantiate(def, def.getInjectionPlan()));
+    }
+
+    @Test
+    public void factoryMethodParameters() {
+        Car car = ctx.getBean(Car.class);
+        assertSame(ctx.getBean("turbo"), car.engine);
+        assertSame(ctx.getBean("engine"), car.standardEngine);
+        assertSame(ctx.getBean(Wheels.class), car.wheels);
+        //@Bean(initMethod)在创建后调用:
+        assertTrue(car.running);
+    }
+
+    @Test
+    public void primaryFactoryMethod() {
+        assertTrue(ctx.findBeanDefinition("turbo").isPrimary());
+        assertFalse(ctx.findBeanDefinition("engine").isPrimary());
+        assertEquals(new Engine("turbo", 300), ctx.getBean(Engine.class));
+        assertSame(ctx.findBeanDefinition("turbo"), ctx.findBeanDefinition(Engine.class));
+    }
+
+    @Test
+    public void destroyMethod() {
+        Car car = ctx.getBean(Car.class);
+        ctx.close();
+        assertFalse(car.running);
+    }
+
+    @Test
+    public void invalidReturnTypes() {
+        BeanDefinitionException e = assertThrows(BeanDefinitionException.class,
+                () -> ctx.scanFactoryMethods("voidFactory", VoidFactory.class, new HashMap<>()));
+        assertTrue(e.getMessage(), e.getMessage().endsWith("must not return void."));
+        e = assertThrows(BeanDefinitionException.class,
+                () -> ctx.scanFactoryMethods("primitiveFactory", PrimitiveFactory.class, new HashMap<>()));
+        assertTrue(e.getMessage(), e.getMessage().endsWith("must not return primitive type."));
+    }
+}
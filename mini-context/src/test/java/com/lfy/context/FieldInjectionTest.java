@@ -0,0 +1,60 @@
+package com.lfy.context;
+
+import com.lfy.io.PropertyResolver;
+import com.lfy.test.inject.Client;
+import com.lfy.test.inject.DefaultGreeter;
+import com.lfy.test.inject.Greeter;
+import com.lfy.test.inject.InjectConfig;
+import com.lfy.test.inject.Repository;
+import org.junit.Test;
+
+import java.util.Properties;
+
+import static org.junit.Assert.*;
+
+public class FieldInjectionTest {
+
+    @Test
+    public void configurationFields() throws Exception {
+        try (var ctx = new AnnotationConfigApplicationContext(InjectConfig.class, new PropertyResolver(new Properties()))) {
+            InjectConfig config = ctx.getBean(InjectConfig.class);
+            assertSame(ctx.getBean(Repository.class), config.repository);
+            assertTrue(config.repositoryInjectedBeforeInit);
+            assertEquals("hello", config.greeting);
+        }
+    }
+
+    @Test
+    public void factoryBeanInjectedByActualType() throws Exception {
+        Properties props = new Properties();
+        props.setProperty("app.greeting", "hi");
+        props.setProperty("app.name", "mini");
+        try (var ctx = new AnnotationConfigApplicationContext(InjectConfig.class, new PropertyResolver(props))) {
+            Greeter greeter = ctx.getBean(Greeter.class);
+            assertTrue(greeter instanceof DefaultGreeter);
+            //私有字段和@Value setter都在DefaultGreeter上声明:
+            assertSame(ctx.getBean(Repository.class), ((DefaultGreeter) greeter).getRepository());
+            assertEquals("hi, mini", greeter.greet());
+        }
+    }
+
+    @Test
+    public void fieldAndSetterInjection() throws Exception {
+        try (var ctx = new AnnotationConfigApplicationContext(InjectConfig.class, new PropertyResolver(new Properties()))) {
+            Client client = ctx.getBean(Client.class);
+            assertSame(ctx.getBean(Greeter.class), client.getGreeter());
+            assertSame(ctx.getBean(Repository.class), client.repository);
+            assertEquals("hello, world", client.getGreeter().greet());
+        }
+    }
+
+    @Test
+    public void parallelCreation() throws Exception {
+        try (var ctx = new AnnotationConfigApplicationContext(InjectConfig.class, new PropertyResolver(new Properties()),
+                AnnotationConfigApplicationContext.newCreationExecutor())) {
+            Client client = ctx.getBean(Client.class);
+            assertSame(ctx.getBean(Repository.class), ((DefaultGreeter) client.getGreeter()).getRepository());
+            assertSame(ctx.getBean(Repository.class), ctx.getBean(InjectConfig.class).repository);
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.lfy.context;
+
+import com.lfy.exception.BeanDefinitionException;
+import com.lfy.io.PropertyResolver;
+import com.lfy.test.plan.AppProperties;
+import com.lfy.test.plan.PlanConfig;
+import com.lfy.test.plan.Repository;
+import com.lfy.test.plan.Service;
+import com.lfy.test.planerror.UnsupportedValue;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Properties;
+
+import static org.junit.Assert.*;
+
+public class InjectionPlanTest {
+
+    AnnotationConfigApplicationContext ctx;
+
+    @Before
+    public void setUp() throws Exception {
+        ctx = new AnnotationConfigApplicationContext(PlanConfig.class, new PropertyResolver(new Properties()));
+    }
+
+    @After
+    public void tearDown() {
+        ctx.close();
+    }
+
+    @Test
+    public void constructorAndInjectionPoints() {
+        InjectionPlan plan = ctx.findBeanDefinition("service").getInjectionPlan();
+        assertFalse(plan.configuration());
+        assertNull(plan.factoryDefinition());
+        assertNull(plan.propertiesPrefix());
+
+        List<InjectionPlan.Argument> args = plan.arguments();
+        assertEquals(2, args.size());
+        assertEquals(InjectionPlan.Kind.AUTOWIRED, args.get(0).kind());
+        assertSame(ctx.findBeanDefinition("repository"), args.get(0).target());
+        assertEquals(InjectionPlan.Kind.VALUE, args.get(1).kind());
+        assertEquals("${app.ports:80,443}", args.get(1).propertyKey());
+        assertEquals("java.util.List<java.lang.Integer>", args.get(1).valueType().getTypeName());
+
+        List<InjectionPlan.Injection> injections = plan.injections();
+        assertEquals(2, injections.size());
+        //可选依赖不存在时target为null:
+        assertEquals(Service.class.getName() + ".missing", injections.get(0).point().name());
+        assertEquals(InjectionPlan.Kind.AUTOWIRED, injections.get(0).argument().kind());
+        assertNull(injections.get(0).argument().target());
+        assertEquals(Service.class.getName() + ".setName()", injections.get(1).point().name());
+        assertEquals("${app.name:demo}", injections.get(1).argument().propertyKey());
+    }
+
+    @Test
+    public void factoryAndConfigurationPlans() {
+        assertTrue(ctx.findBeanDefinition("planConfig").getInjectionPlan().configuration());
+        InjectionPlan plan = ctx.findBeanDefinition("repository").getInjectionPlan();
+        assertSame(ctx.findBeanDefinition("planConfig"), plan.factoryDefinition());
+        assertEquals("${db.url:jdbc:mem}", plan.arguments().get(0).propertyKey());
+        assertEquals("jdbc:mem", ctx.getBean(Repository.class).url);
+    }
+
+    @Test
+    public void configurationPropertiesPlan() {
+        InjectionPlan plan = ctx.findBeanDefinition("appProperties").getInjectionPlan();
+        assertEquals("app", plan.propertiesPrefix());
+        assertEquals(List.of(), plan.arguments());
+        assertEquals(List.of(), plan.injections());
+    }
+
+    @Test
+    public void createBeanFollowingPlan() {
+        Service service = ctx.getBean(Service.class);
+        assertSame(ctx.getBean(Repository.class), service.repository);
+        assertEquals(List.of(80, 443), service.ports);
+        assertEquals("demo", service.name);
+        assertNull(service.missing);
+        assertNull(ctx.getBean(AppProperties.class).name());
+    }
+
+    @Test
+    public void rejectUnsupportedValueType() {
+        BeanDefinitionException e = assertThrows(BeanDefinitionException.class,
+                () -> new AnnotationConfigApplicationContext(UnsupportedValue.class, new PropertyResolver(new Properties())));
+        assertTrue(e.getMessage().contains("Unsupported @Value type"));
+    }
+}
@@ -0,0 +1,37 @@
+package com.lfy.context;
+
+import com.lfy.io.PropertyResolver;
+import com.lfy.test.lazycycle.FieldA;
+import com.lfy.test.lazycycle.FieldB;
+import com.lfy.test.lazycycle.Independent;
+import com.lfy.test.lazycycle.LazyCycleConfig;
+import org.junit.Test;
+
+import java.util.Properties;
+
+import static org.junit.Assert.*;
+
+public class LazyBeanTest {
+
+    @Test
+    public void lazyBeansAreCreatedOnFirstUse() throws Exception {
+        try (var ctx = new AnnotationConfigApplicationContext(LazyCycleConfig.class, new PropertyResolver(new Properties()))) {
+            assertNull(ctx.findBeanDefinition("independent").getInstance());
+            Independent bean = ctx.getBean(Independent.class);
+            assertSame(bean, ctx.findBeanDefinition("independent").getInstance());
+            assertSame(bean, ctx.getBean("independent"));
+        }
+    }
+
+    @Test
+    public void mutualFieldInjection() throws Exception {
+        try (var ctx = new AnnotationConfigApplicationContext(LazyCycleConfig.class, new PropertyResolver(new Properties()))) {
+            FieldA a = ctx.getBean(FieldA.class);
+            FieldB b = ctx.getBean(FieldB.class);
+            assertSame(b, a.other);
+            assertSame(a, b.other);
+            assertTrue(a.initialized);
+            assertTrue(b.initialized);
+        }
+    }
+}
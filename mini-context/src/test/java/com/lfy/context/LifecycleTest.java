@@ -0,0 +1,93 @@
+package com.lfy.context;
+
+import com.lfy.exception.BeanCreationException;
+import com.lfy.io.PropertyResolver;
+import com.lfy.test.lifecycle.Controller;
+import com.lfy.test.lifecycle.Events;
+import com.lfy.test.lifecycle.LifecycleConfig;
+import com.lfy.test.lifecycle.Repository;
+import com.lfy.test.lifecycle.Service;
+import com.lfy.test.lifecycle.TracedRepository;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.Assert.*;
+
+public class LifecycleTest {
+
+    @Before
+    public void setUp() {
+        Events.EVENTS.clear();
+    }
+
+    @Test
+    public void initAndDestroyInDependencyOrder() throws Exception {
+        try (var ctx = new AnnotationConfigApplicationContext(LifecycleConfig.class, new PropertyResolver(new Properties()))) {
+            assertEquals(List.of("init:repository", "init:service", "init:controller"), Events.EVENTS);
+            Events.EVENTS.clear();
+        }
+        assertEquals(List.of("destroy:controller", "destroy:service", "destroy:repository"), Events.EVENTS);
+    }
+
+    @Test
+    public void dependentsSeeProxyReturnedAfterInitialization() throws Exception {
+        try (var ctx = new AnnotationConfigApplicationContext(LifecycleConfig.class, new PropertyResolver(new Properties()))) {
+            Repository repository = ctx.getBean(Repository.class);
+            assertTrue(repository instanceof TracedRepository);
+            //构造方法和字段注入的都是代理:
+            assertSame(repository, ctx.getBean(Service.class).repository);
+            Controller controller = ctx.getBean(Controller.class);
+            assertSame(repository, controller.repository);
+            assertSame(ctx.getBean(Service.class), controller.service);
+            assertEquals("traced:repository", controller.initResult);
+        }
+    }
+
+    @Test
+    public void parallelCreationSeesProxy() throws Exception {
+        try (var ctx = new AnnotationConfigApplicationContext(LifecycleConfig.class, new PropertyResolver(new Properties()), AnnotationConfigApplicationContext.newCreationExecutor())) {
+            Repository repository = ctx.getBean(Repository.class);
+            assertTrue(repository instanceof TracedRepository);
+            assertSame(repository, ctx.getBean(Service.class).repository);
+            assertSame(repository, ctx.getBean(Controller.class).repository);
+        }
+        assertEquals(List.of("destroy:controller", "destroy:service", "destroy:repository"), Events.EVENTS.subList(3, 6));
+    }
+
+    @Test
+    public void closeRunsOnceFromShutdownHookAndClose() throws Exception {
+        var ctx = new AnnotationConfigApplicationContext(LifecycleConfig.class, new PropertyResolver(new Properties()));
+        ctx.registerShutdownHook();
+        Events.EVENTS.clear();
+        CountDownLatch start = new CountDownLatch(1);
+        Thread closer = new Thread(() -> {
+            try {
+                start.await();
+            } catch (InterruptedException e) {
+                return;
+            }
+            ctx.close();
+        });
+        closer.start();
+        //模拟JVM退出时执行shutdownHook，同时显式关闭:
+        ctx.shutdownHook.start();
+        start.countDown();
+        ctx.close();
+        closer.join();
+        ctx.shutdownHook.join();
+        ctx.close();
+        assertEquals(3, Events.EVENTS.size());
+        assertTrue(Events.EVENTS.containsAll(List.of("destroy:controller", "destroy:service", "destroy:repository")));
+    }
+
+    @Test
+    public void getBeanAfterClose() throws Exception {
+        var ctx = new AnnotationConfigApplicationContext(LifecycleConfig.class, new PropertyResolver(new Properties()));
+        ctx.close();
+        assertThrows(BeanCreationException.class, () -> ctx.getBean(Repository.class));
+    }
+}
@@ -0,0 +1,65 @@
+package com.lfy.context;
+
+import com.lfy.io.PropertyResolver;
+import com.lfy.test.parallel.Events;
+import com.lfy.test.parallel.ParallelConfig;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Properties;
+
+import static org.junit.Assert.*;
+
+public class ParallelCreationTest {
+
+    @Before
+    public void setUp() {
+        Events.EVENTS.clear();
+    }
+
+    @Test
+    public void createInDependencyOrder() throws Exception {
+        Properties props = new Properties();
+        props.setProperty("mini.create.parallel", "true");
+        for (int i = 0; i < 20; i++) {
+            Events.EVENTS.clear();
+            try (var ctx = new AnnotationConfigApplicationContext(ParallelConfig.class, new PropertyResolver(props))) {
+                assertDependencyOrder("create");
+                assertDependencyOrder("init");
+                //在独立的线程池中创建，而不是ForkJoinPool.commonPool():
+                for (String event : Events.EVENTS) {
+                    assertTrue(event, event.contains("@mini-create-"));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void createSequentially() throws Exception {
+        try (var ctx = new AnnotationConfigApplicationContext(ParallelConfig.class, new PropertyResolver(new Properties()))) {
+            assertDependencyOrder("create");
+            assertDependencyOrder("init");
+            String thread = Thread.currentThread().getName();
+            for (String event : Events.EVENTS) {
+                assertTrue(event, event.endsWith("@" + thread));
+            }
+        }
+    }
+
+    void assertDependencyOrder(String phase) {
+        assertEquals(5, Events.EVENTS.stream().filter(e -> e.startsWith(phase + ":")).count());
+        for (List<String> dep : List.of(List.of("Base", "Left"), List.of("Base", "Right"), List.of("Left", "Top"), List.of("Right", "Top"))) {
+            assertTrue(dep + " " + Events.EVENTS, indexOf(phase, dep.get(0)) < indexOf(phase, dep.get(1)));
+        }
+    }
+
+    int indexOf(String phase, String bean) {
+        for (int i = 0; i < Events.EVENTS.size(); i++) {
+            if (Events.EVENTS.get(i).startsWith(phase + ":" + bean + "@")) {
+                return i;
+            }
+        }
+        throw new AssertionError(phase + ":" + bean + " not found in " + Events.EVENTS);
+    }
+}
@@ -0,0 +1,128 @@
+package com.lfy.context;
+
+import com.lfy.exception.BeanDefinitionException;
+import com.lfy.io.PropertyResolver;
+import com.lfy.test.pooledproto.PooledProtoConfig;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class PooledBeanScopeTest {
+
+    public static class Bean {
+        final AtomicBoolean inUse = new AtomicBoolean();
+    }
+
+    BeanDefinition def;
+
+    final List<Object> destroyed = new CopyOnWriteArrayList<>();
+
+    final AtomicInteger created = new AtomicInteger();
+
+    PooledBeanScope scope;
+
+    @Before
+    public void setUp() throws Exception {
+        def = BeanTypeIndexTest.def("bean", Bean.class, 0, false);
+        scope = new PooledBeanScope(2, (d, instance) -> destroyed.add(instance));
+    }
+
+    Bean borrow() {
+        return (Bean) scope.get(def, () -> {
+            created.incrementAndGet();
+            return new Bean();
+        });
+    }
+
+    @Test
+    public void reuseReleasedInstance() {
+        Bean bean = borrow();
+        Bean other = borrow();
+        assertNotSame(bean, other);
+        scope.release(def, bean);
+        assertSame(bean, borrow());
+        assertEquals(2, created.get());
+    }
+
+    @Test
+    public void rejectForeignAndDuplicateRelease() {
+        Bean bean = borrow();
+        assertThrows(IllegalArgumentException.class, () -> scope.release(def, new Bean()));
+        scope.release(def, bean);
+        assertThrows(IllegalArgumentException.class, () -> scope.release(def, bean));
+        //重复归还被拒绝，池中只有一个实例:
+        assertSame(bean, borrow());
+        assertNotSame(bean, borrow());
+    }
+
+    @Test
+    public void destroyWhenPoolIsFull() {
+        List<Bean> beans = List.of(borrow(), borrow(), borrow());
+        beans.forEach(bean -> scope.release(def, bean));
+        assertEquals(1, destroyed.size());
+        assertTrue(beans.contains(destroyed.get(0)));
+    }
+
+    @Test
+    public void closeDestroysIdleInstances() {
+        Bean idle = borrow();
+        Bean borrowed = borrow();
+        scope.release(def, idle);
+        scope.close();
+        assertEquals(List.of(idle), destroyed);
+        assertNotSame(borrowed, idle);
+    }
+
+    @Test(timeout = 20_000)
+    public void concurrentBorrowAndRelease() throws Exception {
+        scope = new PooledBeanScope(4, (d, instance) -> destroyed.add(instance));
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < 20_000; i++) {
+                    Bean bean = borrow();
+                    //同一个实例不能同时借给两个线程:
+                    assertTrue(bean.inUse.compareAndSet(false, true));
+                    bean.inUse.set(false);
+                    scope.release(def, bean);
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+        //创建的实例要么在池中，要么已销毁:
+        scope.close();
+        assertEquals(created.get(), destroyed.size());
+        assertTrue(created.get() <= 20_000 * threads);
+    }
+
+    @Test
+    public void rejectPooledBeanInjectedIntoPrototype() {
+        //每次创建prototype都会借出一个pooled实例且永不归还，定义时拒绝:
+        BeanDefinitionException e = assertThrows(BeanDefinitionException.class,
+                () -> new AnnotationConfigApplicationContext(PooledProtoConfig.class, new PropertyResolver(new Properties())));
+        assertTrue(e.getMessage(), e.getMessage().startsWith("Cannot inject pooled bean 'connection' into prototype bean 'request'"));
+    }
+}
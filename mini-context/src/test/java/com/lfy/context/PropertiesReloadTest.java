@@ -0,0 +1,83 @@
+package com.lfy.context;
+
+import com.lfy.io.PropertyResolver;
+import com.lfy.io.PropertySource;
+import com.lfy.test.reload.ReloadConfig;
+import com.lfy.test.reload.ServerClient;
+import com.lfy.test.reload.ServerProperties;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+public class PropertiesReloadTest {
+
+    Path file;
+
+    @Before
+    public void setUp() throws IOException {
+        ServerProperties.DESTROYED.clear();
+        file = Files.createTempFile("application", ".yml");
+        Files.writeString(file, "server:\n  port: 8080\n");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Test
+    public void rebindDestroysPreviousInstance() throws Exception {
+        PropertyResolver pr = new PropertyResolver(List.of(PropertySource.yaml(file, false)));
+        try (var ctx = new AnnotationConfigApplicationContext(ReloadConfig.class, pr)) {
+            ServerProperties original = ctx.getBean(ServerProperties.class);
+            ServerClient client = ctx.getBean(ServerClient.class);
+            assertEquals(8080, original.getPort());
+
+            Files.writeString(file, "server:\n  port: 9090\n  host: example.com\n");
+            pr.reload();
+            //getBean返回重新绑定的实例，原实例已销毁:
+            ServerProperties rebound = ctx.getBean(ServerProperties.class);
+            assertNotSame(original, rebound);
+            assertEquals(9090, rebound.getPort());
+            assertEquals("example.com", rebound.getHost());
+            assertEquals(List.of(original), ServerProperties.DESTROYED);
+            //已注入的引用不会更新，监听器收到变化的key:
+            assertSame(original, client.injected);
+            assertEquals(List.of(Set.of("server.port", "server.host")), client.changes);
+
+            //其他prefix的变化不重新绑定:
+            pr.setProperty("other.key", "x");
+            assertSame(rebound, ctx.getBean(ServerProperties.class));
+            assertEquals(Set.of("other.key"), client.changes.get(1));
+        }
+        //关闭时只销毁当前实例:
+        assertEquals(2, ServerProperties.DESTROYED.size());
+        assertEquals(9090, ServerProperties.DESTROYED.get(1).getPort());
+
+        //关闭后不再重新绑定:
+        Files.writeString(file, "server:\n  port: 7070\n");
+        pr.reload();
+        assertEquals(2, ServerProperties.DESTROYED.size());
+    }
+
+    @Test
+    public void failedRebindKeepsCurrentInstance() throws Exception {
+        PropertyResolver pr = new PropertyResolver(List.of(PropertySource.yaml(file, false)));
+        try (var ctx = new AnnotationConfigApplicationContext(ReloadConfig.class, pr)) {
+            ServerProperties original = ctx.getBean(ServerProperties.class);
+            Files.writeString(file, "server:\n  port: not-a-number\n");
+            pr.reload();
+            assertSame(original, ctx.getBean(ServerProperties.class));
+            assertTrue(ServerProperties.DESTROYED.isEmpty());
+            assertEquals(1, ctx.getBean(ServerClient.class).changes.size());
+        }
+    }
+}
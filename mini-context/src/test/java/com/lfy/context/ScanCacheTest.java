@@ -0,0 +1,159 @@
+package com.lfy.context;
+
+import com.lfy.io.PropertyResolver;
+import com.lfy.test.meta.MetaConfig;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+
+import static org.junit.Assert.*;
+
+public class ScanCacheTest {
+
+    Path dir;
+
+    @Before
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("scan-cache");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        try (var files = Files.walk(dir)) {
+            for (Path p : files.sorted(Collections.reverseOrder()).toList()) {
+                Files.delete(p);
+            }
+        }
+    }
+
+    @Test
+    public void changedClassInvalidatesFingerprint() throws IOException {
+        Path classes = dir.resolve("classes");
+        Path a = classes.resolve("demo/A.class");
+        Path other = classes.resolve("other/B.class");
+        Files.createDirectories(a.getParent());
+        Files.createDirectories(other.getParent());
+        Files.write(a, new byte[10]);
+        Files.write(other, new byte[10]);
+        try (URLClassLoader loader = new URLClassLoader(new URL[] { classes.toUri().toURL() }, null)) {
+            String[] packages = { "demo" };
+            byte[] original = ScanCache.fingerprint(loader, packages);
+            assertArrayEquals(original, ScanCache.fingerprint(loader, packages));
+
+            //扫描包之外的文件不影响指纹:
+            Files.write(other, new byte[20]);
+            assertArrayEquals(original, ScanCache.fingerprint(loader, packages));
+
+            //类文件大小变化:
+            Files.write(a, new byte[11]);
+            byte[] resized = ScanCache.fingerprint(loader, packages);
+            assertFalse(Arrays.equals(original, resized));
+
+            //只有修改时间变化:
+            Files.setLastModifiedTime(a, FileTime.fromMillis(Files.getLastModifiedTime(a).toMillis() - 10_000));
+            byte[] touched = ScanCache.fingerprint(loader, packages);
+            assertFalse(Arrays.equals(resized, touched));
+
+            //新增类:
+            Files.write(classes.resolve("demo/C.class"), new byte[10]);
+            assertFalse(Arrays.equals(touched, ScanCache.fingerprint(loader, packages)));
+
+            //扫描的包和额外信息也计入指纹:
+            assertFalse(Arrays.equals(ScanCache.fingerprint(loader, packages), ScanCache.fingerprint(loader, new String[] { "demo", "other" })));
+            assertFalse(Arrays.equals(ScanCache.fingerprint(loader, packages, "x"), ScanCache.fingerprint(loader, packages, "y")));
+        }
+    }
+
+    @Test
+    public void saveAndLoad() {
+        Path file = dir.resolve("scan.cache");
+        List<ScanCache.Entry> entries = entries();
+        new ScanCache(file, new byte[] { 1, 2, 3 }).save(entries);
+        assertEquals(entries, new ScanCache(file, new byte[] { 1, 2, 3 }).load());
+        //指纹不匹配:
+        assertNull(new ScanCache(file, new byte[] { 1, 2, 4 }).load());
+        //文件不存在:
+        assertNull(new ScanCache(dir.resolve("missing.cache"), new byte[] { 1, 2, 3 }).load());
+    }
+
+    @Test
+    public void truncatedFileIsIgnored() throws IOException {
+        Path file = dir.resolve("scan.cache");
+        new ScanCache(file, new byte[] { 1, 2, 3 }).save(entries());
+        byte[] bytes = Files.readAllBytes(file);
+        for (int length = 0; length < bytes.length; length++) {
+            Files.write(file, Arrays.copyOf(bytes, length));
+            assertNull("length " + length, new ScanCache(file, new byte[] { 1, 2, 3 }).load());
+        }
+        //尾部多出的数据:
+        Files.write(file, Arrays.copyOf(bytes, bytes.length + 1));
+        assertNull(new ScanCache(file, new byte[] { 1, 2, 3 }).load());
+    }
+
+    @Test
+    public void corruptedCountIsIgnored() throws IOException {
+        Path file = dir.resolve("scan.cache");
+        Files.write(file, header(new byte[] { 1 }, -1));
+        assertNull(new ScanCache(file, new byte[] { 1 }).load());
+        //不按损坏的数量预分配内存:
+        Files.write(file, header(new byte[] { 1 }, Integer.MAX_VALUE));
+        assertNull(new ScanCache(file, new byte[] { 1 }).load());
+    }
+
+    @Test
+    public void corruptedCacheFallsBackToScanning() throws Exception {
+        Path file = dir.resolve("scan.cache");
+        Properties props = new Properties();
+        props.setProperty("mini.scan.cache", file.toString());
+        Files.write(file, "not a scan cache".getBytes());
+        try (var ctx = new AnnotationConfigApplicationContext(MetaConfig.class, new PropertyResolver(props))) {
+            assertEquals("hello", ctx.getBean("greeting"));
+            ScanCache cache = ctx.createScanCache(MetaConfig.class);
+            //扫描后重新写入了缓存:
+            assertNotNull(cache.load());
+        }
+
+        //缓存中的类已不存在:
+        try (var ctx = new AnnotationConfigApplicationContext(MetaConfig.class, new PropertyResolver(props))) {
+            ScanCache cache = ctx.createScanCache(MetaConfig.class);
+            cache.save(List.of(new ScanCache.Entry("com.lfy.test.meta.Removed", "removed", 0, false, List.of())));
+        }
+        try (var ctx = new AnnotationConfigApplicationContext(MetaConfig.class, new PropertyResolver(props))) {
+            assertEquals("hello", ctx.getBean("greeting"));
+            assertNull(ctx.findBeanDefinition("removed"));
+        }
+    }
+
+    static List<ScanCache.Entry> entries() {
+        return List.of(
+                new ScanCache.Entry("demo.A", "a", 0, false, List.of()),
+                new ScanCache.Entry("demo.Config", "config", 10, true, List.of(
+                        new ScanCache.FactoryEntry("b", List.of("demo.A", "int"), "b", 0, true),
+                        new ScanCache.FactoryEntry("c", List.of(), "cBean", 1, false))));
+    }
+
+    static byte[] header(byte[] fingerprint, int count) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(ScanCache.MAGIC);
+        out.writeInt(ScanCache.VERSION);
+        out.writeByte(fingerprint.length);
+        out.write(fingerprint);
+        out.writeInt(count);
+        out.flush();
+        return bytes.toByteArray();
+    }
+}
@@ -0,0 +1,125 @@
+package com.lfy.context;
+
+import com.lfy.io.PropertyResolver;
+import com.lfy.test.parallel.ParallelConfig;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+
+public class StartupRecorderTest {
+
+    @Test
+    public void disabledRecorderRecordsNothing() {
+        var recorder = new StartupRecorder(false);
+        StartupStep step = recorder.start("a").tag("k", "v");
+        step.end();
+        assertSame(StartupRecorder.NoopStep.INSTANCE, step);
+        assertEquals(List.of(), recorder.getSteps());
+    }
+
+    @Test
+    public void nestedSteps() {
+        var recorder = new StartupRecorder(true);
+        try (StartupStep outer = recorder.start("outer")) {
+            try (StartupStep inner = recorder.start("inner").tag("name", "x")) {
+                assertEquals(outer.getId(), inner.getParentId());
+            }
+            assertEquals(0, outer.getParentId());
+        }
+        List<StartupStep> steps = recorder.getSteps();
+        assertEquals(List.of("inner", "outer"), steps.stream().map(StartupStep::getName).toList());
+        assertTrue(steps.get(0).getDurationNanos() >= 0);
+        assertEquals(Map.of("name", "x"), steps.get(0).getTags());
+        //启动完成后不再记录:
+        recorder.finish();
+        assertSame(StartupRecorder.NoopStep.INSTANCE, recorder.start("after"));
+    }
+
+    @Test
+    public void explicitParentOnOtherThread() throws Exception {
+        var recorder = new StartupRecorder(true);
+        StartupStep phase = recorder.start("phase");
+        long childParent = CompletableFuture.supplyAsync(() -> {
+            long[] parentId = new long[1];
+            recorder.runWithParent(phase, () -> {
+                try (StartupStep child = recorder.start("child")) {
+                    parentId[0] = child.getParentId();
+                }
+            });
+            //之后的步骤不再以phase为父步骤:
+            try (StartupStep other = recorder.start("other")) {
+                assertEquals(0, other.getParentId());
+            }
+            return parentId[0];
+        }).get();
+        phase.end();
+        assertEquals(phase.getId(), childParent);
+    }
+
+    @Test
+    public void finishEndsOpenSteps() {
+        var recorder = new StartupRecorder(true);
+        StartupStep refresh = recorder.start("context.refresh");
+        StartupStep phase = recorder.start("beans.instantiate");
+        //模拟启动失败，步骤没有结束:
+        recorder.finish();
+        assertTrue(refresh.getDurationNanos() >= 0);
+        assertTrue(phase.getDurationNanos() >= 0);
+        assertEquals("true", phase.getTags().get("failed"));
+        assertEquals(2, recorder.getSteps().size());
+    }
+
+    @Test
+    public void parallelCreationKeepsParents() throws Exception {
+        Properties props = new Properties();
+        props.setProperty("mini.startup.recording", "true");
+        props.setProperty("mini.create.parallel", "true");
+        try (var ctx = new AnnotationConfigApplicationContext(ParallelConfig.class, new PropertyResolver(props))) {
+            List<StartupStep> steps = ctx.getStartupRecorder().getSteps();
+            Map<Long, StartupStep> byId = steps.stream().collect(Collectors.toMap(StartupStep::getId, Function.identity()));
+            List<StartupStep> beanSteps = steps.stream()
+                    .filter(s -> s.getName().equals("bean.instantiate") || s.getName().equals("bean.initialize")).toList();
+            assertFalse(beanSteps.isEmpty());
+            for (StartupStep step : beanSteps) {
+                StartupStep parent = byId.get(step.getParentId());
+                assertNotNull(step.toString(), parent);
+                assertTrue(parent.getName().startsWith("bean"));
+            }
+            assertTrue(beanSteps.stream().anyMatch(s -> s.getThreadName().startsWith("mini-create-")));
+        }
+    }
+
+    @Test
+    public void commitJfrEventsOnlyWhenRecording() throws Exception {
+        assertFalse(StartupStepEvent.isRecording());
+        Path file = Files.createTempFile("startup", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("com.lfy.StartupStep");
+            recording.start();
+            assertTrue(StartupStepEvent.isRecording());
+            var recorder = new StartupRecorder(true);
+            try (StartupStep step = recorder.start("jfr.step")) {
+                step.tag("k", "v");
+            }
+            recording.stop();
+            recording.dump(file);
+        }
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+        assertEquals(1, events.size());
+        assertEquals("jfr.step", events.get(0).getString("name"));
+        assertEquals("{k=v}", events.get(0).getString("tags"));
+        Files.delete(file);
+    }
+}
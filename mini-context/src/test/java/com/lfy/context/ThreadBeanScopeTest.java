@@ -0,0 +1,53 @@
+package com.lfy.context;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class ThreadBeanScopeTest {
+
+    public static class Bean {
+    }
+
+    BeanDefinition def;
+
+    final ThreadBeanScope scope = new ThreadBeanScope();
+
+    final AtomicInteger created = new AtomicInteger();
+
+    @Before
+    public void setUp() throws Exception {
+        def = BeanTypeIndexTest.def("bean", Bean.class, 0, false);
+    }
+
+    Object get() {
+        return scope.get(def, () -> {
+            created.incrementAndGet();
+            return new Bean();
+        });
+    }
+
+    @Test
+    public void oneInstancePerThread() throws Exception {
+        Object bean = get();
+        assertSame(bean, get());
+        Object other = CompletableFuture.supplyAsync(this::get).get();
+        assertNotSame(bean, other);
+        assertEquals(2, created.get());
+    }
+
+    @Test
+    public void releaseRemovesCurrentThreadInstance() {
+        Object bean = get();
+        //归还其他实例不影响当前实例:
+        scope.release(def, new Bean());
+        assertSame(bean, get());
+        scope.release(def, bean);
+        assertNotSame(bean, get());
+        assertEquals(2, created.get());
+    }
+}
@@ -0,0 +1,119 @@
+package com.lfy.io;
+
+import com.lfy.annotation.Component;
+import com.lfy.annotation.Configuration;
+import com.lfy.annotation.Scope;
+import com.lfy.test.meta.MetaConfig;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import static org.junit.Assert.*;
+
+public class ClassMetadataReaderTest {
+
+    @Retention(RetentionPolicy.RUNTIME)
+    @interface Values {
+        int i();
+        long l();
+        double d();
+        String s();
+        Class<?> c();
+        ElementType e();
+        Target a();
+        String[] array();
+    }
+
+    //常量池中包含long/double（占两个槽位）、各种注解元素值:
+    @Values(i = 1, l = 1L << 40, d = 0.5, s = "s", c = String.class, e = ElementType.TYPE,
+            a = @Target(ElementType.FIELD), array = { "x", "y" })
+    @Component
+    @Scope("prototype")
+    static class Annotated {
+        static final long LONG = 1L << 41;
+        static final double DOUBLE = 1.5;
+        long field = LONG;
+
+        @Deprecated
+        void method() {
+        }
+    }
+
+    @Values(i = 1, l = 2, d = 3, s = "s", c = int[].class, e = ElementType.TYPE, a = @Target({}), array = {})
+    static class NotComponent {
+    }
+
+    @Component
+    interface ComponentInterface {
+    }
+
+    final ClassMetadataReader reader = new ClassMetadataReader(getClass().getClassLoader());
+
+    @Test
+    public void readAnnotationsFromBytecode() {
+        ClassMetadataReader.ClassMetadata metadata = reader.read(Annotated.class.getName());
+        assertNotNull(metadata);
+        assertTrue(metadata.annotations().contains(Component.class.getName()));
+        assertTrue(metadata.annotations().contains(Scope.class.getName()));
+        assertTrue(metadata.annotations().contains(Values.class.getName()));
+        //方法上的注解不属于类:
+        assertEquals(3, metadata.annotations().size());
+    }
+
+    @Test
+    public void isCandidate() {
+        String component = Component.class.getName();
+        assertTrue(reader.isCandidate(Annotated.class.getName(), component));
+        assertFalse(reader.isCandidate(NotComponent.class.getName(), component));
+        assertFalse(reader.isCandidate(ComponentInterface.class.getName(), component));
+        //通过@Configuration元注解:
+        assertTrue(reader.isCandidate(MetaConfig.class.getName(), Configuration.class.getName()));
+        assertTrue(reader.isCandidate(MetaConfig.class.getName(), component));
+    }
+
+    @Test
+    public void unreadableClassIsCandidate() {
+        assertTrue(reader.isCandidate("com.lfy.NoSuchClass", Component.class.getName()));
+        assertNull(reader.read("com.lfy.NoSuchClass"));
+    }
+
+    @Test
+    public void matchesReflection() throws IOException {
+        for (Class<?> clazz : new Class<?>[] { Annotated.class, NotComponent.class, ClassMetadataReader.class, String.class }) {
+            ClassMetadataReader.ClassMetadata metadata = parse(clazz);
+            assertEquals(clazz.getName(), clazz.getAnnotations().length, metadata.annotations().size());
+            for (var anno : clazz.getAnnotations()) {
+                assertTrue(metadata.annotations().contains(anno.annotationType().getName()));
+            }
+        }
+    }
+
+    @Test
+    public void rejectInvalidClassFile() {
+        assertThrows(IOException.class, () -> reader.parse(new DataInputStream(new ByteArrayInputStream(new byte[] { 1, 2, 3, 4, 0, 0, 0, 0 }))));
+        //截断的字节码:
+        byte[] bytes = readBytes(Annotated.class);
+        byte[] truncated = java.util.Arrays.copyOf(bytes, bytes.length / 2);
+        assertThrows(IOException.class, () -> reader.parse(new DataInputStream(new ByteArrayInputStream(truncated))));
+    }
+
+    ClassMetadataReader.ClassMetadata parse(Class<?> clazz) throws IOException {
+        return reader.parse(new DataInputStream(new ByteArrayInputStream(readBytes(clazz))));
+    }
+
+    byte[] readBytes(Class<?> clazz) {
+        String path = "/" + clazz.getName().replace('.', '/') + ".class";
+        try (InputStream input = clazz.getResourceAsStream(path)) {
+            return input.readAllBytes();
+        } catch (IOException e) {
+            throw new AssertionError(e);
+        }
+    }
+}
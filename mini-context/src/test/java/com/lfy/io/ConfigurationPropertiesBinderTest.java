@@ -0,0 +1,149 @@
+package com.lfy.io;
+
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.*;
+
+public class ConfigurationPropertiesBinderTest {
+
+    public record Server(String host, int port) {
+    }
+
+    public record AppProperties(String name, int maxSize, Duration timeout, List<String> tags, Server server, List<Server> servers) {
+    }
+
+    public static class PoolProperties {
+        String name = "default";
+        int minIdle = 1;
+        int maxActive;
+        boolean setterCalled;
+        List<Server> servers;
+
+        public void setMaxActive(int maxActive) {
+            this.maxActive = maxActive;
+            this.setterCalled = true;
+        }
+    }
+
+    public record Cluster(List<List<Server>> groups, Set<Server> members) {
+    }
+
+    public record Node(String name, List<Node> children) {
+    }
+
+    public record MapProperties(Map<String, Server> servers) {
+    }
+
+    public record ArrayListProperties(ArrayList<Server> servers) {
+    }
+
+    static ConfigurationPropertiesBinder binder(String... keyValues) {
+        Properties props = new Properties();
+        for (int i = 0; i < keyValues.length; i += 2) {
+            props.setProperty(keyValues[i], keyValues[i + 1]);
+        }
+        return new ConfigurationPropertiesBinder(new PropertyResolver(props));
+    }
+
+    @Test
+    public void bindRecord() {
+        ConfigurationPropertiesBinder binder = binder(
+                "app.name", "mini",
+                "app.max-size", "10",
+                "app.timeout", "5s",
+                "app.tags", "a, b",
+                "app.server.host", "localhost",
+                "app.server.port", "8080",
+                "app.servers[0].host", "s0",
+                "app.servers[1].host", "s1",
+                "app.servers[1].port", "81");
+        AppProperties props = binder.bind("app", AppProperties.class);
+        assertEquals("mini", props.name());
+        assertEquals(10, props.maxSize());
+        assertEquals(Duration.ofSeconds(5), props.timeout());
+        assertEquals(List.of("a", "b"), props.tags());
+        assertEquals(new Server("localhost", 8080), props.server());
+        assertEquals(List.of(new Server("s0", 0), new Server("s1", 81)), props.servers());
+    }
+
+    @Test
+    public void bindMissingValues() {
+        AppProperties props = binder("other.name", "x").bind("app", AppProperties.class);
+        //不存在的基本类型为默认值，其他为null:
+        assertEquals(new AppProperties(null, 0, null, null, null, null), props);
+    }
+
+    @Test
+    public void bindKebabAndCamelCase() {
+        assertEquals(5, binder("app.maxSize", "5").bind("app", AppProperties.class).maxSize());
+        assertEquals(6, binder("app.max-size", "6").bind("app", AppProperties.class).maxSize());
+        //原始名称优先:
+        assertEquals(7, binder("app.maxSize", "7", "app.max-size", "8").bind("app", AppProperties.class).maxSize());
+    }
+
+    @Test
+    public void bindPojo() {
+        PoolProperties pool = binder("pool.max-active", "20", "pool.servers[0].host", "h").bind("pool", PoolProperties.class);
+        //不存在的配置项保留初始值:
+        assertEquals("default", pool.name);
+        assertEquals(1, pool.minIdle);
+        assertEquals(20, pool.maxActive);
+        assertTrue(pool.setterCalled);
+        assertEquals(List.of(new Server("h", 0)), pool.servers);
+
+        pool = binder("pool.min-idle", "3", "pool.name", "p").bind("pool", PoolProperties.class);
+        assertEquals("p", pool.name);
+        assertEquals(3, pool.minIdle);
+        assertFalse(pool.setterCalled);
+        assertNull(pool.servers);
+    }
+
+    @Test
+    public void bindNestedLists() {
+        ConfigurationPropertiesBinder binder = binder(
+                "cluster.groups[0][0].host", "a",
+                "cluster.groups[0][1].host", "b",
+                "cluster.groups[1][0].host", "c",
+                "cluster.members[0].host", "m",
+                "cluster.members[1].host", "n",
+                "cluster.members[2].host", "m");
+        Cluster cluster = binder.bind("cluster", Cluster.class);
+        assertEquals(List.of(List.of(new Server("a", 0), new Server("b", 0)), List.of(new Server("c", 0))), cluster.groups());
+        //Set去重并保持顺序:
+        assertEquals(List.of(new Server("m", 0), new Server("n", 0)), List.copyOf(cluster.members()));
+        assertThrows(UnsupportedOperationException.class, () -> cluster.groups().clear());
+    }
+
+    @Test
+    public void bindRecursiveType() {
+        Node root = binder(
+                "tree.name", "root",
+                "tree.children[0].name", "a",
+                "tree.children[0].children[0].name", "a1",
+                "tree.children[1].name", "b").bind("tree", Node.class);
+        assertEquals(new Node("root", List.of(new Node("a", List.of(new Node("a1", null))), new Node("b", null))), root);
+    }
+
+    @Test
+    public void rejectUnsupportedTypes() {
+        ConfigurationPropertiesBinder binder = binder();
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> binder.getBinder(MapProperties.class));
+        assertTrue(e.getMessage(), e.getMessage().contains("Map is not supported"));
+        e = assertThrows(IllegalArgumentException.class, () -> binder.getBinder(ArrayListProperties.class));
+        assertTrue(e.getMessage(), e.getMessage().contains("use List, Set or Collection"));
+        assertThrows(IllegalArgumentException.class, () -> binder.getBinder(Runnable.class));
+        //JDK中未开放的包:
+        assertThrows(IllegalArgumentException.class, () -> binder.getBinder(AtomicLong.class));
+        //失败后不会留下生成了一半的绑定器:
+        assertThrows(IllegalArgumentException.class, () -> binder.getBinder(MapProperties.class));
+        assertTrue(binder.binders.isEmpty());
+    }
+}
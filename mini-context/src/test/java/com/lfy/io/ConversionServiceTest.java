@@ -0,0 +1,125 @@
+package com.lfy.io;
+
+import org.junit.Test;
+
+import java.lang.reflect.Type;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import static org.junit.Assert.*;
+
+public class ConversionServiceTest {
+
+    // 通过字段获取泛型类型:
+    List<Integer> intList;
+    Set<TimeUnit> unitSet;
+    List<? extends Number> wildcardList;
+    Collection<List<String>> nestedList;
+
+    static Type fieldType(String name) throws NoSuchFieldException {
+        return ConversionServiceTest.class.getDeclaredField(name).getGenericType();
+    }
+
+    @Test
+    public void convertBuiltinTypes() {
+        ConversionService cs = new ConversionService();
+        assertEquals("abc", cs.convert("abc", String.class));
+        assertEquals(Integer.valueOf(42), cs.convert("42", int.class));
+        assertEquals(Long.valueOf(42), cs.convert("42", Long.class));
+        assertEquals(Boolean.TRUE, cs.convert("true", boolean.class));
+        assertEquals(Character.valueOf('x'), cs.convert("x", char.class));
+        assertEquals(LocalDate.of(2023, 7, 24), cs.convert("2023-07-24", LocalDate.class));
+        assertEquals(ZoneId.of("Asia/Shanghai"), cs.convert("Asia/Shanghai", ZoneId.class));
+        assertThrows(IllegalArgumentException.class, () -> cs.convert("xy", char.class));
+        assertThrows(NumberFormatException.class, () -> cs.convert("x", int.class));
+    }
+
+    @Test
+    public void convertDuration() {
+        ConversionService cs = new ConversionService();
+        assertEquals(Duration.ofSeconds(10), cs.convert("PT10S", Duration.class));
+        assertEquals(Duration.ofSeconds(10), cs.convert("10s", Duration.class));
+        assertEquals(Duration.ofMillis(500), cs.convert("500ms", Duration.class));
+        assertEquals(Duration.ofMillis(500), cs.convert("500", Duration.class));
+        assertEquals(Duration.ofMinutes(5), cs.convert(" 5M ", Duration.class));
+        assertEquals(Duration.ofHours(2), cs.convert("2h", Duration.class));
+        assertEquals(Duration.ofDays(1), cs.convert("1d", Duration.class));
+        assertEquals(Duration.ofNanos(3000), cs.convert("3us", Duration.class));
+        assertThrows(IllegalArgumentException.class, () -> cs.convert("5w", Duration.class));
+    }
+
+    @Test
+    public void convertEnum() {
+        ConversionService cs = new ConversionService();
+        assertEquals(TimeUnit.SECONDS, cs.convert("SECONDS", TimeUnit.class));
+        assertEquals(TimeUnit.MILLISECONDS, cs.convert(" milliseconds ", TimeUnit.class));
+        assertTrue(cs.isImmutable(TimeUnit.class));
+        assertThrows(IllegalArgumentException.class, () -> cs.convert("WEEKS", TimeUnit.class));
+    }
+
+    @Test
+    public void convertCollections() throws NoSuchFieldException {
+        ConversionService cs = new ConversionService();
+        assertEquals(List.of(1, 2, 3), cs.convert("1, 2,3", fieldType("intList")));
+        assertEquals(List.of(), cs.convert(" ", fieldType("intList")));
+        assertEquals(List.of(TimeUnit.SECONDS, TimeUnit.DAYS), List.copyOf((Set<?>) cs.convert("seconds,days,seconds", fieldType("unitSet"))));
+        assertEquals(List.of("a", "b"), cs.convert("a,b", List.class));
+        assertArrayEquals(new int[] { 1, 2 }, (int[]) cs.convert("1,2", int[].class));
+        assertArrayEquals(new String[] { "a", "" }, cs.convert("a,", String[].class));
+        //结果不可修改:
+        List<?> list = (List<?>) cs.convert("1", fieldType("intList"));
+        assertThrows(UnsupportedOperationException.class, () -> list.clear());
+
+        assertTrue(cs.isImmutable(fieldType("intList")));
+        assertTrue(cs.isImmutable(fieldType("unitSet")));
+        assertFalse(cs.isImmutable(int[].class));
+        assertFalse(cs.canConvert(fieldType("wildcardList")));
+        assertEquals(List.of(List.of("a"), List.of("b")), List.copyOf((Collection<?>) cs.convert("a,b", fieldType("nestedList"))));
+        assertFalse(cs.canConvert(Object.class));
+    }
+
+    @Test
+    public void addConverter() throws NoSuchFieldException {
+        ConversionService cs = new ConversionService();
+        assertEquals(List.of(1, 2), cs.convert("1,2", fieldType("intList")));
+        int generation = cs.getGeneration();
+        //覆盖内置转换器，已生成的集合转换器随之更新:
+        cs.addConverter(Integer.class, s -> Integer.parseInt(s) * 10);
+        assertEquals(generation + 1, cs.getGeneration());
+        assertEquals(Integer.valueOf(10), cs.convert("1", Integer.class));
+        assertEquals(List.of(10, 20), cs.convert("1,2", fieldType("intList")));
+        //用户注册的转换器不保证结果不可变:
+        assertFalse(cs.isImmutable(Integer.class));
+        assertFalse(cs.isImmutable(fieldType("intList")));
+
+        cs.addConverter(StringBuilder.class, StringBuilder::new);
+        assertEquals("abc", cs.convert("abc", StringBuilder.class).toString());
+    }
+
+    @Test
+    public void converterCreatedDuringRegistrationIsNotCached() throws NoSuchFieldException {
+        Type intList = fieldType("intList");
+        ConversionService cs = new ConversionService() {
+            boolean registered;
+
+            @Override
+            Function<String, Object> createConverter(Type targetType) {
+                Function<String, Object> converter = super.createConverter(targetType);
+                if (targetType.equals(intList) && !this.registered) {
+                    //模拟另一个线程在生成集合转换器之后、写入缓存之前注册了元素的转换器:
+                    this.registered = true;
+                    addConverter(Integer.class, s -> 42);
+                }
+                return converter;
+            }
+        };
+        assertEquals(List.of(1, 2), cs.convert("1,2", intList));
+        assertEquals(List.of(42, 42), cs.convert("1,2", intList));
+    }
+}
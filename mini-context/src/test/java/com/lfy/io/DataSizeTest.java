@@ -0,0 +1,40 @@
+package com.lfy.io;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class DataSizeTest {
+
+    @Test
+    public void parse() {
+        assertEquals(DataSize.ofBytes(512), DataSize.parse("512"));
+        assertEquals(DataSize.ofBytes(512), DataSize.parse("512B"));
+        assertEquals(DataSize.ofKilobytes(10), DataSize.parse("10KB"));
+        assertEquals(DataSize.ofKilobytes(10), DataSize.parse("10k"));
+        assertEquals(DataSize.ofMegabytes(512), DataSize.parse(" 512 mb "));
+        assertEquals(DataSize.ofGigabytes(1), DataSize.parse("1G"));
+        assertEquals(new DataSize(2L << 40), DataSize.parse("2TB"));
+        assertEquals(0, DataSize.parse("0MB").bytes());
+    }
+
+    @Test
+    public void parseInvalid() {
+        assertThrows(IllegalArgumentException.class, () -> DataSize.parse(""));
+        assertThrows(IllegalArgumentException.class, () -> DataSize.parse("MB"));
+        assertThrows(IllegalArgumentException.class, () -> DataSize.parse("10PB"));
+        assertThrows(NumberFormatException.class, () -> DataSize.parse("1.5MB"));
+        assertThrows(ArithmeticException.class, () -> DataSize.parse("9999999TB"));
+    }
+
+    @Test
+    public void convertAndCompare() {
+        DataSize size = DataSize.parse("3MB");
+        assertEquals(3 * 1024, size.toKilobytes());
+        assertEquals(3, size.toMegabytes());
+        assertEquals("3145728B", size.toString());
+        assertTrue(DataSize.ofKilobytes(1).compareTo(DataSize.ofBytes(1023)) > 0);
+        assertEquals(0, DataSize.ofKilobytes(1024).compareTo(DataSize.ofMegabytes(1)));
+        assertEquals(DataSize.ofMegabytes(1), new ConversionService().convert("1MB", DataSize.class));
+    }
+}
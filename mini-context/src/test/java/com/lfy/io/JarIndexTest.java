@@ -0,0 +1,155 @@
+package com.lfy.io;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.jar.JarOutputStream;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+
+import static org.junit.Assert.*;
+
+public class JarIndexTest {
+
+    Path dir;
+
+    @Before
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("jar-index");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        try (var files = Files.walk(dir)) {
+            for (Path p : files.sorted(Collections.reverseOrder()).toList()) {
+                Files.delete(p);
+            }
+        }
+    }
+
+    @Test
+    public void readEntriesWrittenWithDataDescriptors() throws IOException {
+        Path jar = dir.resolve("test.jar");
+        try (JarOutputStream out = new JarOutputStream(Files.newOutputStream(jar))) {
+            out.setComment("built by JarIndexTest");
+            directory(out, "com/");
+            directory(out, "com/demo/");
+            //DEFLATED条目写入时大小未知，使用数据描述符（通用标志位3）:
+            deflated(out, "com/demo/B.class", 1000);
+            deflated(out, "com/demo/A.class", 10);
+            stored(out, "com/demo/sub/C.class", 20);
+            deflated(out, "com/demo2/D.class", 10);
+            deflated(out, "com/中文/E.class", 10);
+            stored(out, "META-INF/mini-spring.components", 5);
+        }
+        JarIndex index = JarIndex.open(jar);
+        assertEquals(jar, index.getJarFile());
+        //目录条目不计入:
+        assertEquals(6, index.size());
+        assertEquals(List.of("com/demo/A.class", "com/demo/B.class", "com/demo/sub/C.class"), index.findEntries("com/demo/"));
+        assertEquals(List.of("com/demo/sub/C.class"), index.findEntries("com/demo/sub/"));
+        assertEquals(List.of("com/中文/E.class"), index.findEntries("com/中文/"));
+        assertEquals(List.of(), index.findEntries("org/"));
+        assertEquals(List.of(), index.findEntries("zzz/"));
+        assertEquals(jarFileEntries(jar), index.findEntries(""));
+    }
+
+    @Test
+    public void readZip64CentralDirectory() throws IOException {
+        Path jar = dir.resolve("zip64.jar");
+        int count = 0x10000 + 10;
+        try (JarOutputStream out = new JarOutputStream(Files.newOutputStream(jar))) {
+            for (int i = 0; i < count; i++) {
+                stored(out, "p" + (i % 7) + "/C" + i + ".class", 0);
+            }
+        }
+        JarIndex index = JarIndex.open(jar);
+        assertEquals(count, index.size());
+        assertEquals(jarFileEntries(jar), index.findEntries(""));
+        assertEquals(jarFileEntries(jar).stream().filter(e -> e.startsWith("p3/")).toList(), index.findEntries("p3/"));
+    }
+
+    @Test
+    public void rejectInvalidJar() throws IOException {
+        Path file = dir.resolve("invalid.jar");
+        Files.write(file, "not a jar".getBytes(StandardCharsets.UTF_8));
+        assertThrows(IOException.class, () -> JarIndex.open(file));
+
+        //截断中央目录:
+        Path jar = dir.resolve("truncated.jar");
+        try (JarOutputStream out = new JarOutputStream(Files.newOutputStream(jar))) {
+            deflated(out, "a/A.class", 10);
+        }
+        byte[] bytes = Files.readAllBytes(jar);
+        Files.write(jar, java.util.Arrays.copyOf(bytes, bytes.length - 30));
+        assertThrows(IOException.class, () -> JarIndex.open(jar));
+    }
+
+    @Test
+    public void scanJarThroughResourceResolver() throws Exception {
+        Path jar = dir.resolve("scan.jar");
+        try (JarOutputStream out = new JarOutputStream(Files.newOutputStream(jar))) {
+            directory(out, "scan/");
+            directory(out, "scan/demo/");
+            deflated(out, "scan/demo/A.class", 10);
+            deflated(out, "scan/demo/sub/B.class", 10);
+            deflated(out, "scan/demo2/C.class", 10);
+        }
+        ClassLoader original = Thread.currentThread().getContextClassLoader();
+        try (URLClassLoader loader = new URLClassLoader(new URL[] { jar.toUri().toURL() }, null)) {
+            Thread.currentThread().setContextClassLoader(loader);
+            List<String> names = new ResourceResolver("scan.demo").scan(Resource::name);
+            Collections.sort(names);
+            assertEquals(List.of("scan/demo/A.class", "scan/demo/sub/B.class"), names);
+        } finally {
+            Thread.currentThread().setContextClassLoader(original);
+        }
+    }
+
+    static List<String> jarFileEntries(Path jar) throws IOException {
+        List<String> names = new ArrayList<>();
+        try (JarFile jarFile = new JarFile(jar.toFile())) {
+            jarFile.stream().map(ZipEntry::getName).filter(n -> !n.endsWith("/")).forEach(names::add);
+        }
+        Collections.sort(names);
+        return names;
+    }
+
+    static void directory(JarOutputStream out, String name) throws IOException {
+        out.putNextEntry(new JarEntry(name));
+        out.closeEntry();
+    }
+
+    static void deflated(JarOutputStream out, String name, int size) throws IOException {
+        out.putNextEntry(new JarEntry(name));
+        out.write(new byte[size]);
+        out.closeEntry();
+    }
+
+    static void stored(JarOutputStream out, String name, int size) throws IOException {
+        byte[] content = new byte[size];
+        CRC32 crc = new CRC32();
+        crc.update(content);
+        JarEntry entry = new JarEntry(name);
+        entry.setMethod(ZipEntry.STORED);
+        entry.setSize(size);
+        entry.setCompressedSize(size);
+        entry.setCrc(crc.getValue());
+        out.putNextEntry(entry);
+        ((OutputStream) out).write(content);
+        out.closeEntry();
+    }
+}
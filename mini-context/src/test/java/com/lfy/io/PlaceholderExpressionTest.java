@@ -0,0 +1,81 @@
+package com.lfy.io;
+
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class PlaceholderExpressionTest {
+
+    static final Map<String, String> PROPS = Map.of("app.name", "mini", "app.version", "1.0", "empty", "");
+
+    static String resolve(String s) {
+        return PlaceholderExpression.parse(s).resolve(PROPS::get);
+    }
+
+    @Test
+    public void parseTree() {
+        assertEquals(new PlaceholderExpression.Literal("abc"), PlaceholderExpression.parse("abc"));
+        assertEquals(new PlaceholderExpression.Literal(""), PlaceholderExpression.parse(""));
+        assertEquals(new PlaceholderExpression.Placeholder("a", null), PlaceholderExpression.parse("${a}"));
+        assertEquals(new PlaceholderExpression.Placeholder("a", new PlaceholderExpression.Literal("x")), PlaceholderExpression.parse("${a:x}"));
+        assertEquals(new PlaceholderExpression.Composite(List.of(
+                new PlaceholderExpression.Literal("v"),
+                new PlaceholderExpression.Placeholder("a", null),
+                new PlaceholderExpression.Literal("-"),
+                new PlaceholderExpression.Placeholder("b", new PlaceholderExpression.Literal("")))), PlaceholderExpression.parse("v${a}-${b:}"));
+    }
+
+    @Test
+    public void resolvePlaceholders() {
+        assertEquals("mini", resolve("${app.name}"));
+        assertEquals("mini-1.0", resolve("${app.name}-${app.version}"));
+        assertEquals("[mini]", resolve("[${app.name}]"));
+        assertEquals("", resolve("${empty:x}"));
+        assertEquals("x", resolve("${missing:x}"));
+        assertEquals("", resolve("${missing:}"));
+        //默认值中的冒号属于默认值:
+        assertEquals("http://localhost:8080", resolve("${missing:http://localhost:8080}"));
+        NullPointerException e = assertThrows(NullPointerException.class, () -> resolve("${missing}"));
+        assertEquals("Property 'missing' not found.", e.getMessage());
+    }
+
+    @Test
+    public void nestedDefaults() {
+        assertEquals("mini", resolve("${missing:${app.name}}"));
+        assertEquals("x", resolve("${missing:${other:x}}"));
+        assertEquals("mini", resolve("${missing:${other:${app.name:y}}}"));
+        assertEquals("a-1.0-b", resolve("${missing:a-${app.version}-b}"));
+        assertEquals("mini", resolve("${app.name:${missing}}"));
+        //默认值只在需要时解析:
+        assertThrows(NullPointerException.class, () -> resolve("${missing:${other}}"));
+    }
+
+    @Test
+    public void escapes() {
+        assertEquals("${app.name}", resolve("\\${app.name}"));
+        assertEquals("${app.name}=mini", resolve("\\${app.name}=${app.name}"));
+        assertEquals("a${b", resolve("a\\${b"));
+        //默认值中的转义:
+        assertEquals("${app.name}", resolve("${missing:\\${app.name}}"));
+        assertEquals("mini", resolve("${app.name:\\${x}}"));
+        //没有${的反斜杠保持不变:
+        assertEquals("a\\b$", resolve("a\\b$"));
+    }
+
+    @Test
+    public void malformedInput() {
+        //没有配对的}按普通文本处理:
+        assertEquals("${app.name", resolve("${app.name"));
+        assertEquals("mini-${x", resolve("${app.name}-${x"));
+        assertEquals("${a:${b}", resolve("${a:${b}"));
+        assertEquals("}", resolve("}"));
+        assertEquals("mini}", resolve("${app.name}}"));
+        assertEquals("$", resolve("$"));
+        assertEquals("{app.name}", resolve("{app.name}"));
+        assertEquals("x", resolve("${:x}"));
+        assertThrows(NullPointerException.class, () -> resolve("${}"));
+    }
+}
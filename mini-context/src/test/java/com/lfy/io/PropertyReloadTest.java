@@ -0,0 +1,181 @@
+package com.lfy.io;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+public class PropertyReloadTest {
+
+    Path dir;
+
+    @Before
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("reload");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        try (var files = Files.walk(dir)) {
+            for (Path p : files.sorted(Collections.reverseOrder()).toList()) {
+                Files.delete(p);
+            }
+        }
+    }
+
+    Path write(String name, String content) throws IOException {
+        Path file = dir.resolve(name);
+        Files.writeString(file, content);
+        return file;
+    }
+
+    @Test
+    public void reloadFileSource() throws IOException {
+        Path file = write("application.yml", "server:\n  port: 8080\n  host: a\n");
+        PropertySource yaml = PropertySource.yaml(file, false);
+        PropertyResolver pr = new PropertyResolver(List.of(yaml, PropertyResolverTest.environment(Map.of("HOME_DIR", "/home"))));
+        List<Set<String>> changes = new CopyOnWriteArrayList<>();
+        pr.addChangeListener(changes::add);
+        assertEquals(Integer.valueOf(8080), pr.getProperty("server.port", Integer.class));
+
+        write("application.yml", "server:\n  port: 9090\n  host: a\n  ssl: true\n");
+        assertEquals(Set.of("server.port", "server.ssl"), pr.reload());
+        assertEquals(Integer.valueOf(9090), pr.getProperty("server.port", Integer.class));
+        assertEquals("true", pr.getProperty("server.ssl"));
+        assertEquals(List.of(Set.of("server.port", "server.ssl")), changes);
+        //重新加载后仍按来源逐个查找，不合并也不枚举环境变量:
+        assertNull(pr.state.snapshot());
+        assertEquals("/home", pr.getProperty("HOME_DIR"));
+        assertEquals(Set.of("server.host", "server.port", "server.ssl"), PropertyStoreTest.toMap(pr.getSubProperties("server")).keySet());
+        //来源本身不变，新内容保存在新状态中:
+        assertEquals("8080", yaml.getProperty("server.port"));
+
+        //内容不变时不通知:
+        assertEquals(Set.of(), pr.reload());
+        assertEquals(1, changes.size());
+    }
+
+    @Test
+    public void hiddenKeysAreNotChanged() throws IOException {
+        Path file = write("application.properties", "a=1\nb=1\nc=1\n");
+        PropertyResolver pr = new PropertyResolver(List.of(
+                PropertySource.of("high", Map.of("a", "high")),
+                PropertySource.propertiesFile(file, false)));
+        pr.setProperty("b", "override");
+        write("application.properties", "a=2\nb=2\nc=2\n");
+        //被优先级更高的来源或setProperty覆盖的key值不变:
+        assertEquals(Set.of("c"), pr.reload());
+        assertEquals("high", pr.getProperty("a"));
+        assertEquals("override", pr.getProperty("b"));
+        assertEquals("2", pr.getProperty("c"));
+        pr.setProperty("b", null);
+        assertNull(pr.getProperty("b"));
+    }
+
+    @Test
+    public void failedReloadKeepsCurrentProperties() throws IOException {
+        Path file = write("application.yml", "a: 1\n");
+        PropertyResolver pr = new PropertyResolver(List.of(PropertySource.yaml(file, false)));
+        assertEquals("1", pr.getProperty("a"));
+        PropertyResolver.State before = pr.state;
+        write("application.yml", "a: [1\n");
+        assertThrows(RuntimeException.class, pr::reload);
+        Files.delete(file);
+        assertThrows(UncheckedIOException.class, pr::reload);
+        assertSame(before, pr.state);
+        assertEquals("1", pr.getProperty("a"));
+    }
+
+    @Test
+    public void optionalFileCreatedLater() throws IOException {
+        Path file = dir.resolve("application-dev.yml");
+        PropertyResolver pr = new PropertyResolver(List.of(PropertySource.yaml(file, true), PropertySource.of("defaults", Map.of("a", "default"))));
+        assertEquals("default", pr.getProperty("a"));
+        write("application-dev.yml", "a: dev\n");
+        assertEquals(Set.of("a"), pr.reload());
+        assertEquals("dev", pr.getProperty("a"));
+    }
+
+    @Test
+    public void reloadSnapshot() throws IOException {
+        Path file = write("application.yml", "a: 1\n");
+        PropertyResolver pr = new PropertyResolver(List.of(PropertySource.yaml(file, false)));
+        pr.snapshot();
+        write("application.yml", "a: 2\nb: 2\n");
+        assertEquals(Set.of("a", "b"), pr.reload());
+        //调用过snapshot()时重新生成快照:
+        assertEquals(Map.of("a", "2", "b", "2"), PropertyStoreTest.toMap(pr.state.snapshot()));
+        assertEquals("2", pr.getProperty("b"));
+    }
+
+    @Test
+    public void atomicSwap() throws Exception {
+        Path first = write("first.properties", "v=0\n");
+        Path second = write("second.properties", "v=0\n");
+        List<PropertySource> sources = List.of(PropertySource.propertiesFile(first, false), PropertySource.propertiesFile(second, false));
+        PropertyResolver pr = new PropertyResolver(sources);
+        //第一次访问时才加载，先加载两个来源:
+        sources.forEach(PropertySource::getStore);
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicReference<String> torn = new AtomicReference<>();
+        Thread reader = new Thread(() -> {
+            while (running.get()) {
+                PropertyResolver.State s = pr.state;
+                String a = s.sources().get(0).getProperty("v");
+                String b = s.sources().get(1).getProperty("v");
+                if (!a.equals(b)) {
+                    torn.set(a + "/" + b);
+                }
+            }
+        });
+        reader.start();
+        try {
+            for (int i = 1; i <= 50; i++) {
+                write("first.properties", "v=" + i + "\n");
+                write("second.properties", "v=" + i + "\n");
+                pr.reload(sources);
+                assertEquals(String.valueOf(i), pr.getProperty("v"));
+            }
+        } finally {
+            running.set(false);
+            reader.join();
+        }
+        assertNull(torn.get());
+    }
+
+    @Test
+    public void watchFileOutsideClasspath() throws Exception {
+        Path file = write("application.yml", "a: 1\n");
+        PropertyResolver pr = new PropertyResolver(List.of(PropertySource.yaml(file, false), PropertySource.yaml(dir.resolve("missing/other.yml"), true)));
+        BlockingQueue<Set<String>> changes = new LinkedBlockingQueue<>();
+        pr.addChangeListener(changes::add);
+        assertEquals("1", pr.getProperty("a"));
+        try (ConfigFileWatcher watcher = pr.watch(Duration.ofMillis(50))) {
+            assertNotNull(watcher);
+            //不存在的目录无法监视:
+            assertEquals(Set.of(dir.toAbsolutePath()), watcher.watched.keySet());
+            //编辑器保存时先写临时文件再重命名:
+            Path tmp = write("application.yml.tmp", "a: 2\n");
+            Files.move(tmp, file, java.nio.file.StandardCopyOption.REPLACE_EXISTING, java.nio.file.StandardCopyOption.ATOMIC_MOVE);
+            assertEquals(Set.of("a"), changes.poll(10, TimeUnit.SECONDS));
+            assertEquals("2", pr.getProperty("a"));
+        }
+    }
+}
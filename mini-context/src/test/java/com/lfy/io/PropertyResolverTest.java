@@ -0,0 +1,187 @@
+package com.lfy.io;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import static org.junit.Assert.*;
+
+public class PropertyResolverTest {
+
+    static PropertyResolver resolver(String... keyValues) {
+        Properties props = new Properties();
+        for (int i = 0; i < keyValues.length; i += 2) {
+            props.setProperty(keyValues[i], keyValues[i + 1]);
+        }
+        return new PropertyResolver(props);
+    }
+
+    @Test
+    public void resolvePlaceholders() {
+        PropertyResolver pr = resolver("app.name", "mini", "app.title", "${app.name}-${app.version:1.0}", "app.escaped", "\\${app.name}");
+        assertEquals("mini", pr.getProperty("app.name"));
+        assertEquals("mini", pr.getProperty("${app.name}"));
+        assertEquals("mini-1.0", pr.getProperty("app.title"));
+        assertEquals("${app.name}", pr.getProperty("app.escaped"));
+        assertEquals("x", pr.getProperty("${missing:x}"));
+        assertEquals("x", pr.getProperty("missing", "x"));
+        assertNull(pr.getProperty("missing"));
+        assertEquals(Integer.valueOf(8080), pr.getProperty("${server.port:8080}", Integer.class));
+        assertEquals("mini", pr.parseValue("${app.name}"));
+    }
+
+    @Test
+    public void compileOnlyPlaceholders() {
+        PropertyResolver pr = resolver("app.name", "mini", "app.title", "${app.name}!");
+        pr.getProperty("app.name");
+        pr.getProperty("missing");
+        pr.parseValue("plain text");
+        assertTrue(pr.expressions.isEmpty());
+        assertEquals("mini!", pr.getProperty("app.title"));
+        assertEquals("mini", pr.getProperty("${app.name}"));
+        assertEquals(2, pr.expressions.size());
+    }
+
+    @Test
+    public void boundedCaches() {
+        PropertyResolver pr = resolver("app.name", "mini");
+        for (int i = 0; i < PropertyResolver.MAX_EXPRESSIONS + 100; i++) {
+            assertEquals("v" + i, pr.parseValue("${missing:v" + i + "}"));
+        }
+        assertEquals(PropertyResolver.MAX_EXPRESSIONS, pr.expressions.size());
+
+        for (int i = 0; i < PropertyResolver.MAX_NOT_FOUND * 2; i++) {
+            assertNull(pr.getProperty("missing." + i));
+        }
+        PropertyResolver.State s = pr.state;
+        assertEquals(PropertyResolver.MAX_NOT_FOUND, s.notFound().get());
+        assertEquals(PropertyResolver.MAX_NOT_FOUND, s.resolved().values().stream().filter(v -> v == PropertyResolver.NOT_FOUND).count());
+        //超过上限后仍然能查到:
+        assertNull(pr.getProperty("missing.0"));
+        assertEquals("mini", pr.getProperty("app.name"));
+
+        //修改配置后缓存的不存在的key失效:
+        pr.setProperty("missing.0", "found");
+        assertEquals("found", pr.getProperty("missing.0"));
+        assertEquals(0, pr.state.notFound().get());
+    }
+
+    @Test
+    public void addConverterInvalidatesConvertedValues() {
+        ConversionService cs = new ConversionService();
+        Properties props = new Properties();
+        props.setProperty("server.port", "8080");
+        PropertyResolver pr = new PropertyResolver(props, cs);
+        assertEquals(Integer.valueOf(8080), pr.getProperty("server.port", Integer.class));
+        assertEquals(Integer.valueOf(8080), pr.getProperty("server.port", Integer.class));
+
+        cs.addConverter(Integer.class, s -> Integer.parseInt(s) + 1);
+        assertEquals(Integer.valueOf(8081), pr.getProperty("server.port", Integer.class));
+        //其他类型的缓存也一并丢弃:
+        assertEquals(Long.valueOf(8080), pr.getProperty("server.port", Long.class));
+    }
+
+    // 不允许枚举的来源，模拟环境变量:
+    static LookupPropertySource environment(Map<String, String> env) {
+        return new LookupPropertySource("env", env::get, () -> {
+            throw new AssertionError("environment must not be enumerated");
+        }, false);
+    }
+
+    @Test
+    public void sourceOrdering() {
+        PropertyResolver pr = new PropertyResolver(List.of(
+                PropertySource.commandLine("--server.port=9090", "--debug"),
+                PropertySource.of("file", Map.of("server.port", "8080", "server.host", "localhost", "app.name", "file")),
+                PropertySource.of("defaults", Map.of("server.port", "80", "server.timeout", "5s", "app.name", "defaults")),
+                environment(Map.of("APP_HOME", "/opt/app", "app.name", "env"))));
+        //排在前面的来源优先:
+        assertEquals("9090", pr.getProperty("server.port"));
+        assertEquals("true", pr.getProperty("debug"));
+        assertEquals("localhost", pr.getProperty("server.host"));
+        assertEquals("5s", pr.getProperty("server.timeout"));
+        assertEquals("file", pr.getProperty("app.name"));
+        assertEquals("/opt/app", pr.getProperty("APP_HOME"));
+        //前缀查询合并所有可枚举的来源:
+        assertEquals(Map.of("server.port", "9090", "server.host", "localhost", "server.timeout", "5s"), toMap(pr.getSubProperties("server")));
+        assertTrue(pr.containsPrefix("server"));
+        assertTrue(pr.containsPrefix("APP_HOME"));
+        assertFalse(pr.containsPrefix("APP"));
+        assertFalse(pr.containsPrefix("missing"));
+    }
+
+    @Test
+    public void overridePrecedence() {
+        PropertyResolver pr = new PropertyResolver(List.of(
+                PropertySource.of("file", Map.of("server.port", "8080", "server.host", "localhost")),
+                environment(Map.of("SERVER_PORT", "1"))));
+        pr.setProperty("server.port", "7070");
+        pr.setProperty("server.ssl", "true");
+        pr.setProperty("SERVER_PORT", "2");
+        //setProperty优先于所有来源:
+        assertEquals("7070", pr.getProperty("server.port"));
+        assertEquals("2", pr.getProperty("SERVER_PORT"));
+        assertEquals(Map.of("server.port", "7070", "server.host", "localhost", "server.ssl", "true"), toMap(pr.getSubProperties("server")));
+
+        //删除后来源中的值也不可见:
+        pr.setProperty("server.host", null);
+        assertNull(pr.getProperty("server.host"));
+        assertEquals(Map.of("server.port", "7070", "server.ssl", "true"), toMap(pr.getSubProperties("server")));
+        pr.setProperty("server.port", null);
+        pr.setProperty("server.ssl", null);
+        assertFalse(pr.containsPrefix("server"));
+        assertTrue(pr.getSubProperties("server").isEmpty());
+    }
+
+    @Test
+    public void bindWithoutEnumeratingEnvironment() {
+        PropertyResolver pr = new PropertyResolver(List.of(
+                PropertySource.of("file", Map.of("app.servers[0].host", "h0", "app.servers[1].host", "h1")),
+                environment(Map.of())));
+        ConfigurationPropertiesBinderTest.AppProperties props = new ConfigurationPropertiesBinder(pr).bind("app", ConfigurationPropertiesBinderTest.AppProperties.class);
+        assertEquals(List.of(new ConfigurationPropertiesBinderTest.Server("h0", 0), new ConfigurationPropertiesBinderTest.Server("h1", 0)), props.servers());
+        assertNull(props.server());
+    }
+
+    @Test
+    public void prefixQueriesAgreeBeforeAndAfterSnapshot() {
+        //环境变量优先级更高，快照会枚举环境变量，但前缀查询仍然只按key本身查找环境变量:
+        Map<String, String> env = Map.of("app.name", "env", "app.debug", "true", "APP_HOME", "/opt/app", "solo", "x");
+        PropertyResolver pr = new PropertyResolver(List.of(
+                new LookupPropertySource("env", env::get, () -> env, false),
+                PropertySource.of("file", Map.of("app.name", "file", "app.port", "80", "server.host", "h"))));
+        pr.setProperty("app.extra", "1");
+        List<String> prefixes = List.of("", "app", "server", "solo", "APP_HOME", "missing");
+        Map<String, Object> before = prefixQueries(pr, prefixes);
+        assertEquals(Map.of("app.extra", "1", "app.name", "file", "app.port", "80"), before.get("sub:app"));
+        assertEquals(true, before.get("contains:solo"));
+        pr.snapshot();
+        assertEquals(before, prefixQueries(pr, prefixes));
+        //没有setProperty覆盖时直接读取快照:
+        PropertyResolver plain = new PropertyResolver(List.of(
+                new LookupPropertySource("env", env::get, () -> env, false),
+                PropertySource.of("file", Map.of("app.name", "file", "app.port", "80", "server.host", "h"))));
+        before = prefixQueries(plain, prefixes);
+        plain.snapshot();
+        assertEquals(before, prefixQueries(plain, prefixes));
+        assertEquals("env", plain.getProperty("app.name"));
+        assertEquals("env", toMap(plain.getPropertyStore()).get("app.name"));
+    }
+
+    static Map<String, Object> prefixQueries(PropertyResolver pr, List<String> prefixes) {
+        Map<String, Object> results = new HashMap<>();
+        for (String prefix : prefixes) {
+            results.put("sub:" + prefix, toMap(pr.getSubProperties(prefix)));
+            results.put("contains:" + prefix, pr.containsPrefix(prefix));
+        }
+        results.put("all", toMap(pr.getPropertyStore()));
+        return results;
+    }
+
+    static Map<String, String> toMap(PropertyStore store) {
+        return PropertyStoreTest.toMap(store);
+    }
+}
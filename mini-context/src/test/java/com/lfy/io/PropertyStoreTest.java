@@ -0,0 +1,146 @@
+package com.lfy.io;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeMap;
+
+import static org.junit.Assert.*;
+
+public class PropertyStoreTest {
+
+    static PropertyStore store(String... keys) {
+        Map<String, String> map = new HashMap<>();
+        for (String key : keys) {
+            map.put(key, "v:" + key);
+        }
+        return PropertyStore.of(map);
+    }
+
+    static Map<String, String> toMap(PropertyStore store) {
+        Map<String, String> map = new LinkedHashMap<>();
+        store.forEach(map::put);
+        return map;
+    }
+
+    @Test
+    public void getAndKeys() {
+        PropertyStore store = store("b", "a", "c.d");
+        assertEquals(List.of("a", "b", "c.d"), store.keys());
+        assertEquals("v:c.d", store.get("c.d"));
+        assertNull(store.get("c"));
+        assertTrue(store.containsKey("a"));
+        assertFalse(store.containsKey("0"));
+        assertFalse(store.containsKey("z"));
+        assertEquals(3, store.size());
+        assertThrows(IndexOutOfBoundsException.class, () -> store.keys().get(3));
+        assertTrue(PropertyStore.EMPTY.isEmpty());
+        assertTrue(PropertyStore.EMPTY.withPrefix("").isEmpty());
+        assertFalse(PropertyStore.EMPTY.containsPrefix("a"));
+    }
+
+    @Test
+    public void withPrefixBoundaries() {
+        PropertyStore store = store("app", "app-name", "app.b", "app.b.x", "app.bc", "app.b[0]", "app.c", "apple", "ap", "b");
+        assertEquals(List.of("app.b", "app.b.x", "app.b[0]", "app.bc"), store.withPrefix("app.b").keys());
+        assertEquals(List.of("app.b.x"), store.subTree("app.b").keys());
+        //视图上再按前缀查询:
+        assertEquals(List.of("app.b.x"), store.subTree("app").subTree("app.b").keys());
+        assertEquals(List.of("app.b", "app.b.x", "app.b[0]", "app.bc", "app.c"), store.subTree("app").keys());
+        //数组两端:
+        assertEquals(List.of("ap", "app", "app-name", "app.b", "app.b.x", "app.b[0]", "app.bc", "app.c", "apple"), store.withPrefix("ap").keys());
+        assertEquals(List.of("b"), store.withPrefix("b").keys());
+        assertTrue(store.withPrefix("0").isEmpty());
+        assertTrue(store.withPrefix("c").isEmpty());
+        assertTrue(store.withPrefix("app.b.x.y").isEmpty());
+        assertEquals(store.size(), store.withPrefix("").size());
+        assertEquals(store.size(), store.subTree("").size());
+    }
+
+    @Test
+    public void containsPrefixBoundaries() {
+        PropertyStore store = store("app.name", "app-x", "apps.y", "list[0].host", "map.a", "z");
+        assertTrue(store.containsPrefix("app"));
+        assertTrue(store.containsPrefix("app.name"));
+        assertFalse(store.containsPrefix("app.nam"));
+        assertFalse(store.containsPrefix("ap"));
+        assertTrue(store.containsPrefix("list"));
+        assertTrue(store.containsPrefix("list[0]"));
+        assertFalse(store.containsPrefix("list[1]"));
+        assertFalse(store.containsPrefix("list[0].h"));
+        assertTrue(store.containsPrefix("z"));
+        assertFalse(store.containsPrefix("zz"));
+        assertFalse(store.containsPrefix("a"));
+        //视图只在自己的范围内查找:
+        PropertyStore view = store.withPrefix("apps");
+        assertTrue(view.containsPrefix("apps"));
+        assertFalse(view.containsPrefix("app"));
+        assertFalse(view.containsPrefix("z"));
+        assertNull(view.get("app.name"));
+    }
+
+    @Test
+    public void withOnViews() {
+        PropertyStore store = store("a.1", "b.1", "b.3", "c.1");
+        PropertyStore view = store.withPrefix("b.");
+        assertEquals(List.of("b.1", "b.2", "b.3"), view.with("b.2", "x").keys());
+        assertEquals(List.of("b.0", "b.1", "b.3"), view.with("b.0", "x").keys());
+        assertEquals(List.of("b.1", "b.3", "b.4"), view.with("b.4", "x").keys());
+        assertEquals(List.of("b.3"), view.with("b.1", null).keys());
+        assertEquals(List.of("b.1"), view.with("b.3", null).keys());
+        assertEquals("x", view.with("b.3", "x").get("b.3"));
+        assertSame(view, view.with("b.2", null));
+        //原存储不变:
+        assertEquals(List.of("a.1", "b.1", "b.3", "c.1"), store.keys());
+        assertEquals("v:b.3", store.get("b.3"));
+    }
+
+    @Test
+    public void changedKeys() {
+        PropertyStore before = store("a", "b", "c");
+        PropertyStore after = before.with("a", "changed").with("b", null).with("d", "new");
+        assertEquals(Set.of("a", "b", "d"), before.changedKeys(after));
+        assertEquals(Set.of("a", "b", "d"), after.changedKeys(before));
+        assertEquals(Set.of(), before.changedKeys(before));
+        assertEquals(Set.of("a", "b", "c"), before.changedKeys(PropertyStore.EMPTY));
+    }
+
+    @Test
+    public void compareWithTreeMap() {
+        Random random = new Random(42);
+        String alphabet = "ab.[]0-";
+        TreeMap<String, String> expected = new TreeMap<>();
+        for (int i = 0; i < 500; i++) {
+            expected.put(randomKey(random, alphabet), String.valueOf(i));
+        }
+        PropertyStore store = PropertyStore.of(expected);
+        assertEquals(expected, new TreeMap<>(toMap(store)));
+        for (int i = 0; i < 500; i++) {
+            String prefix = randomKey(random, alphabet);
+            List<String> matched = new ArrayList<>();
+            for (String key : expected.keySet()) {
+                if (key.startsWith(prefix)) {
+                    matched.add(key);
+                }
+            }
+            assertEquals(prefix, matched, store.withPrefix(prefix).keys());
+            boolean contains = expected.keySet().stream().anyMatch(k -> k.equals(prefix) || k.startsWith(prefix + ".") || k.startsWith(prefix + "["));
+            assertEquals(prefix, contains, store.containsPrefix(prefix));
+        }
+    }
+
+    static String randomKey(Random random, String alphabet) {
+        int length = 1 + random.nextInt(5);
+        StringBuilder sb = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            sb.append(alphabet.charAt(random.nextInt(alphabet.length())));
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,75 @@
+package com.lfy.processor;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class ComponentIndexProcessorTest {
+
+    Path src;
+    Path out;
+
+    @Before
+    public void setUp() throws IOException {
+        Path dir = Files.createTempDirectory("index-test");
+        src = Files.createDirectories(dir.resolve("src/demo"));
+        out = Files.createDirectories(dir.resolve("classes"));
+    }
+
+    @Test
+    public void indexClassesRecordsAndEnums() throws IOException {
+        write("Service", "@com.lfy.annotation.Component public class Service { @com.lfy.annotation.Component public static class Inner {} }");
+        write("Config", "@com.lfy.annotation.Configuration public class Config {}");
+        write("Props", "@com.lfy.annotation.Component @com.lfy.annotation.ConfigurationProperties(prefix = \"app\") public record Props(String name) {}");
+        write("Mode", "@com.lfy.annotation.Component public enum Mode { A }");
+        write("Api", "@com.lfy.annotation.Component public interface Api {}");
+        write("Plain", "public class Plain {}");
+        compile("Service", "Config", "Props", "Mode", "Api", "Plain");
+        assertEquals(List.of("demo.Config", "demo.Mode", "demo.Props", "demo.Service", "demo.Service$Inner"), readIndex());
+    }
+
+    @Test
+    public void mergeExistingIndexOnIncrementalBuild() throws IOException {
+        write("A", "@com.lfy.annotation.Component public class A {}");
+        write("B", "@com.lfy.annotation.Component public class B {}");
+        write("C", "@com.lfy.annotation.Component public class C {}");
+        compile("A", "B", "C");
+        assertEquals(List.of("demo.A", "demo.B", "demo.C"), readIndex());
+
+        //只重新编译B（已不再是组件）和新增的D，A保留，已删除的C被移除:
+        Files.delete(out.resolve("demo/C.class"));
+        write("B", "public class B {}");
+        write("D", "@com.lfy.annotation.Component public class D {}");
+        compile("B", "D");
+        assertEquals(List.of("demo.A", "demo.D"), readIndex());
+    }
+
+    void write(String name, String body) throws IOException {
+        Files.writeString(src.resolve(name + ".java"), "package demo;\n" + body, StandardCharsets.UTF_8);
+    }
+
+    void compile(String... names) {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        List<String> args = new ArrayList<>(List.of("-d", out.toString(),
+                "-cp", out + java.io.File.pathSeparator + System.getProperty("java.class.path"),
+                "-processor", ComponentIndexProcessor.class.getName()));
+        for (String name : names) {
+            args.add(src.resolve(name + ".java").toString());
+        }
+        assertEquals(0, compiler.run(null, null, null, args.toArray(String[]::new)));
+    }
+
+    List<String> readIndex() throws IOException {
+        return Files.readAllLines(out.resolve(ComponentIndexProcessor.COMPONENTS_RESOURCE_LOCATION));
+    }
+}
@@ -0,0 +1,26 @@
+package com.lfy.test.factory;
+
+public class Car {
+
+    public final Engine engine;
+
+    public final Engine standardEngine;
+
+    public final Wheels wheels;
+
+    public boolean running;
+
+    public Car(Engine engine, Engine standardEngine, Wheels wheels) {
+        this.engine = engine;
+        this.standardEngine = standardEngine;
+        this.wheels = wheels;
+    }
+
+    void start() {
+        this.running = true;
+    }
+
+    void stop() {
+        this.running = false;
+    }
+}
@@ -0,0 +1,32 @@
+package com.lfy.test.factory;
+
+import com.lfy.annotation.Autowired;
+import com.lfy.annotation.Bean;
+import com.lfy.annotation.Configuration;
+import com.lfy.annotation.Primary;
+import com.lfy.annotation.Value;
+
+@Configuration
+public class FactoryConfig {
+
+    @Bean
+    Engine engine(@Value("${engine.power:100}") int power) {
+        return new Engine("engine", power);
+    }
+
+    @Primary
+    @Bean("turbo")
+    Engine turboEngine() {
+        return new Engine("turbo", 300);
+    }
+
+    @Bean
+    static Wheels wheels(@Value("${wheels.count:4}") int count) {
+        return new Wheels(count);
+    }
+
+    @Bean(initMethod = "start", destroyMethod = "stop")
+    Car car(@Autowired Engine engine, @Autowired(name = "engine") Engine standardEngine, @Autowired Wheels wheels) {
+        return new Car(engine, standardEngine, wheels);
+    }
+}
@@ -0,0 +1,4 @@
+package com.lfy.test.factory;
+
+public record Wheels(int count) {
+}
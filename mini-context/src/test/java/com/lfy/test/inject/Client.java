@@ -0,0 +1,22 @@
+package com.lfy.test.inject;
+
+import com.lfy.annotation.Autowired;
+import com.lfy.annotation.Component;
+
+@Component
+public class Client {
+
+    @Autowired
+    private Greeter greeter;
+
+    public Repository repository;
+
+    public Greeter getGreeter() {
+        return this.greeter;
+    }
+
+    @Autowired
+    public void setRepository(Repository repository) {
+        this.repository = repository;
+    }
+}
@@ -0,0 +1,32 @@
+package com.lfy.test.inject;
+
+import com.lfy.annotation.Autowired;
+import com.lfy.annotation.Value;
+
+public class DefaultGreeter implements Greeter {
+
+    final String greeting;
+
+    @Autowired
+    private Repository repository;
+
+    String name;
+
+    DefaultGreeter(String greeting) {
+        this.greeting = greeting;
+    }
+
+    public Repository getRepository() {
+        return this.repository;
+    }
+
+    @Value("${app.name:world}")
+    void setName(String name) {
+        this.name = name;
+    }
+
+    @Override
+    public String greet() {
+        return this.greeting + ", " + this.name;
+    }
+}
@@ -0,0 +1,6 @@
+package com.lfy.test.inject;
+
+public interface Greeter {
+
+    String greet();
+}
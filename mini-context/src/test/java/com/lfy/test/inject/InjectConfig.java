@@ -0,0 +1,30 @@
+package com.lfy.test.inject;
+
+import com.lfy.annotation.Autowired;
+import com.lfy.annotation.Bean;
+import com.lfy.annotation.Configuration;
+import com.lfy.annotation.Value;
+import jakarta.annotation.PostConstruct;
+
+@Configuration
+public class InjectConfig {
+
+    @Autowired
+    public Repository repository;
+
+    @Value("${app.greeting:hello}")
+    public String greeting;
+
+    public boolean repositoryInjectedBeforeInit;
+
+    @PostConstruct
+    void init() {
+        this.repositoryInjectedBeforeInit = this.repository != null;
+    }
+
+    //声明的返回类型是接口，注入点在实际类型DefaultGreeter上:
+    @Bean
+    Greeter greeter() {
+        return new DefaultGreeter(this.greeting);
+    }
+}
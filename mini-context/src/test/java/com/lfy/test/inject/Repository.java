@@ -0,0 +1,7 @@
+package com.lfy.test.inject;
+
+import com.lfy.annotation.Component;
+
+@Component
+public class Repository {
+}
@@ -0,0 +1,13 @@
+package com.lfy.test.lazycycle;
+
+import com.lfy.annotation.Autowired;
+import com.lfy.annotation.Component;
+import com.lfy.annotation.Lazy;
+
+@Lazy
+@Component
+public class CyclicA {
+
+    public CyclicA(@Autowired CyclicB other) {
+    }
+}
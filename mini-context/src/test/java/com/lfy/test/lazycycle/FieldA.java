@@ -0,0 +1,21 @@
+package com.lfy.test.lazycycle;
+
+import com.lfy.annotation.Autowired;
+import com.lfy.annotation.Component;
+import com.lfy.annotation.Lazy;
+import jakarta.annotation.PostConstruct;
+
+@Lazy
+@Component
+public class FieldA {
+
+    @Autowired
+    public FieldB other;
+
+    public boolean initialized;
+
+    @PostConstruct
+    void init() {
+        this.initialized = this.other != null;
+    }
+}
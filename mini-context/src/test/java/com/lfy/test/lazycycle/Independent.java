@@ -0,0 +1,9 @@
+package com.lfy.test.lazycycle;
+
+import com.lfy.annotation.Component;
+import com.lfy.annotation.Lazy;
+
+@Lazy
+@Component
+public class Independent {
+}
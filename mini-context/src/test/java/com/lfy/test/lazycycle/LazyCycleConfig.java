@@ -0,0 +1,7 @@
+package com.lfy.test.lazycycle;
+
+import com.lfy.annotation.Configuration;
+
+@Configuration
+public class LazyCycleConfig {
+}
@@ -0,0 +1,29 @@
+package com.lfy.test.lifecycle;
+
+import com.lfy.annotation.Autowired;
+import com.lfy.annotation.Component;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+@Component
+public class Controller {
+
+    @Autowired
+    public Service service;
+
+    @Autowired
+    public Repository repository;
+
+    public String initResult;
+
+    @PostConstruct
+    void init() {
+        this.initResult = this.repository.find();
+        Events.EVENTS.add("init:controller");
+    }
+
+    @PreDestroy
+    void destroy() {
+        Events.EVENTS.add("destroy:controller");
+    }
+}
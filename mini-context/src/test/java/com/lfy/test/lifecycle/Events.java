@@ -0,0 +1,9 @@
+package com.lfy.test.lifecycle;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+public class Events {
+
+    public static final List<String> EVENTS = new CopyOnWriteArrayList<>();
+}
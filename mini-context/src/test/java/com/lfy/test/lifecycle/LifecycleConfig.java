@@ -0,0 +1,7 @@
+package com.lfy.test.lifecycle;
+
+import com.lfy.annotation.Configuration;
+
+@Configuration
+public class LifecycleConfig {
+}
@@ -0,0 +1,23 @@
+package com.lfy.test.lifecycle;
+
+import com.lfy.annotation.Component;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+@Component
+public class Repository {
+
+    public String find() {
+        return "repository";
+    }
+
+    @PostConstruct
+    void init() {
+        Events.EVENTS.add("init:repository");
+    }
+
+    @PreDestroy
+    void destroy() {
+        Events.EVENTS.add("destroy:repository");
+    }
+}
@@ -0,0 +1,26 @@
+package com.lfy.test.lifecycle;
+
+import com.lfy.annotation.Autowired;
+import com.lfy.annotation.Component;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+@Component
+public class Service {
+
+    public final Repository repository;
+
+    public Service(@Autowired Repository repository) {
+        this.repository = repository;
+    }
+
+    @PostConstruct
+    void init() {
+        Events.EVENTS.add("init:service");
+    }
+
+    @PreDestroy
+    void destroy() {
+        Events.EVENTS.add("destroy:service");
+    }
+}
@@ -0,0 +1,18 @@
+package com.lfy.test.lifecycle;
+
+/**
+ * TracingPostProcessor在初始化后返回的代理。
+ */
+public class TracedRepository extends Repository {
+
+    final Repository target;
+
+    TracedRepository(Repository target) {
+        this.target = target;
+    }
+
+    @Override
+    public String find() {
+        return "traced:" + this.target.find();
+    }
+}
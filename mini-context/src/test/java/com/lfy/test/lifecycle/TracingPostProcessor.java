@@ -0,0 +1,18 @@
+package com.lfy.test.lifecycle;
+
+import com.lfy.annotation.Component;
+import com.lfy.context.BeanPostProcessor;
+
+@Component
+public class TracingPostProcessor implements BeanPostProcessor {
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        return bean instanceof Repository repository ? new TracedRepository(repository) : bean;
+    }
+
+    @Override
+    public Object postProcessOnSetProperty(Object bean, String beanName) {
+        return bean instanceof TracedRepository traced ? traced.target : bean;
+    }
+}
@@ -0,0 +1,16 @@
+package com.lfy.test.meta;
+
+import com.lfy.annotation.Bean;
+import com.lfy.annotation.Component;
+import com.lfy.annotation.Configuration;
+
+//旧代码要求@Configuration和@Component同时标注:
+@Configuration
+@Component
+public class MetaConfig {
+
+    @Bean
+    public String greeting() {
+        return "hello";
+    }
+}
@@ -0,0 +1,9 @@
+package com.lfy.test.meta;
+
+import com.lfy.annotation.Component;
+import com.lfy.annotation.Configuration;
+
+@Component("named")
+@Configuration
+public class NamedConfig {
+}
@@ -0,0 +1,17 @@
+package com.lfy.test.parallel;
+
+import com.lfy.annotation.Component;
+import jakarta.annotation.PostConstruct;
+
+@Component
+public class Base {
+
+    public Base() {
+        Events.record("create:Base");
+    }
+
+    @PostConstruct
+    void init() {
+        Events.record("init:Base");
+    }
+}
@@ -0,0 +1,13 @@
+package com.lfy.test.parallel;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+public class Events {
+
+    public static final List<String> EVENTS = new CopyOnWriteArrayList<>();
+
+    public static void record(String event) {
+        EVENTS.add(event + "@" + Thread.currentThread().getName());
+    }
+}
@@ -0,0 +1,18 @@
+package com.lfy.test.parallel;
+
+import com.lfy.annotation.Autowired;
+import com.lfy.annotation.Component;
+import jakarta.annotation.PostConstruct;
+
+@Component
+public class Left {
+
+    public Left(@Autowired Base base) {
+        Events.record("create:Left");
+    }
+
+    @PostConstruct
+    void init() {
+        Events.record("init:Left");
+    }
+}
@@ -0,0 +1,17 @@
+package com.lfy.test.parallel;
+
+import com.lfy.annotation.Component;
+import jakarta.annotation.PostConstruct;
+
+@Component
+public class Other {
+
+    public Other() {
+        Events.record("create:Other");
+    }
+
+    @PostConstruct
+    void init() {
+        Events.record("init:Other");
+    }
+}
@@ -0,0 +1,7 @@
+package com.lfy.test.parallel;
+
+import com.lfy.annotation.Configuration;
+
+@Configuration
+public class ParallelConfig {
+}
@@ -0,0 +1,18 @@
+package com.lfy.test.parallel;
+
+import com.lfy.annotation.Autowired;
+import com.lfy.annotation.Component;
+import jakarta.annotation.PostConstruct;
+
+@Component
+public class Right {
+
+    public Right(@Autowired Base base) {
+        Events.record("create:Right");
+    }
+
+    @PostConstruct
+    void init() {
+        Events.record("init:Right");
+    }
+}
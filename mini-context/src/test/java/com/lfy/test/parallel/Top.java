@@ -0,0 +1,18 @@
+package com.lfy.test.parallel;
+
+import com.lfy.annotation.Autowired;
+import com.lfy.annotation.Component;
+import jakarta.annotation.PostConstruct;
+
+@Component
+public class Top {
+
+    public Top(@Autowired Left left, @Autowired Right right) {
+        Events.record("create:Top");
+    }
+
+    @PostConstruct
+    void init() {
+        Events.record("init:Top");
+    }
+}
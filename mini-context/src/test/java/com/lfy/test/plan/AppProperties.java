@@ -0,0 +1,9 @@
+package com.lfy.test.plan;
+
+import com.lfy.annotation.Component;
+import com.lfy.annotation.ConfigurationProperties;
+
+@Component
+@ConfigurationProperties(prefix = "app")
+public record AppProperties(String name) {
+}
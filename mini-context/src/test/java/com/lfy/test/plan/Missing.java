@@ -0,0 +1,4 @@
+package com.lfy.test.plan;
+
+public interface Missing {
+}
@@ -0,0 +1,14 @@
+package com.lfy.test.plan;
+
+import com.lfy.annotation.Bean;
+import com.lfy.annotation.Configuration;
+import com.lfy.annotation.Value;
+
+@Configuration
+public class PlanConfig {
+
+    @Bean
+    Repository repository(@Value("${db.url:jdbc:mem}") String url) {
+        return new Repository(url);
+    }
+}
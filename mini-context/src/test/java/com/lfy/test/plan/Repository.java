@@ -0,0 +1,10 @@
+package com.lfy.test.plan;
+
+public class Repository {
+
+    public final String url;
+
+    public Repository(String url) {
+        this.url = url;
+    }
+}
@@ -0,0 +1,30 @@
+package com.lfy.test.plan;
+
+import com.lfy.annotation.Autowired;
+import com.lfy.annotation.Component;
+import com.lfy.annotation.Value;
+
+import java.util.List;
+
+@Component
+public class Service {
+
+    public final Repository repository;
+
+    public final List<Integer> ports;
+
+    @Autowired(false)
+    public Missing missing;
+
+    public String name;
+
+    public Service(@Autowired Repository repository, @Value("${app.ports:80,443}") List<Integer> ports) {
+        this.repository = repository;
+        this.ports = ports;
+    }
+
+    @Value("${app.name:demo}")
+    public void setName(String name) {
+        this.name = name;
+    }
+}
@@ -0,0 +1,11 @@
+package com.lfy.test.planerror;
+
+import com.lfy.annotation.Component;
+import com.lfy.annotation.Value;
+
+@Component
+public class UnsupportedValue {
+
+    public UnsupportedValue(@Value("${thread}") Thread thread) {
+    }
+}
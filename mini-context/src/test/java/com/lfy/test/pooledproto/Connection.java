@@ -0,0 +1,9 @@
+package com.lfy.test.pooledproto;
+
+import com.lfy.annotation.Component;
+import com.lfy.annotation.Scope;
+
+@Component
+@Scope("pooled")
+public class Connection {
+}
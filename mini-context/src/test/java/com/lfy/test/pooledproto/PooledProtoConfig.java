@@ -0,0 +1,7 @@
+package com.lfy.test.pooledproto;
+
+import com.lfy.annotation.Configuration;
+
+@Configuration
+public class PooledProtoConfig {
+}
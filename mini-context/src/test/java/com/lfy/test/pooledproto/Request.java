@@ -0,0 +1,13 @@
+package com.lfy.test.pooledproto;
+
+import com.lfy.annotation.Autowired;
+import com.lfy.annotation.Component;
+import com.lfy.annotation.Scope;
+
+@Component
+@Scope("prototype")
+public class Request {
+
+    @Autowired
+    public Connection connection;
+}
@@ -0,0 +1,7 @@
+package com.lfy.test.reload;
+
+import com.lfy.annotation.Configuration;
+
+@Configuration
+public class ReloadConfig {
+}
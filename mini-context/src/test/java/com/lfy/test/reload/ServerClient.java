@@ -0,0 +1,26 @@
+package com.lfy.test.reload;
+
+import com.lfy.annotation.Autowired;
+import com.lfy.annotation.Component;
+import com.lfy.io.PropertyChangeListener;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+@Component
+public class ServerClient implements PropertyChangeListener {
+
+    public final ServerProperties injected;
+
+    public final List<Set<String>> changes = new CopyOnWriteArrayList<>();
+
+    public ServerClient(@Autowired ServerProperties injected) {
+        this.injected = injected;
+    }
+
+    @Override
+    public void onPropertiesChanged(Set<String> changedKeys) {
+        changes.add(changedKeys);
+    }
+}
@@ -0,0 +1,31 @@
+package com.lfy.test.reload;
+
+import com.lfy.annotation.Component;
+import com.lfy.annotation.ConfigurationProperties;
+import jakarta.annotation.PreDestroy;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+@Component
+@ConfigurationProperties(prefix = "server")
+public class ServerProperties {
+
+    public static final List<ServerProperties> DESTROYED = new CopyOnWriteArrayList<>();
+
+    String host = "localhost";
+    int port;
+
+    public String getHost() {
+        return host;
+    }
+
+    public int getPort() {
+        return port;
+    }
+
+    @PreDestroy
+    void destroy() {
+        DESTROYED.add(this);
+    }
+}
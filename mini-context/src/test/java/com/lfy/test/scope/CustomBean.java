@@ -0,0 +1,15 @@
+package com.lfy.test.scope;
+
+import com.lfy.annotation.Component;
+import com.lfy.annotation.Scope;
+import jakarta.annotation.PreDestroy;
+
+@Component
+@Scope("custom")
+public class CustomBean {
+
+    @PreDestroy
+    void destroy() {
+        Destroyed.BEANS.add(this);
+    }
+}
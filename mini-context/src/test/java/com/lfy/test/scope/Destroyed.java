@@ -0,0 +1,9 @@
+package com.lfy.test.scope;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+public class Destroyed {
+
+    public static final List<Object> BEANS = new CopyOnWriteArrayList<>();
+}
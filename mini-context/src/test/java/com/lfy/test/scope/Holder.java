@@ -0,0 +1,26 @@
+package com.lfy.test.scope;
+
+import com.lfy.annotation.Autowired;
+import com.lfy.annotation.Component;
+import jakarta.annotation.PreDestroy;
+
+@Component
+public class Holder {
+
+    public final ProtoBean proto;
+
+    @Autowired
+    public PooledBean pooled;
+
+    @Autowired
+    public ThreadBean thread;
+
+    public Holder(@Autowired ProtoBean proto) {
+        this.proto = proto;
+    }
+
+    @PreDestroy
+    void destroy() {
+        Destroyed.BEANS.add(this);
+    }
+}
@@ -0,0 +1,7 @@
+package com.lfy.test.scope;
+
+import com.lfy.annotation.Configuration;
+
+@Configuration
+public class ScopeConfig {
+}
@@ -0,0 +1,123 @@
+package com.lfy.util;
+
+import com.lfy.annotation.Component;
+import com.lfy.annotation.Configuration;
+import com.lfy.context.AnnotationConfigApplicationContext;
+import com.lfy.exception.BeanDefinitionException;
+import com.lfy.io.PropertyResolver;
+import com.lfy.test.meta.MetaConfig;
+import com.lfy.test.meta.NamedConfig;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.ref.WeakReference;
+import java.util.Properties;
+
+import static org.junit.Assert.*;
+
+public class ClassUtilsTest {
+
+    @Retention(RetentionPolicy.RUNTIME)
+    @Component
+    @interface Service {
+    }
+
+    @Retention(RetentionPolicy.RUNTIME)
+    @Component
+    @interface Repository {
+    }
+
+    @Retention(RetentionPolicy.RUNTIME)
+    @Component("other")
+    @interface Named {
+    }
+
+    @Service
+    @Repository
+    static class SameMetaAnnotations {
+    }
+
+    @Service
+    @Named
+    static class DifferentMetaAnnotations {
+    }
+
+    @Test
+    public void directAnnotationWinsOverMetaAnnotation() {
+        Component component = ClassUtils.findAnnotation(MetaConfig.class, Component.class);
+        assertNotNull(component);
+        assertSame(MetaConfig.class.getAnnotation(Component.class), component);
+        assertNotNull(ClassUtils.findAnnotation(MetaConfig.class, Configuration.class));
+        assertEquals("named", ClassUtils.getBeanName(NamedConfig.class));
+    }
+
+    @Test
+    public void identicalMetaAnnotationsAreMerged() {
+        assertNotNull(ClassUtils.findAnnotation(SameMetaAnnotations.class, Component.class));
+    }
+
+    @Test(expected = BeanDefinitionException.class)
+    public void differentMetaAnnotationsAreDuplicate() {
+        ClassUtils.findAnnotation(DifferentMetaAnnotations.class, Component.class);
+    }
+
+    @Test
+    public void loadConfigurationAnnotatedWithComponent() throws Exception {
+        var ctx = new AnnotationConfigApplicationContext(MetaConfig.class, new PropertyResolver(new Properties()));
+        assertNotNull(ctx.getBean("metaConfig"));
+        assertNotNull(ctx.getBean("named"));
+        assertEquals("hello", ctx.getBean("greeting"));
+        ctx.close();
+    }
+
+    @Test
+    public void cacheDoesNotPinClassLoader() throws Exception {
+        WeakReference<ClassLoader> ref = lookupInIsolatedLoader();
+        for (int i = 0; i < 50 && ref.get() != null; i++) {
+            System.gc();
+            Thread.sleep(20);
+        }
+        assertNull(ref.get());
+    }
+
+    WeakReference<ClassLoader> lookupInIsolatedLoader() throws Exception {
+        ClassLoader loader = new IsolatedClassLoader(getClass().getClassLoader(), MetaConfig.class.getName());
+        Class<?> clazz = loader.loadClass(MetaConfig.class.getName());
+        assertNotSame(MetaConfig.class, clazz);
+        assertNotNull(ClassUtils.findAnnotation(clazz, Configuration.class));
+        assertNotNull(ClassUtils.findAnnotation(clazz, Component.class));
+        return new WeakReference<>(loader);
+    }
+
+    //自己定义指定的类，其余类交给父加载器:
+    static class IsolatedClassLoader extends ClassLoader {
+        final String className;
+
+        IsolatedClassLoader(ClassLoader parent, String className) {
+            super(parent);
+            this.className = className;
+        }
+
+        @Override
+        protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+            if (!name.equals(this.className)) {
+                return super.loadClass(name, resolve);
+            }
+            synchronized (getClassLoadingLock(name)) {
+                Class<?> clazz = findLoadedClass(name);
+                if (clazz == null) {
+                    try (InputStream input = getParent().getResourceAsStream(name.replace('.', '/') + ".class")) {
+                        byte[] bytes = input.readAllBytes();
+                        clazz = defineClass(name, bytes, 0, bytes.length);
+                    } catch (IOException e) {
+                        throw new ClassNotFoundException(name, e);
+                    }
+                }
+                return clazz;
+            }
+        }
+    }
+}
@@ -0,0 +1,227 @@
+package com.lfy.util;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.yaml.snakeyaml.DumperOptions;
+import org.yaml.snakeyaml.LoaderOptions;
+import org.yaml.snakeyaml.Yaml;
+import org.yaml.snakeyaml.constructor.Constructor;
+import org.yaml.snakeyaml.nodes.Tag;
+import org.yaml.snakeyaml.representer.Representer;
+import org.yaml.snakeyaml.resolver.Resolver;
+
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class YamlUtilsTest {
+
+    Path dir;
+
+    @Before
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("yaml");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        try (var files = Files.walk(dir)) {
+            for (Path p : files.sorted(Collections.reverseOrder()).toList()) {
+                Files.delete(p);
+            }
+        }
+    }
+
+    @Test
+    public void nestedMappingsAndLists() throws IOException {
+        Map<String, Object> plain = assertSameAsYamlLoad("""
+                server:
+                  port: 8080
+                  address: 0.0.0.0
+                app:
+                  name: mini
+                  tags: [a, b]
+                  empty-list: []
+                  empty-map: {}
+                  servers:
+                    - host: h1
+                      port: 80
+                    - host: h2
+                  mixed:
+                    - x
+                    - key: v
+                    - [1, 2]
+                  matrix:
+                    - [1, 2]
+                    - [3, [4, 5]]
+                """);
+        assertEquals("8080", plain.get("server.port"));
+        assertEquals(List.of("a", "b"), plain.get("app.tags"));
+        assertEquals("h2", plain.get("app.servers[1].host"));
+        assertEquals("x", plain.get("app.mixed[0]"));
+        assertEquals(List.of("1", "2"), plain.get("app.mixed[2]"));
+        assertEquals(List.of(List.of("1", "2"), List.of("3", List.of("4", "5"))), plain.get("app.matrix"));
+    }
+
+    @Test
+    public void emptyValues() throws IOException {
+        Map<String, Object> plain = assertSameAsYamlLoad("""
+                a:
+                b: ""
+                c:
+                  d:
+                list:
+                  -
+                  - x
+                """);
+        assertEquals("", plain.get("a"));
+        assertEquals("", plain.get("c.d"));
+    }
+
+    @Test
+    public void anchorsAndAliases() throws IOException {
+        Map<String, Object> plain = assertSameAsYamlLoad("""
+                defaults: &defaults
+                  timeout: 5s
+                  pool:
+                    size: 10
+                  hosts: [a, b]
+                name: &name mini
+                copy: *defaults
+                title: *name
+                list:
+                  - *defaults
+                  - *name
+                """);
+        assertEquals("10", plain.get("copy.pool.size"));
+        assertEquals("mini", plain.get("title"));
+        assertEquals("5s", plain.get("list[0].timeout"));
+        assertEquals("mini", plain.get("list[1]"));
+    }
+
+    @Test
+    public void explicitKeysWinOverMerge() throws IOException {
+        Map<String, Object> plain = assertSameAsYamlLoad("""
+                base: &base
+                  host: localhost
+                  port: 80
+                  pool:
+                    size: 10
+                    idle: 2
+                before:
+                  port: 8080
+                  <<: *base
+                after:
+                  <<: *base
+                  port: 8081
+                  pool:
+                    size: 20
+                """);
+        assertEquals("8080", plain.get("before.port"));
+        assertEquals("localhost", plain.get("before.host"));
+        assertEquals("8081", plain.get("after.port"));
+        //合并是浅层的，显式设置的pool整体替换:
+        assertEquals("20", plain.get("after.pool.size"));
+        assertFalse(plain.containsKey("after.pool.idle"));
+    }
+
+    @Test
+    public void mergeSequence() throws IOException {
+        Map<String, Object> plain = assertSameAsYamlLoad("""
+                a: &a
+                  x: 1
+                  y: 1
+                b: &b
+                  y: 2
+                  z: 2
+                  nested:
+                    k: v
+                c:
+                  <<: [*a, *b]
+                  z: 3
+                d:
+                  <<: [*b, *a]
+                e: &e
+                  <<: *a
+                  w: 4
+                f:
+                  <<: *e
+                """);
+        //排在前面的锚点优先:
+        assertEquals("1", plain.get("c.y"));
+        assertEquals("3", plain.get("c.z"));
+        assertEquals("v", plain.get("c.nested.k"));
+        assertEquals("2", plain.get("d.y"));
+        //合并后的锚点再次被合并:
+        assertEquals("1", plain.get("f.x"));
+        assertEquals("4", plain.get("f.w"));
+    }
+
+    Map<String, Object> assertSameAsYamlLoad(String yaml) throws IOException {
+        Files.writeString(dir.resolve("test.yml"), yaml);
+        Map<String, Object> expected = new LinkedHashMap<>();
+        flatten(new Yaml(new Constructor(new LoaderOptions()), new Representer(new DumperOptions()), new DumperOptions(), new LoaderOptions(), new MergeOnlyResolver())
+                .load(yaml), "", expected);
+        ClassLoader original = Thread.currentThread().getContextClassLoader();
+        try (URLClassLoader loader = new URLClassLoader(new URL[] { dir.toUri().toURL() }, null)) {
+            Thread.currentThread().setContextClassLoader(loader);
+            Map<String, Object> plain = YamlUtils.loadYamlAsPlainMap("test.yml");
+            assertEquals(expected, plain);
+            return plain;
+        } finally {
+            Thread.currentThread().setContextClassLoader(original);
+        }
+    }
+
+    // 按yaml.load的结果展开，作为对照:
+    @SuppressWarnings("unchecked")
+    static void flatten(Map<String, Object> source, String prefix, Map<String, Object> plain) {
+        for (Map.Entry<String, Object> entry : source.entrySet()) {
+            String key = prefix + entry.getKey();
+            Object value = entry.getValue();
+            if (value instanceof Map) {
+                flatten((Map<String, Object>) value, key + ".", plain);
+            } else if (value instanceof List<?> list && list.stream().anyMatch(e -> e instanceof Map)) {
+                for (int i = 0; i < list.size(); i++) {
+                    Object element = list.get(i);
+                    if (element instanceof Map) {
+                        flatten((Map<String, Object>) element, key + "[" + i + "].", plain);
+                    } else {
+                        plain.put(key + "[" + i + "]", normalize(element));
+                    }
+                }
+            } else {
+                plain.put(key, normalize(value));
+            }
+        }
+    }
+
+    // 空值按空字符串处理:
+    static Object normalize(Object value) {
+        if (value instanceof List<?> list) {
+            List<Object> normalized = new ArrayList<>();
+            list.forEach(e -> normalized.add(normalize(e)));
+            return normalized;
+        }
+        return value == null ? "" : value;
+    }
+
+    // 所有标量都是字符串，只识别<<和空值:
+    static class MergeOnlyResolver extends Resolver {
+        @Override
+        protected void addImplicitResolvers() {
+            addImplicitResolver(Tag.MERGE, MERGE, "<");
+            addImplicitResolver(Tag.NULL, EMPTY, null);
+        }
+    }
+}